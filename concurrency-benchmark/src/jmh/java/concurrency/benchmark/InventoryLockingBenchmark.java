@@ -0,0 +1,85 @@
+package concurrency.benchmark;
+
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.service.OrderService;
+import concurrency.practice.service.StockStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재고 차감 전략별 OrderService.createOrder 처리량과 지연 시간 분포
+ *
+ * - strategy: PESSIMISTIC_LOCK(findByIdWithPessimisticLock) / OPTIMISTIC_VERSION(Inventory.version) / CONDITIONAL_UPDATE
+ * - skuCount: 1 이면 모든 스레드가 한 상품에 몰리는 경우(hot SKU), 크면 주문이 여러 상품에 흩어지는 경우
+ * - 스레드 수는 -Pjmh.threads 또는 ThreadSweepRunner 로 1 ~ 256 까지 바꿔가며 측정한다.
+ *
+ * Throughput 모드는 ops/ms, SampleTime 모드는 p50/p90/p99/p99.9 지연 시간을 보고한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InventoryLockingBenchmark {
+
+    @Param({"PESSIMISTIC_LOCK", "OPTIMISTIC_VERSION", "CONDITIONAL_UPDATE"})
+    private StockStrategy strategy;
+
+    @Param({"1", "1024"})
+    private int skuCount;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private ProductOrderRepository productOrderRepository;
+    private Long[] inventoryIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PracticeContext.start();
+        orderService = context.getBean(OrderService.class);
+        productOrderRepository = context.getBean(ProductOrderRepository.class);
+
+        // 측정 도중 재고 부족으로 빠르게 실패하는 경로가 섞이지 않도록 재고를 충분히 넣는다.
+        InventoryRepository inventoryRepository = context.getBean(InventoryRepository.class);
+        inventoryIds = new Long[skuCount];
+        for (int i = 0; i < skuCount; i++) {
+            inventoryIds[i] = inventoryRepository.save(new Inventory("SKU-" + i, Long.MAX_VALUE / 2)).getId();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearOrders() {
+        // 반복마다 주문 테이블을 비워 테이블 크기가 측정에 영향을 주지 않게 한다.
+        productOrderRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void createOrder(Blackhole blackhole) {
+        Long inventoryId = inventoryIds[ThreadLocalRandom.current().nextInt(inventoryIds.length)];
+        try {
+            blackhole.consume(orderService.createOrder(inventoryId, 1, strategy));
+        } catch (PracticeException e) {
+            // OPTIMISTIC_LOCK_CONFLICT: 재시도 횟수를 모두 쓴 경우도 한 번의 시도로 센다.
+            blackhole.consume(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package concurrency.benchmark;
+
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.service.InventoryQueryService;
+import concurrency.practice.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문이 계속 들어오는 동안의 재고 조회 처리량 (InventoryCache 사용 / 미사용)
+ *
+ * 한 그룹에서 조회 스레드 12개와 주문 스레드 4개가 함께 돈다.
+ * JMH 는 read 와 order 의 처리량을 따로 보고하므로, 캐시가 조회 QPS 를 얼마나 올리는지와
+ * 커밋 훅(afterCommit 갱신)이 주문 처리량을 떨어뜨리지 않는지를 한 번에 볼 수 있다.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InventoryReadBenchmark {
+
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+
+    @Param({"16", "1024"})
+    private int skuCount;
+
+    private ConfigurableApplicationContext context;
+    private InventoryQueryService inventoryQueryService;
+    private OrderService orderService;
+    private ProductOrderRepository productOrderRepository;
+    private InventoryCache inventoryCache;
+    private Long[] inventoryIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PracticeContext.start("practice.inventory.cache.enabled=" + cacheEnabled);
+        inventoryQueryService = context.getBean(InventoryQueryService.class);
+        orderService = context.getBean(OrderService.class);
+        productOrderRepository = context.getBean(ProductOrderRepository.class);
+        inventoryCache = context.getBean(InventoryCache.class);
+
+        InventoryRepository inventoryRepository = context.getBean(InventoryRepository.class);
+        inventoryIds = new Long[skuCount];
+        for (int i = 0; i < skuCount; i++) {
+            inventoryIds[i] = inventoryRepository.save(new Inventory("SKU-" + i, Long.MAX_VALUE / 2)).getId();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearOrders() {
+        productOrderRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("\n" + inventoryCache.stats());
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(12)
+    public long read() {
+        return inventoryQueryService.getStock(randomInventoryId());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public Long order() {
+        return orderService.createOrder(randomInventoryId(), 1);
+    }
+
+    private Long randomInventoryId() {
+        return inventoryIds[ThreadLocalRandom.current().nextInt(inventoryIds.length)];
+    }
+}
@@ -0,0 +1,93 @@
+package concurrency.benchmark;
+
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.sales.InventorySales;
+import concurrency.practice.sales.InventorySalesAggregates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상품별 판매 집계 조회: 메모리 집계(InventorySalesAggregates) vs 주문 테이블 GROUP BY
+ *
+ * 주문 rows 건(10건 중 1건은 취소)을 skuCount 개 상품에 고르게 나눠 SQL 한 문장으로 채운 뒤, 집계를 한 번 재구성해 둔다.
+ * groupBy 는 주문 수에, aggregates 는 상품 수에 비례해야 한다. 재구성 시간(= GROUP BY 한 번)은 준비 단계에서 출력한다.
+ *
+ * OrderExportBenchmark 처럼 주문 테이블이 힙을 차지하지 않도록 H2 를 파일 모드로 띄운다.
+ * ./gradlew :concurrency-benchmark:jmh -Pjmh.includes=InventorySalesBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InventorySalesBenchmark {
+
+    private static final Path DATABASE_DIR = Path.of("build", "jmh-sales");
+
+    @Param({"1000000", "10000000"})
+    private int rows;
+
+    @Param({"1024", "65536"})
+    private int skuCount;
+
+    private ConfigurableApplicationContext context;
+    private InventorySalesAggregates inventorySalesAggregates;
+    private ProductOrderRepository productOrderRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Files.createDirectories(DATABASE_DIR);
+        context = PracticeContext.start(
+                "spring.datasource.url=jdbc:h2:file:./" + DATABASE_DIR.resolve("orders") + ";DB_CLOSE_ON_EXIT=FALSE",
+                // 파일 DB 는 내장 DB 로 인식되지 않아 스키마를 자동으로 만들지 않으므로 직접 지정한다.
+                "spring.jpa.hibernate.ddl-auto=create",
+                "practice.inventory.sales.expected-skus=" + skuCount);
+        inventorySalesAggregates = context.getBean(InventorySalesAggregates.class);
+        productOrderRepository = context.getBean(ProductOrderRepository.class);
+        context.getBean(JdbcTemplate.class).update(
+                "insert into product_order (id, inventory_id, quantity, reserved_quantity, status, version)"
+                        + " select x, mod(x, ?) + 1, mod(x, 5) + 1, mod(x, 5) + 1,"
+                        + " case when mod(x, 10) = 0 then 'CANCELLED' else 'CREATED' end, 0"
+                        + " from system_range(1, ?)", skuCount, rows);
+
+        long startedAt = System.nanoTime();
+        int skus = inventorySalesAggregates.rebuild();
+        System.out.printf("%nrows=%d, skus=%d: rebuild %dms%n", rows, skus, (System.nanoTime() - startedAt) / 1_000_000);
+
+        // 두 방법이 같은 답을 내는지 한 번 확인한다.
+        List<InventorySales> expected = productOrderRepository.sumSalesByInventory();
+        if (!new HashSet<>(inventorySalesAggregates.all()).equals(new HashSet<>(expected))) {
+            throw new IllegalStateException("aggregates do not match GROUP BY");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<InventorySales> aggregates() {
+        return inventorySalesAggregates.all();
+    }
+
+    @Benchmark
+    public List<InventorySales> groupBy() {
+        return productOrderRepository.sumSalesByInventory();
+    }
+}
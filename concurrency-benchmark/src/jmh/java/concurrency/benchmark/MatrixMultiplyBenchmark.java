@@ -0,0 +1,77 @@
+package concurrency.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import os.matrix.IntMatrix;
+import os.matrix.MatrixKernels;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 행렬 곱셈 커널 비교 (naive int[][] / flat / tiled / parallel tiled)
+ *
+ * 행렬 하나의 크기(size^2 * 4바이트): 64 → 16KB(L1), 256 → 256KB(L2), 512 → 1MB, 1024 → 4MB(L3), 2048 → 16MB(L3 초과)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MatrixMultiplyBenchmark {
+
+    @Param({"64", "256", "512", "1024", "2048"})
+    private int size;
+
+    @Param({"64"})
+    private int tile;
+
+    private int[][] a;
+    private int[][] b;
+    private IntMatrix flatA;
+    private IntMatrix flatB;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = randomMatrix(random, size);
+        b = randomMatrix(random, size);
+        flatA = IntMatrix.from(a);
+        flatB = IntMatrix.from(b);
+    }
+
+    @Benchmark
+    public int[][] naive() {
+        return MatrixKernels.naiveMultiply(a, b);
+    }
+
+    @Benchmark
+    public IntMatrix flat() {
+        return MatrixKernels.multiply(flatA, flatB);
+    }
+
+    @Benchmark
+    public IntMatrix tiled() {
+        return MatrixKernels.tiledMultiply(flatA, flatB, tile);
+    }
+
+    @Benchmark
+    public IntMatrix parallelTiled() {
+        return MatrixKernels.parallelTiledMultiply(flatA, flatB, tile, ForkJoinPool.commonPool());
+    }
+
+    static int[][] randomMatrix(Random random, int size) {
+        int[][] matrix = new int[size][size];
+        for (int[] row : matrix) {
+            for (int j = 0; j < size; j++) {
+                row[j] = random.nextInt(100);
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,63 @@
+package concurrency.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import os.matrix.IntMatrix;
+import os.matrix.MatrixKernels;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 행렬 전치 커널 비교 (naive int[][] / flat / tiled / parallel tiled)
+ *
+ * 행렬 하나의 크기(size^2 * 4바이트): 64 → 16KB(L1), 256 → 256KB(L2), 1024 → 4MB(L3), 4096 → 64MB(L3 초과)
+ * tile 은 캐시 라인(16 int)의 배수 중에서 골라 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MatrixTransposeBenchmark {
+
+    @Param({"64", "256", "1024", "4096"})
+    private int size;
+
+    @Param({"16", "32", "64"})
+    private int tile;
+
+    private int[][] source;
+    private IntMatrix flatSource;
+
+    @Setup
+    public void setUp() {
+        source = MatrixMultiplyBenchmark.randomMatrix(new Random(42), size);
+        flatSource = IntMatrix.from(source);
+    }
+
+    @Benchmark
+    public int[][] naive() {
+        return MatrixKernels.naiveTranspose(source);
+    }
+
+    @Benchmark
+    public IntMatrix flat() {
+        return MatrixKernels.transpose(flatSource);
+    }
+
+    @Benchmark
+    public IntMatrix tiled() {
+        return MatrixKernels.tiledTranspose(flatSource, tile);
+    }
+
+    @Benchmark
+    public IntMatrix parallelTiled() {
+        return MatrixKernels.parallelTiledTranspose(flatSource, tile, ForkJoinPool.commonPool());
+    }
+}
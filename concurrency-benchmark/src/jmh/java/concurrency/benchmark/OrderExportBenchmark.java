@@ -0,0 +1,102 @@
+package concurrency.benchmark;
+
+import concurrency.practice.export.ExportFormat;
+import concurrency.practice.export.OrderExportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 내보내기(OrderExportService) 처리량과 힙 사용량
+ *
+ * 주문 rows 건을 SQL 한 문장으로 채워 두고, 반복마다 전체를 파일로 한 번 내보낸다. 점수는 내보내기 한 번의 시간(s/op)이고,
+ * 반복이 끝날 때 초당 행 수와 내보내는 동안의 최대 힙 증가량을 출력한다.
+ * 힙 증가량이 rows 와 상관없이 (페이지 하나 + 버퍼 하나 수준으로) 같아야 한다.
+ *
+ * 주문 테이블이 힙을 차지하면 측정이 흐려지므로 H2 를 메모리가 아닌 파일 모드로 띄운다.
+ * ./gradlew :concurrency-benchmark:jmh -Pjmh.includes=OrderExportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderExportBenchmark {
+
+    private static final Path DATABASE_DIR = Path.of("build", "jmh-export");
+
+    @Param({"1000000", "10000000"})
+    private int rows;
+
+    @Param({"CSV", "NDJSON"})
+    private ExportFormat format;
+
+    private ConfigurableApplicationContext context;
+    private OrderExportService orderExportService;
+    private List<MemoryPoolMXBean> heapPools;
+    private Path target;
+    private long heapBaseline;
+    private long startedAt;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Files.createDirectories(DATABASE_DIR);
+        context = PracticeContext.start(
+                "spring.datasource.url=jdbc:h2:file:./" + DATABASE_DIR.resolve("orders") + ";DB_CLOSE_ON_EXIT=FALSE",
+                // 파일 DB 는 내장 DB 로 인식되지 않아 스키마를 자동으로 만들지 않으므로 직접 지정한다.
+                "spring.jpa.hibernate.ddl-auto=create");
+        orderExportService = context.getBean(OrderExportService.class);
+        context.getBean(JdbcTemplate.class).update(
+                "insert into product_order (id, inventory_id, quantity, reserved_quantity, status, version)"
+                        + " select x, mod(x, 1024) + 1, mod(x, 5) + 1, mod(x, 5) + 1, 'CREATED', 0"
+                        + " from system_range(1, ?)", rows);
+
+        heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        target = Files.createTempFile("orders-", "." + format.name().toLowerCase());
+    }
+
+    @Setup(Level.Iteration)
+    public void resetHeapPeak() {
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        heapBaseline = heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+        startedAt = System.nanoTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() throws IOException {
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        long heapPeak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        System.out.printf("%n%s rows=%d: %.0f rows/s, file %d MB, heap peak +%d MB%n",
+                format, rows, rows / seconds, Files.size(target) >> 20, (heapPeak - heapBaseline) >> 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public long export() {
+        return orderExportService.export(target, format);
+    }
+}
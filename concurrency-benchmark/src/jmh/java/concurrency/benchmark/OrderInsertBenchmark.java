@@ -0,0 +1,82 @@
+package concurrency.benchmark;
+
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.domain.ProductOrder;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 키 발급 방식과 JDBC 배치 여부에 따른 주문 INSERT 처리량
+ *
+ * 한 트랜잭션에서 주문 ORDERS_PER_TRANSACTION 건을 saveAll 로 저장하고, 주문 1건당 처리량(ops/ms)을 보고한다.
+ * - optimizer=none, batchSize=1   : 주문마다 시퀀스 조회 + INSERT 1회. 예전 IDENTITY 키와 같은 왕복 수 (기준선)
+ * - optimizer=pooled, batchSize=1 : 시퀀스 조회는 50건에 한 번으로 줄지만 INSERT 는 한 건씩
+ * - optimizer=pooled|pooled-lo, batchSize=100 : 시퀀스 조회도 줄고 INSERT 도 100건씩 묶인다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderInsertBenchmark {
+
+    private static final int ORDERS_PER_TRANSACTION = 500;
+
+    @Param({"none", "pooled", "pooled-lo"})
+    private String optimizer;
+
+    @Param({"1", "100"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductOrderRepository productOrderRepository;
+    private TransactionTemplate transactionTemplate;
+    private Long inventoryId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PracticeContext.start(
+                "spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=" + optimizer,
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        productOrderRepository = context.getBean(ProductOrderRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        inventoryId = context.getBean(InventoryRepository.class).save(new Inventory("Insert Product", 0)).getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearOrders() {
+        productOrderRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_TRANSACTION)
+    public List<ProductOrder> insertOrders() {
+        return transactionTemplate.execute(status -> {
+            List<ProductOrder> orders = new ArrayList<>(ORDERS_PER_TRANSACTION);
+            for (int i = 0; i < ORDERS_PER_TRANSACTION; i++) {
+                orders.add(new ProductOrder(inventoryId, 1));
+            }
+            return productOrderRepository.saveAll(orders);
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package concurrency.benchmark;
+
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.metrics.OrderMetrics;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.service.OrderService;
+import concurrency.practice.service.StockStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 핫패스 계측(OrderMetrics)의 오버헤드
+ *
+ * - createOrder   : metricsEnabled=true 와 false 의 처리량 차이가 계측 비용이다. 몇 % 이내로 유지되어야 한다.
+ * - lockWaitOnly  : DB 없이 잠금 대기 타이머 + JFR 이벤트 한 번을 기록하는 비용 (트랜잭션 밖이므로 보유 시간은 제외)
+ *
+ * JFR 이벤트는 기록이 꺼져 있으면 commit() 이 거의 공짜이므로, 실제 비용은 -XX:StartFlightRecording 을 켠 채로 다시 잰다.
+ * ./gradlew :concurrency-benchmark:jmh -Pjmh.includes=OrderInstrumentationBenchmark -Pjmh.threads=16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderInstrumentationBenchmark {
+
+    private static final int SKU_COUNT = 1024;
+
+    @Param({"true", "false"})
+    private boolean metricsEnabled;
+
+    @Param({"PESSIMISTIC_LOCK", "CONDITIONAL_UPDATE"})
+    private StockStrategy strategy;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderMetrics orderMetrics;
+    private ProductOrderRepository productOrderRepository;
+    private Long[] inventoryIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PracticeContext.start("practice.order.metrics.enabled=" + metricsEnabled);
+        orderService = context.getBean(OrderService.class);
+        orderMetrics = context.getBean(OrderMetrics.class);
+        productOrderRepository = context.getBean(ProductOrderRepository.class);
+
+        InventoryRepository inventoryRepository = context.getBean(InventoryRepository.class);
+        inventoryIds = new Long[SKU_COUNT];
+        for (int i = 0; i < SKU_COUNT; i++) {
+            inventoryIds[i] = inventoryRepository.save(new Inventory("SKU-" + i, Long.MAX_VALUE / 2)).getId();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearOrders() {
+        productOrderRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void createOrder(Blackhole blackhole) {
+        Long inventoryId = inventoryIds[ThreadLocalRandom.current().nextInt(inventoryIds.length)];
+        try {
+            blackhole.consume(orderService.createOrder(inventoryId, 1, strategy));
+        } catch (PracticeException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void lockWaitOnly() {
+        Long inventoryId = inventoryIds[ThreadLocalRandom.current().nextInt(inventoryIds.length)];
+        orderMetrics.startLockWait(strategy.name(), inventoryId).acquired();
+    }
+}
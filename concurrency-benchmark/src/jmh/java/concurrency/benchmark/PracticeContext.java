@@ -0,0 +1,30 @@
+package concurrency.benchmark;
+
+import concurrency.practice.PracticeApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 벤치마크용 스프링 컨텍스트 (웹 서버 없이 임베디드 H2 위에서 PracticeApplication 을 띄운다)
+ */
+public final class PracticeContext {
+
+    private PracticeContext() {
+    }
+
+    /**
+     * @param properties "key=value" 형식의 추가 설정
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(PracticeApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties("spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        // 256개 스레드가 커넥션을 기다리느라 측정이 풀 크기에 묶이지 않도록 넉넉히 잡는다.
+                        "spring.datasource.hikari.maximum-pool-size=64")
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,113 @@
+package concurrency.benchmark;
+
+import concurrency.queue.RingBufferQueue;
+import concurrency.queue.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 생산자:소비자 비율별 큐 전달 처리량 (RingBufferQueue 대기 전략 3종 vs LinkedBlockingQueue vs ArrayBlockingQueue)
+ *
+ * 한 번의 호출에서 producers 개의 생산자가 ITEMS 개를 put 하고 consumers 개의 소비자가 모두 take 한다.
+ * 결과는 요소 하나를 전달하는 데 걸린 평균 시간(ns)이다. 모든 큐의 용량은 1024 로 같다.
+ *
+ * 생산자와 소비자는 벤치마크가 직접 띄우므로 JMH 스레드는 하나여야 한다.
+ * 여럿이면 같은 큐와 스레드 풀을 나눠 쓰고, 호출마다 새 큐로 바꾸는 Setup 이 다른 스레드의 전달 도중에 큐를 바꿔 버린다.
+ * (1:1 은 큐 하나에 생산자와 소비자가 하나씩인 SPSC 측정이 아니게 된다) -Pjmh.threads 나 jmhThreadSweep 으로 늘리면 시작 시 실패한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(1)
+public class QueueBenchmark {
+
+    private static final int ITEMS = 1 << 20;
+    private static final int CAPACITY = 1024;
+    private static final Integer ITEM = 42;
+
+    @Param({"RING_BUFFER_BUSY_SPIN", "RING_BUFFER_YIELD", "RING_BUFFER_PARK", "LINKED_BLOCKING", "ARRAY_BLOCKING"})
+    private String queueType;
+
+    @Param({"1:1", "4:4", "16:16"})
+    private String ratio;
+
+    private int producers;
+    private int consumers;
+    private ExecutorService executor;
+    private BlockingQueue<Integer> queue;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams benchmarkParams) {
+        // 명령행의 스레드 수는 @Threads 보다 우선하므로 직접 막는다.
+        if (benchmarkParams.getThreads() != 1) {
+            throw new IllegalStateException("QueueBenchmark must run with one JMH thread, got " + benchmarkParams.getThreads());
+        }
+        String[] parts = ratio.split(":");
+        producers = Integer.parseInt(parts[0]);
+        consumers = Integer.parseInt(parts[1]);
+        executor = Executors.newFixedThreadPool(producers + consumers);
+    }
+
+    @Setup(Level.Invocation)
+    public void newQueue() {
+        queue = switch (queueType) {
+            case "RING_BUFFER_BUSY_SPIN" -> new RingBufferQueue<>(CAPACITY, WaitStrategy.BUSY_SPIN);
+            case "RING_BUFFER_YIELD" -> new RingBufferQueue<>(CAPACITY, WaitStrategy.YIELD);
+            case "RING_BUFFER_PARK" -> new RingBufferQueue<>(CAPACITY, WaitStrategy.PARK);
+            case "LINKED_BLOCKING" -> new LinkedBlockingQueue<>(CAPACITY);
+            case "ARRAY_BLOCKING" -> new ArrayBlockingQueue<>(CAPACITY);
+            default -> throw new IllegalArgumentException(queueType);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void transfer() throws Exception {
+        List<Future<?>> futures = new ArrayList<>(producers + consumers);
+        for (int p = 0; p < producers; p++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < ITEMS / producers; i++) {
+                    queue.put(ITEM);
+                }
+                return null;
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < ITEMS / consumers; i++) {
+                    queue.take();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+}
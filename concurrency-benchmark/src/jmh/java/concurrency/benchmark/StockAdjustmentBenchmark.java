@@ -0,0 +1,84 @@
+package concurrency.benchmark;
+
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.service.InventoryStockService;
+import concurrency.practice.stock.StockDeltaBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 입고 처리량: 입고 버퍼(StockDeltaBuffer) vs 입고마다 트랜잭션 하나
+ *
+ * - buffered       : InventoryStockService#restock. 칸에 더하기만 하고, 반영은 flusher 가 상품 id 순으로 묶어서 한다.
+ * - perTransaction : 입고마다 트랜잭션을 열어 UPDATE ... set stock = stock + ? 한 문장을 실행한다.
+ *
+ * skuCount=1 이면 모든 스레드가 같은 재고 행에 입고하는 경우로, perTransaction 은 행 잠금에서 줄을 선다.
+ * 반영 비용은 flusher 스레드에서 치르므로, 반복이 끝날 때마다 버퍼를 비워 다음 반복으로 넘어가지 않게 한다.
+ * ./gradlew :concurrency-benchmark:jmh -Pjmh.includes=StockAdjustmentBenchmark -Pjmh.threads=16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StockAdjustmentBenchmark {
+
+    @Param({"buffered", "perTransaction"})
+    private String mode;
+
+    @Param({"1", "1024"})
+    private int skuCount;
+
+    private ConfigurableApplicationContext context;
+    private InventoryStockService inventoryStockService;
+    private StockDeltaBuffer stockDeltaBuffer;
+    private InventoryRepository inventoryRepository;
+    private TransactionTemplate transactionTemplate;
+    private Long[] inventoryIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PracticeContext.start();
+        inventoryStockService = context.getBean(InventoryStockService.class);
+        stockDeltaBuffer = context.getBean(StockDeltaBuffer.class);
+        inventoryRepository = context.getBean(InventoryRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        inventoryIds = new Long[skuCount];
+        for (int i = 0; i < skuCount; i++) {
+            inventoryIds[i] = inventoryRepository.save(new Inventory("SKU-" + i, 0)).getId();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        stockDeltaBuffer.flushAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void restock() {
+        Long inventoryId = inventoryIds[ThreadLocalRandom.current().nextInt(inventoryIds.length)];
+        if ("buffered".equals(mode)) {
+            inventoryStockService.restock(inventoryId, 1);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> inventoryRepository.increaseStock(inventoryId, 1));
+        }
+    }
+}
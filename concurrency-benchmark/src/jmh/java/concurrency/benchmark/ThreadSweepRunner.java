@@ -0,0 +1,36 @@
+package concurrency.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * 같은 벤치마크를 스레드 수만 바꿔가며 실행하고, 스레드 수별 결과를 JSON 으로 남긴다.
+ * 사용법: ./gradlew :concurrency-benchmark:jmhThreadSweep -Pjmh.includes=InventoryLockingBenchmark
+ */
+public class ThreadSweepRunner {
+
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64, 256};
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : InventoryLockingBenchmark.class.getSimpleName();
+        new File("build/reports/jmh").mkdirs();
+
+        for (int threads : THREAD_COUNTS) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .forks(1)
+                    .warmupIterations(2)
+                    .measurementIterations(5)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("build/reports/jmh/" + include + "-t" + threads + ".json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package concurrency.practice.admission;
+
+import static concurrency.practice.exception.PracticeErrorCode.INVENTORY_BUSY;
+import static concurrency.practice.exception.PracticeErrorCode.OUT_OF_STOCK;
+
+import concurrency.practice.config.OrderProperties;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.metrics.OrderMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 재고 id 별 주문 진입 제어
+ *
+ * 1. 품절 표시: 재고가 0 인 것을 확인한 주문이 표시를 남기면, 이후 주문은 트랜잭션도 잠금도 없이 바로 OUT_OF_STOCK 으로 끝난다.
+ *    표시는 재입고가 커밋되면 지워진다. DB를 직접 고치는 등 앱을 거치지 않은 재입고에 대비해,
+ *    soldOutRecheck 마다 한 요청만 DB까지 보내 실제 재고를 확인한다. (여전히 0 이면 그 요청이 표시를 다시 남긴다)
+ * 2. 동시 진입 제한: 상품마다 maxConcurrentPerInventory 개의 허가증을 두고, queueTimeout 안에 얻지 못하면 INVENTORY_BUSY 로 돌려보낸다.
+ *    한 상품에 몰린 주문이 커넥션 풀을 전부 차지해 다른 상품 주문까지 막는 것을 막는다.
+ *
+ * 상품별 허가증은 주문이 처음 들어올 때 만들고, limiterSweepInterval 마다 아무도 쥐고 있지 않은 것을 지운다.
+ * 지워진 허가증을 기다리던 주문은 허가증을 얻은 뒤 맵에 남은 새 허가증으로 옮겨 다시 기다린다.
+ *
+ * 거절 횟수는 practice.order.admission.rejections (reason=sold_out|busy) 로 내보내고,
+ * 다른 주문 실패와 함께 보이도록 practice.order.failures (operation=ADMISSION) 에도 더한다.
+ * practice.order.admission.enabled 의 기본값은 false 다.
+ */
+@Component
+public class InventoryAdmission {
+
+    private static final String ADMISSION = "ADMISSION";
+
+    private final OrderMetrics orderMetrics;
+    private final boolean enabled;
+    private final int maxConcurrentPerInventory;
+    private final long queueTimeoutNanos;
+    private final long soldOutRecheckNanos;
+
+    // 재고 id -> 품절을 마지막으로 확인한 시각
+    private final Map<Long, Long> soldOut = new ConcurrentHashMap<>();
+    private final Map<Long, Semaphore> limiters = new ConcurrentHashMap<>();
+
+    private final LongAdder soldOutRejections = new LongAdder();
+    private final LongAdder busyRejections = new LongAdder();
+    private final LongAdder evictedLimiters = new LongAdder();
+
+    private final ScheduledExecutorService sweeper;
+
+    public InventoryAdmission(MeterRegistry meterRegistry, OrderMetrics orderMetrics, OrderProperties orderProperties) {
+        OrderProperties.Admission admission = orderProperties.admission();
+        this.orderMetrics = orderMetrics;
+        this.enabled = admission.enabled();
+        this.maxConcurrentPerInventory = admission.maxConcurrentPerInventory();
+        this.queueTimeoutNanos = admission.queueTimeout().toNanos();
+        this.soldOutRecheckNanos = admission.soldOutRecheck().toNanos();
+
+        FunctionCounter.builder("practice.order.admission.rejections", soldOutRejections, LongAdder::sum)
+                .description("Orders rejected before touching the database")
+                .tag("reason", "sold_out")
+                .register(meterRegistry);
+        FunctionCounter.builder("practice.order.admission.rejections", busyRejections, LongAdder::sum)
+                .description("Orders rejected before touching the database")
+                .tag("reason", "busy")
+                .register(meterRegistry);
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "admission-limiter-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            long sweepMillis = admission.limiterSweepInterval().toMillis();
+            sweeper.scheduleWithFixedDelay(this::sweepIdleLimiters, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 품절이 아니고 허가증을 얻었을 때만 action 을 실행합니다.
+     *
+     * @throws PracticeException 품절이면 OUT_OF_STOCK, 허가증을 queueTimeout 안에 얻지 못하면 INVENTORY_BUSY
+     */
+    public <T> T admit(Long inventoryId, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        // 품절 표시가 확인 주기 안이면 줄도 서지 않고 돌려보낸다.
+        Long checkedAt = soldOut.get(inventoryId);
+        if (checkedAt != null && System.nanoTime() - checkedAt < soldOutRecheckNanos) {
+            throw soldOutRejected();
+        }
+        Semaphore permits = acquire(inventoryId);
+        try {
+            // 허가증을 기다리는 동안 품절되었을 수 있다.
+            rejectIfSoldOut(inventoryId);
+            T result = action.get();
+            // 확인 요청이 성공했다면 앱 밖에서 재입고된 것이다.
+            if (soldOut.containsKey(inventoryId)) {
+                soldOut.remove(inventoryId);
+            }
+            return result;
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 품절로 표시된 상품이면 DB에 가지 않고 OUT_OF_STOCK 을 던집니다.
+     */
+    public void rejectIfSoldOut(Long inventoryId) {
+        if (rejectsAsSoldOut(inventoryId)) {
+            throw new PracticeException(OUT_OF_STOCK);
+        }
+    }
+
+    /**
+     * 품절로 표시된 상품이라 DB에 가지 않고 거절해야 하면 true 를 반환합니다.
+     * 확인 주기가 지난 표시라면 이 호출 하나만 false 를 받아 DB에서 실제 재고를 확인하게 됩니다.
+     */
+    public boolean rejectsAsSoldOut(Long inventoryId) {
+        if (enabled && shouldRejectAsSoldOut(inventoryId)) {
+            soldOutRejections.increment();
+            orderMetrics.recordFailure(ADMISSION, OUT_OF_STOCK);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 재고가 0 인 것을 확인했을 때 호출합니다.
+     * 재입고 커밋과 순서가 뒤바뀌지 않도록, 가능하면 재고 행 잠금을 쥔 채로 호출해야 합니다.
+     */
+    public void markSoldOut(Long inventoryId) {
+        if (enabled) {
+            soldOut.put(inventoryId, System.nanoTime());
+        }
+    }
+
+    /**
+     * 재고를 늘린 트랜잭션이 커밋되면 품절 표시를 지웁니다.
+     */
+    public void clearSoldOutAfterCommit(Long inventoryId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            soldOut.remove(inventoryId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                soldOut.remove(inventoryId);
+            }
+        });
+    }
+
+    /**
+     * 트랜잭션 없이 재고를 늘린 경우(입고 버퍼에 쌓은 경우) 품절 표시를 바로 지웁니다.
+     */
+    public void clearSoldOut(Long inventoryId) {
+        if (enabled) {
+            soldOut.remove(inventoryId);
+        }
+    }
+
+    public boolean isSoldOut(Long inventoryId) {
+        return soldOut.containsKey(inventoryId);
+    }
+
+    /**
+     * DB에 가기 전에 품절로 거절한 주문 수
+     */
+    public long soldOutRejections() {
+        return soldOutRejections.sum();
+    }
+
+    /**
+     * 허가증을 기다리다 INVENTORY_BUSY 로 거절한 주문 수
+     */
+    public long busyRejections() {
+        return busyRejections.sum();
+    }
+
+    /**
+     * 지금 맵에 남아 있는 상품별 허가증 수
+     */
+    public int limiterCount() {
+        return limiters.size();
+    }
+
+    /**
+     * 쓰이지 않아 지운 상품별 허가증 수
+     */
+    public long evictedLimiters() {
+        return evictedLimiters.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * 허가증을 하나도 내주지 않은 상품의 Semaphore 를 지웁니다.
+     * 허가증을 모두 가져온 뒤에 지우므로 그 사이 누구도 이 Semaphore 로 action 을 실행하지 못하고,
+     * 지운 뒤 허가증을 돌려주면 기다리던 주문은 admit 에서 새 Semaphore 로 옮겨 간다.
+     */
+    public void sweepIdleLimiters() {
+        limiters.forEach((inventoryId, permits) -> {
+            if (!permits.hasQueuedThreads() && permits.tryAcquire(maxConcurrentPerInventory)) {
+                if (limiters.remove(inventoryId, permits)) {
+                    evictedLimiters.increment();
+                }
+                permits.release(maxConcurrentPerInventory);
+            }
+        });
+    }
+
+    private boolean shouldRejectAsSoldOut(Long inventoryId) {
+        Long checkedAt = soldOut.get(inventoryId);
+        if (checkedAt == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (now - checkedAt < soldOutRecheckNanos) {
+            return true;
+        }
+        // 확인 주기가 지났다. 시각을 먼저 바꾼 한 요청만 DB로 보내고, 나머지는 계속 거절한다.
+        return !soldOut.replace(inventoryId, checkedAt, now);
+    }
+
+    private PracticeException soldOutRejected() {
+        soldOutRejections.increment();
+        orderMetrics.recordFailure(ADMISSION, OUT_OF_STOCK);
+        return new PracticeException(OUT_OF_STOCK);
+    }
+
+    /**
+     * 상품의 허가증을 하나 얻어 그 Semaphore 를 반환합니다. 기다리는 동안 sweepIdleLimiters 가 지운 Semaphore 였다면
+     * 허가증을 돌려주고 맵의 새 Semaphore 에서 남은 시간만큼 다시 기다린다.
+     */
+    private Semaphore acquire(Long inventoryId) {
+        long deadline = System.nanoTime() + queueTimeoutNanos;
+        try {
+            while (true) {
+                Semaphore permits = limiters.computeIfAbsent(inventoryId,
+                        id -> new Semaphore(maxConcurrentPerInventory, true));
+                if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                if (limiters.get(inventoryId) == permits) {
+                    return permits;
+                }
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        busyRejections.increment();
+        orderMetrics.recordFailure(ADMISSION, INVENTORY_BUSY);
+        throw new PracticeException(INVENTORY_BUSY);
+    }
+}
@@ -0,0 +1,301 @@
+package concurrency.practice.cache;
+
+import static concurrency.practice.exception.PracticeErrorCode.INVENTORY_NOT_FOUND;
+
+import concurrency.practice.config.InventoryCacheProperties;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.repository.InventoryRepository;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 재고 조회용 read-through 캐시
+ *
+ * - 조회는 캐시에 없을 때만 InventoryRepository.findById 로 읽어 채운다.
+ * - 재고를 바꾸는 트랜잭션은 커밋 직후(afterCommit) 해당 항목을 새 값으로 갱신하거나 무효화한다.
+ * - 구간(segment)마다 접근 순서 LinkedHashMap 을 두어 LRU 로 크기를 제한하고, 항목은 ttl 이 지나면 버린다.
+ *
+ * 읽는 도중 커밋된 변경이 오래된 값으로 덮이지 않도록 구간마다 세대(generation) 번호를 둔다.
+ * 커밋 후 갱신/무효화는 세대를 올리고, DB에서 읽어 온 값은 읽기 전에 본 세대가 그대로일 때만 캐시에 들어간다.
+ * 따라서 커밋 훅을 거치는 변경은 커밋과 훅 사이의 짧은 구간을 빼면 캐시에 바로 보이고,
+ * 훅을 거치지 않는 변경도 ttl 이 지나면 보인다.
+ *
+ * 커밋 훅은 재고를 바꾸는 모든 경로가 거치므로, 캐시가 꺼져 있어도 등록된 재고 변경 리스너에게 커밋된 상품 id 를 알린다.
+ */
+@Component
+public class InventoryCache {
+
+    private final InventoryRepository inventoryRepository;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder staleLoads = new LongAdder();
+
+    private final List<Consumer<Long>> stockChangeListeners = new CopyOnWriteArrayList<>();
+
+    public InventoryCache(InventoryRepository inventoryRepository, InventoryCacheProperties properties) {
+        if (properties.segments() < 1 || properties.maximumSize() < 1) {
+            throw new IllegalArgumentException("segments and maximumSize must be positive");
+        }
+        this.inventoryRepository = inventoryRepository;
+        this.enabled = properties.enabled();
+        this.ttlNanos = properties.ttl().toNanos();
+
+        int segmentCount = properties.segments() == 1 ? 1 : Integer.highestOneBit(properties.segments() - 1) << 1;
+        int capacityPerSegment = Math.max(1, properties.maximumSize() / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(capacityPerSegment);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    /**
+     * 재고 사본을 캐시에서 찾고, 없거나 만료되었으면 DB에서 읽어 캐시에 넣습니다.
+     */
+    public InventorySnapshot get(Long inventoryId) {
+        if (!enabled) {
+            misses.increment();
+            return load(inventoryId);
+        }
+        Segment segment = segmentFor(inventoryId);
+        InventorySnapshot cached = segment.get(inventoryId, System.nanoTime());
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        // 세대는 반드시 DB를 읽기 전에 본다. 읽는 사이에 커밋된 변경이 있으면 아래 put 이 거절된다.
+        long generation = segment.generation();
+        InventorySnapshot loaded = load(inventoryId);
+        if (!segment.putIfGeneration(loaded, generation, System.nanoTime())) {
+            staleLoads.increment();
+        }
+        return loaded;
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋되면 inventory 의 커밋된 상태로 캐시를 갱신합니다.
+     * 엔티티로 재고를 바꾼 경우(더티 체킹, saveAndFlush)에 사용합니다. 커밋 시점의 stock 과 version 이 엔티티에 남아 있습니다.
+     */
+    public void refreshAfterCommit(Inventory inventory) {
+        if (!enabled) {
+            notifyStockChangedAfterCommit(inventory.getId());
+            return;
+        }
+        Segment segment = segmentFor(inventory.getId());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(inventory.getId());
+            notifyStockChanged(inventory.getId());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private long generation;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // 이 트랜잭션이 행 잠금을 쥔 채 세대를 본다. 이후 다른 트랜잭션의 커밋 훅이 먼저 돌면 갱신하지 않는다.
+                generation = segment.generation();
+            }
+
+            @Override
+            public void afterCommit() {
+                invalidations.increment();
+                segment.refresh(InventorySnapshot.from(inventory), generation, System.nanoTime());
+                notifyStockChanged(inventory.getId());
+            }
+        });
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋되면 캐시 항목을 무효화합니다.
+     * 벌크 UPDATE 처럼 커밋된 값을 엔티티로 알 수 없는 경우에 사용합니다. 트랜잭션 밖이면 바로 무효화합니다.
+     */
+    public void invalidateAfterCommit(Long inventoryId) {
+        if (!enabled) {
+            notifyStockChangedAfterCommit(inventoryId);
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(inventoryId);
+            notifyStockChanged(inventoryId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(inventoryId);
+                notifyStockChanged(inventoryId);
+            }
+        });
+    }
+
+    /**
+     * 커밋 훅을 거친 재고 변경을 커밋 직후에 받을 리스너를 등록합니다. 리스너는 커밋한 스레드에서 불리므로 짧게 끝나야 한다.
+     */
+    public void addStockChangeListener(Consumer<Long> listener) {
+        stockChangeListeners.add(listener);
+    }
+
+    public void removeStockChangeListener(Consumer<Long> listener) {
+        stockChangeListeners.remove(listener);
+    }
+
+    /**
+     * 캐시 항목만 지웁니다. 재고 변경 리스너에게는 알리지 않는다.
+     */
+    public void invalidate(Long inventoryId) {
+        invalidations.increment();
+        segmentFor(inventoryId).invalidate(inventoryId);
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public InventoryCacheStats stats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return new InventoryCacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(),
+                invalidations.sum(), staleLoads.sum(), size);
+    }
+
+    private void notifyStockChangedAfterCommit(Long inventoryId) {
+        if (stockChangeListeners.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            notifyStockChanged(inventoryId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                notifyStockChanged(inventoryId);
+            }
+        });
+    }
+
+    /**
+     * 커밋 훅 없이 재고가 바뀐 경우(입고 버퍼에 더한 입고분 등) 재고 변경 리스너에게 바로 알립니다.
+     */
+    public void notifyStockChanged(Long inventoryId) {
+        for (Consumer<Long> listener : stockChangeListeners) {
+            listener.accept(inventoryId);
+        }
+    }
+
+    private InventorySnapshot load(Long inventoryId) {
+        return inventoryRepository.findById(inventoryId)
+                .map(InventorySnapshot::from)
+                .orElseThrow(() -> new PracticeException(INVENTORY_NOT_FOUND));
+    }
+
+    private Segment segmentFor(Long inventoryId) {
+        long hash = inventoryId * 0x9E3779B97F4A7C15L;
+        return segments[(int) (hash >>> 32) & segmentMask];
+    }
+
+    private record Entry(InventorySnapshot snapshot, long loadedAt) {
+    }
+
+    /**
+     * 잠금 하나를 공유하는 캐시 구간. 접근 순서 LinkedHashMap 이 LRU 순서를 유지한다.
+     */
+    private final class Segment {
+
+        private final Map<Long, Entry> entries;
+        private long generation;
+
+        private Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized InventorySnapshot get(Long inventoryId, long now) {
+            Entry entry = entries.get(inventoryId);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.loadedAt() > ttlNanos) {
+                entries.remove(inventoryId);
+                expirations.increment();
+                return null;
+            }
+            return entry.snapshot();
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        synchronized boolean putIfGeneration(InventorySnapshot snapshot, long expectedGeneration, long now) {
+            if (generation != expectedGeneration) {
+                return false;
+            }
+            Entry current = entries.get(snapshot.id());
+            if (current != null && snapshot.isOlderThan(current.snapshot())) {
+                return false;
+            }
+            entries.put(snapshot.id(), new Entry(snapshot, now));
+            return true;
+        }
+
+        synchronized void refresh(InventorySnapshot snapshot, long expectedGeneration, long now) {
+            if (generation == expectedGeneration) {
+                entries.put(snapshot.id(), new Entry(snapshot, now));
+            } else {
+                // 그 사이 다른 커밋이 있었다. 어느 쪽이 최신인지 모르므로 비워 두고 다음 조회가 DB에서 읽게 한다.
+                entries.remove(snapshot.id());
+            }
+            generation++;
+        }
+
+        synchronized void invalidate(Long inventoryId) {
+            entries.remove(inventoryId);
+            generation++;
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            generation++;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
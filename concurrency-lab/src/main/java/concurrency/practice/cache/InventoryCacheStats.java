@@ -0,0 +1,28 @@
+package concurrency.practice.cache;
+
+/**
+ * 재고 캐시 누적 지표
+ *
+ * @param hits          캐시에서 바로 돌려준 조회 수
+ * @param misses        DB에서 읽어 온 조회 수 (캐시가 꺼져 있으면 모든 조회)
+ * @param evictions     최대 크기를 넘어 LRU 로 밀려난 항목 수
+ * @param expirations   ttl 이 지나 버려진 항목 수
+ * @param invalidations 커밋 후 무효화 또는 갱신된 횟수
+ * @param staleLoads    읽는 도중 다른 트랜잭션이 커밋되어 캐시에 넣지 않고 버린 조회 결과 수
+ * @param size          현재 항목 수
+ */
+public record InventoryCacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        long expirations,
+        long invalidations,
+        long staleLoads,
+        long size
+) {
+
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
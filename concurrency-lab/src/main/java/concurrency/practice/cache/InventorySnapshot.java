@@ -0,0 +1,20 @@
+package concurrency.practice.cache;
+
+import concurrency.practice.domain.Inventory;
+
+/**
+ * 캐시에 담는 재고의 읽기 전용 사본
+ *
+ * 영속성 컨텍스트 밖에서 여러 스레드가 공유하므로 엔티티 대신 불변 레코드를 담는다.
+ */
+public record InventorySnapshot(Long id, String productName, long stock, Long version) {
+
+    public static InventorySnapshot from(Inventory inventory) {
+        return new InventorySnapshot(inventory.getId(), inventory.getProductName(),
+                inventory.getStock(), inventory.getVersion());
+    }
+
+    boolean isOlderThan(InventorySnapshot other) {
+        return version != null && other.version != null && version < other.version;
+    }
+}
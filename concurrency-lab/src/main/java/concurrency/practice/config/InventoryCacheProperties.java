@@ -0,0 +1,23 @@
+package concurrency.practice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 재고 조회 캐시 설정 (practice.inventory.cache.*)
+ *
+ * @param enabled     false 면 모든 조회가 DB로 간다
+ * @param maximumSize 최대 항목 수. 넘으면 가장 오래 쓰이지 않은 항목부터 밀려난다 (LRU)
+ * @param ttl         항목의 최대 수명. 커밋 훅을 거치지 않은 변경(직접 SQL 등)이 캐시에 보이지 않을 수 있는 최대 시간이다
+ * @param segments    잠금을 나누는 구간 수 (2의 거듭제곱으로 올림)
+ */
+@ConfigurationProperties(prefix = "practice.inventory.cache")
+public record InventoryCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") int maximumSize,
+        @DefaultValue("1s") Duration ttl,
+        @DefaultValue("16") int segments
+) {
+}
@@ -0,0 +1,19 @@
+package concurrency.practice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 상품별 판매 집계 설정 (practice.inventory.sales.*)
+ *
+ * @param enabled     false 면 주문 커밋 훅에서 집계를 갱신하지 않는다. 집계 조회는 재구성한 시점의 값에 머문다
+ * @param segments    잠금을 나누는 구간 수 (2의 거듭제곱으로 올림)
+ * @param expectedSkus 처음에 자리를 잡아 둘 상품 수. 넘어도 테이블이 늘어날 뿐이다
+ */
+@ConfigurationProperties(prefix = "practice.inventory.sales")
+public record InventorySalesProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("16") int segments,
+        @DefaultValue("1024") int expectedSkus
+) {
+}
@@ -0,0 +1,21 @@
+package concurrency.practice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 입고 버퍼 설정 (practice.inventory.stock-buffer.*)
+ *
+ * @param flushInterval 쌓인 입고분을 재고 행에 반영하는 주기
+ * @param maxBatchSize  한 트랜잭션으로 반영할 최대 상품 수
+ * @param stripes       상품마다 입고분을 나눠 쌓는 칸 수. 같은 상품에 동시에 입고하는 스레드가 서로 덜 부딪힌다 (2의 거듭제곱으로 올림)
+ */
+@ConfigurationProperties(prefix = "practice.inventory.stock-buffer")
+public record InventoryStockProperties(
+        @DefaultValue("50ms") Duration flushInterval,
+        @DefaultValue("500") int maxBatchSize,
+        @DefaultValue("8") int stripes
+) {
+}
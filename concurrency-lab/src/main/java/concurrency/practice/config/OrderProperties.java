@@ -0,0 +1,136 @@
+package concurrency.practice.config;
+
+import concurrency.practice.service.RetryPolicy;
+import concurrency.practice.service.ShardSelection;
+import concurrency.practice.service.StockStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 주문 처리 관련 설정 (practice.order.*)
+ *
+ * @param stockStrategy 주문 생성 시 사용할 재고 차감 전략
+ * @param sharding      SHARDED 전략의 샤드 선택 설정
+ * @param ledger        메모리 예약 원장(write-behind) 설정
+ * @param groupCommit   같은 재고에 대한 주문을 묶어서 커밋하는 설정
+ * @param retry         주문 수정 시 낙관적 락 충돌 재시도 정책
+ * @param stockRetry    OPTIMISTIC_VERSION 전략으로 주문을 생성할 때의 재고 버전 충돌 재시도 정책
+ * @param idempotency   멱등 키 주문의 메모리 중복 제거 창 설정
+ * @param metrics       주문 핫패스 계측(잠금 대기/보유 시간, 실패 코드) 설정
+ * @param hotSku        경합이 몰리는 상품을 감지해 단일 writer 레인으로 보내는 설정
+ * @param admission     품절 표시와 상품별 동시 진입 제한 설정
+ * @param export        주문 내보내기(키셋 페이지 스트리밍) 설정
+ */
+@ConfigurationProperties(prefix = "practice.order")
+public record OrderProperties(
+        @DefaultValue("PESSIMISTIC_LOCK") StockStrategy stockStrategy,
+        @DefaultValue Sharding sharding,
+        @DefaultValue Ledger ledger,
+        @DefaultValue GroupCommit groupCommit,
+        @DefaultValue RetryPolicy retry,
+        @DefaultValue RetryPolicy stockRetry,
+        @DefaultValue Idempotency idempotency,
+        @DefaultValue Metrics metrics,
+        @DefaultValue HotSku hotSku,
+        @DefaultValue Admission admission,
+        @DefaultValue Export export
+) {
+
+    /**
+     * @param selection 차감을 처음 시도할 샤드를 고르는 방식
+     */
+    public record Sharding(
+            @DefaultValue("THREAD_AFFINE") ShardSelection selection
+    ) {
+    }
+
+    /**
+     * @param enabled       true 일 때만 예약 원장과 백그라운드 writer 를 띄운다
+     * @param journalPath   DB에 반영되지 않은 예약을 기록하는 저널 파일
+     * @param fsync         예약마다 저널을 디스크까지 강제로 내릴지 여부
+     * @param batchSize     한 트랜잭션으로 반영할 최대 예약 수
+     * @param flushInterval 백그라운드 writer 의 반영 주기
+     */
+    public record Ledger(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("ledger/reservations.journal") String journalPath,
+            @DefaultValue("false") boolean fsync,
+            @DefaultValue("500") int batchSize,
+            @DefaultValue("50ms") Duration flushInterval
+    ) {
+    }
+
+    /**
+     * @param window       묶음의 첫 주문이 들어온 뒤 다른 주문을 기다리는 최대 시간
+     * @param maxBatchSize 시간 창이 끝나기 전이라도 이 수만큼 모이면 바로 커밋한다
+     */
+    public record GroupCommit(
+            @DefaultValue("5ms") Duration window,
+            @DefaultValue("64") int maxBatchSize
+    ) {
+    }
+
+    /**
+     * @param ttl           완료된 키를 메모리에 남겨 두는 시간. 지난 뒤의 재시도는 DB의 키 기록으로 찾는다
+     * @param sweepInterval 만료된 키를 메모리에서 치우는 주기
+     */
+    public record Idempotency(
+            @DefaultValue("10m") Duration ttl,
+            @DefaultValue("1m") Duration sweepInterval
+    ) {
+    }
+
+    /**
+     * @param enabled          false 면 계측 호출이 아무 일도 하지 않는다 (계측 오버헤드 비교용)
+     * @param inventoryBuckets 재고 id 를 접어 넣을 태그 구간 수. 상품 수와 무관하게 시계열 수를 묶어 둔다
+     */
+    public record Metrics(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("16") int inventoryBuckets
+    ) {
+    }
+
+    /**
+     * @param enabled          true 일 때만 경합을 재고 hot SKU 를 레인으로 보낸다
+     * @param lanes            단일 스레드 레인 수. hot SKU 가 동시에 쓰는 커넥션 수의 상한이다
+     * @param window           경합량을 합산하는 최근 시간 창
+     * @param promoteThreshold 창 안의 경합량(주문 도착 시 이미 진행 중이던 같은 상품 주문 수의 합)이 이 이상이면 승격한다
+     * @param demoteThreshold  hot SKU 의 경합량이 이 미만으로 내려가면 강등한다
+     */
+    public record HotSku(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("2") int lanes,
+            @DefaultValue("1s") Duration window,
+            @DefaultValue("200") long promoteThreshold,
+            @DefaultValue("20") long demoteThreshold
+    ) {
+    }
+
+    /**
+     * @param enabled                   true 일 때만 품절 표시와 진입 제한을 한다 (한도를 넘은 주문이 실패하므로 기본은 끔)
+     * @param maxConcurrentPerInventory 한 상품에 대해 동시에 처리할 수 있는 주문 수
+     * @param queueTimeout              허가증을 기다리는 최대 시간. 넘기면 INVENTORY_BUSY 로 거절한다
+     * @param soldOutRecheck            품절 표시된 상품의 실제 재고를 DB에서 다시 확인하는 주기
+     * @param limiterSweepInterval      아무도 쓰지 않는 상품별 허가증(Semaphore)을 지우는 주기
+     */
+    public record Admission(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("32") int maxConcurrentPerInventory,
+            @DefaultValue("1s") Duration queueTimeout,
+            @DefaultValue("1s") Duration soldOutRecheck,
+            @DefaultValue("30s") Duration limiterSweepInterval
+    ) {
+    }
+
+    /**
+     * @param pageSize   한 번에 읽는 주문 수. 페이지마다 짧은 읽기 전용 트랜잭션을 연다
+     * @param bufferSize 파일/응답에 쓰기 전에 행을 모아 두는 버퍼 크기 (byte)
+     */
+    public record Export(
+            @DefaultValue("1000") int pageSize,
+            @DefaultValue("65536") int bufferSize
+    ) {
+    }
+}
@@ -0,0 +1,45 @@
+package concurrency.practice.config;
+
+import concurrency.practice.outbox.FileOrderEventSink;
+import concurrency.practice.outbox.InMemoryOrderEventSink;
+import concurrency.practice.outbox.OrderEventSink;
+import concurrency.practice.outbox.OutboxRelay;
+import concurrency.practice.repository.OrderOutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(prefix = "practice.outbox", name = "enabled", havingValue = "true")
+public class OutboxConfig {
+
+    /**
+     * 실제 브로커 싱크를 빈으로 등록하면 이 기본 싱크 대신 사용된다.
+     */
+    @Bean
+    @ConditionalOnMissingBean(OrderEventSink.class)
+    public OrderEventSink orderEventSink(OutboxProperties outboxProperties) {
+        return switch (outboxProperties.sink()) {
+            case "memory" -> new InMemoryOrderEventSink();
+            case "file" -> new FileOrderEventSink(Path.of(outboxProperties.filePath()));
+            default -> throw new IllegalArgumentException("unknown outbox sink: " + outboxProperties.sink());
+        };
+    }
+
+    @Bean(destroyMethod = "stop")
+    public OutboxRelay outboxRelay(OrderOutboxEventRepository orderOutboxEventRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   OrderEventSink orderEventSink,
+                                   MeterRegistry meterRegistry,
+                                   OutboxProperties outboxProperties) {
+        OutboxRelay outboxRelay = new OutboxRelay(orderOutboxEventRepository, transactionTemplate, orderEventSink,
+                meterRegistry, outboxProperties.workers(), outboxProperties.batchSize(), outboxProperties.pollInterval());
+        outboxRelay.start();
+        return outboxRelay;
+    }
+}
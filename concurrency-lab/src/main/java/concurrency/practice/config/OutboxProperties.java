@@ -0,0 +1,27 @@
+package concurrency.practice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 주문 이벤트 아웃박스 설정 (practice.outbox.*)
+ *
+ * @param enabled      true 면 주문 변경마다 아웃박스 행을 쓰고 릴레이를 띄운다
+ * @param workers      아웃박스를 나눠 가져가는 릴레이 워커 수
+ * @param batchSize    워커가 한 트랜잭션에서 잠그고 발행할 최대 이벤트 수
+ * @param pollInterval 발행할 이벤트가 없을 때 다시 확인하기까지 쉬는 시간
+ * @param sink         이벤트를 내보낼 곳 (memory | file)
+ * @param filePath     sink 가 file 일 때 NDJSON 을 덧붙일 파일
+ */
+@ConfigurationProperties(prefix = "practice.outbox")
+public record OutboxProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("2") int workers,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("20ms") Duration pollInterval,
+        @DefaultValue("memory") String sink,
+        @DefaultValue("outbox/order-events.ndjson") String filePath
+) {
+}
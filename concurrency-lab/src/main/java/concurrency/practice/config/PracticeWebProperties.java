@@ -0,0 +1,29 @@
+package concurrency.practice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * HTTP 요청 처리 관련 설정 (practice.web.*)
+ *
+ * @param connectionGuard DB 작업 동시 진입 제한 설정
+ */
+@ConfigurationProperties(prefix = "practice.web")
+public record PracticeWebProperties(
+        @DefaultValue ConnectionGuard connectionGuard
+) {
+
+    /**
+     * @param enabled        true 면 DB 작업 앞에서 허가증을 받아야 한다 (가상 스레드 사용 시 권장)
+     * @param permits        허가증 수. 0 이면 Hikari 풀 크기를 따른다
+     * @param acquireTimeout 허가증을 기다리는 최대 시간. 넘기면 503 SERVER_BUSY
+     */
+    public record ConnectionGuard(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("0") int permits,
+            @DefaultValue("2s") Duration acquireTimeout
+    ) {
+    }
+}
@@ -0,0 +1,44 @@
+package concurrency.practice.config;
+
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.ledger.ReservationJournal;
+import concurrency.practice.ledger.ReservationLedger;
+import concurrency.practice.outbox.OrderEventRecorder;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.LedgerCheckpointRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.sales.InventorySalesRecorder;
+import concurrency.practice.stock.StockDeltaBuffer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(prefix = "practice.order.ledger", name = "enabled", havingValue = "true")
+public class ReservationLedgerConfig {
+
+    @Bean(destroyMethod = "stop")
+    public ReservationLedger reservationLedger(InventoryRepository inventoryRepository,
+                                               ProductOrderRepository productOrderRepository,
+                                               LedgerCheckpointRepository ledgerCheckpointRepository,
+                                               TransactionTemplate transactionTemplate,
+                                               InventoryCache inventoryCache,
+                                               OrderEventRecorder orderEventRecorder,
+                                               InventorySalesRecorder inventorySalesRecorder,
+                                               StockDeltaBuffer stockDeltaBuffer,
+                                               OrderProperties orderProperties) {
+        OrderProperties.Ledger ledger = orderProperties.ledger();
+        ReservationLedger reservationLedger = new ReservationLedger(
+                inventoryRepository, productOrderRepository, ledgerCheckpointRepository, transactionTemplate,
+                inventoryCache, orderEventRecorder, inventorySalesRecorder, stockDeltaBuffer,
+                new ReservationJournal(Path.of(ledger.journalPath()), ledger.fsync()), ledger.batchSize());
+        // 생성 시점에 저널로부터 복구하므로, 원장이 주입되는 시점에는 카운터가 이미 DB와 맞춰져 있다.
+        reservationLedger.start(ledger.flushInterval());
+        // 입고, 취소, 다른 전략의 주문이 커밋되면 원장 카운터를 DB와 다시 맞춘다.
+        inventoryCache.addStockChangeListener(reservationLedger::stockChanged);
+        return reservationLedger;
+    }
+}
@@ -0,0 +1,70 @@
+package concurrency.practice.controller;
+
+import concurrency.practice.controller.dto.InventoryResponse;
+import concurrency.practice.controller.dto.InventorySalesResponse;
+import concurrency.practice.controller.dto.RestockRequest;
+import concurrency.practice.controller.dto.StockAdjustmentsRequest;
+import concurrency.practice.sales.InventorySalesAggregates;
+import concurrency.practice.service.InventoryQueryService;
+import concurrency.practice.service.InventoryStockService;
+import concurrency.practice.service.StockAdjustment;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/inventories")
+@RequiredArgsConstructor
+public class InventoryController {
+
+    private final InventoryQueryService inventoryQueryService;
+    private final InventoryStockService inventoryStockService;
+    private final InventorySalesAggregates inventorySalesAggregates;
+    private final JdbcConnectionGuard jdbcConnectionGuard;
+
+    @GetMapping("/{inventoryId}")
+    public ResponseEntity<InventoryResponse> getInventory(@PathVariable Long inventoryId) {
+        // 캐시 적중 시에는 커넥션을 쓰지 않으므로 JdbcConnectionGuard 를 거치지 않는다.
+        return ResponseEntity.ok(InventoryResponse.from(inventoryQueryService.getInventory(inventoryId)));
+    }
+
+    @GetMapping("/{inventoryId}/sales")
+    public ResponseEntity<InventorySalesResponse> getSales(@PathVariable Long inventoryId) {
+        // 메모리 집계만 읽으므로 커넥션을 쓰지 않는다.
+        return ResponseEntity.ok(InventorySalesResponse.from(inventorySalesAggregates.get(inventoryId)));
+    }
+
+    @GetMapping("/sales")
+    public ResponseEntity<List<InventorySalesResponse>> getAllSales() {
+        return ResponseEntity.ok(inventorySalesAggregates.all().stream()
+                .map(InventorySalesResponse::from)
+                .toList());
+    }
+
+    @PostMapping("/{inventoryId}/restock")
+    public ResponseEntity<Void> restock(@PathVariable Long inventoryId, @RequestBody RestockRequest request) {
+        jdbcConnectionGuard.call(() -> {
+            inventoryStockService.restock(inventoryId, request.quantity());
+            return null;
+        });
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/adjustments")
+    public ResponseEntity<Void> adjust(@RequestBody StockAdjustmentsRequest request) {
+        List<StockAdjustment> adjustments = request.adjustments().stream()
+                .map(adjustment -> new StockAdjustment(adjustment.inventoryId(), adjustment.delta()))
+                .toList();
+        jdbcConnectionGuard.call(() -> {
+            inventoryStockService.adjustAll(adjustments);
+            return null;
+        });
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,65 @@
+package concurrency.practice.controller;
+
+import static concurrency.practice.exception.PracticeErrorCode.SERVER_BUSY;
+
+import com.zaxxer.hikari.HikariDataSource;
+import concurrency.practice.config.PracticeWebProperties;
+import concurrency.practice.exception.PracticeException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * DB 작업에 동시에 들어갈 수 있는 요청 수를 커넥션 풀 크기로 제한한다.
+ *
+ * 가상 스레드로 요청을 처리하면 Tomcat 스레드 수(기본 200)라는 자연스러운 상한이 사라져,
+ * 수만 개의 요청이 동시에 Hikari 풀 앞에서 커넥션을 기다리게 된다.
+ * 그러면 모두가 connection-timeout(기본 30초)까지 매달리다 한꺼번에 실패하므로,
+ * 풀 크기만큼의 허가증을 가진 공정 세마포어 앞에서 먼저 줄을 세우고, 짧은 대기 시간을 넘기면 503 으로 바로 돌려보낸다.
+ */
+@Component
+public class JdbcConnectionGuard {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public JdbcConnectionGuard(DataSource dataSource, PracticeWebProperties webProperties) {
+        PracticeWebProperties.ConnectionGuard connectionGuard = webProperties.connectionGuard();
+        if (connectionGuard.enabled()) {
+            int permitCount = connectionGuard.permits() > 0 ? connectionGuard.permits() : poolSize(dataSource);
+            this.permits = new Semaphore(permitCount, true);
+        } else {
+            this.permits = null;
+        }
+        this.acquireTimeoutNanos = connectionGuard.acquireTimeout().toNanos();
+    }
+
+    public <T> T call(Supplier<T> action) {
+        if (permits == null) {
+            return action.get();
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new PracticeException(SERVER_BUSY);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PracticeException(SERVER_BUSY);
+        }
+        try {
+            return action.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikariDataSource) {
+            return hikariDataSource.getMaximumPoolSize();
+        }
+        throw new IllegalStateException("connection guard needs practice.web.connection-guard.permits"
+                + " when the DataSource is not Hikari: " + dataSource.getClass().getName());
+    }
+}
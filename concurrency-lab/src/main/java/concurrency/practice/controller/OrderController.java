@@ -0,0 +1,93 @@
+package concurrency.practice.controller;
+
+import concurrency.practice.controller.dto.CreateOrderRequest;
+import concurrency.practice.controller.dto.CreateOrderResponse;
+import concurrency.practice.controller.dto.CreateOrdersRequest;
+import concurrency.practice.controller.dto.CreateOrdersResponse;
+import concurrency.practice.controller.dto.UpdateOrderQuantityRequest;
+import concurrency.practice.export.ExportFormat;
+import concurrency.practice.export.OrderExportService;
+import concurrency.practice.service.OrderLine;
+import concurrency.practice.service.OrderService;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/orders")
+@RequiredArgsConstructor
+public class OrderController {
+
+    private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final JdbcConnectionGuard jdbcConnectionGuard;
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<CreateOrderResponse>> createOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody CreateOrderRequest request) {
+        // 타임아웃 후 재시도하는 클라이언트는 같은 Idempotency-Key 를 보내 주문이 두 번 생기지 않게 한다.
+        // hot SKU 주문은 레인 큐에 들어가자마자 future 로 돌아오므로, 허가증은 레인을 기다리기 전에 반납된다.
+        CompletableFuture<Long> orderId = jdbcConnectionGuard.call(() -> idempotencyKey == null
+                ? orderService.createOrderAsync(request.inventoryId(), request.quantity())
+                : orderService.createOrderAsync(request.inventoryId(), request.quantity(), idempotencyKey));
+        return orderId.thenApply(id -> ResponseEntity.created(URI.create("/orders/" + id))
+                .body(new CreateOrderResponse(id)));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<CreateOrdersResponse> createOrders(@RequestBody CreateOrdersRequest request) {
+        List<OrderLine> lines = request.lines().stream()
+                .map(line -> new OrderLine(line.inventoryId(), line.quantity()))
+                .toList();
+        List<Long> orderIds = jdbcConnectionGuard.call(() -> orderService.createOrders(lines));
+        return ResponseEntity.ok(new CreateOrdersResponse(orderIds));
+    }
+
+    /**
+     * 주문 전체를 CSV 또는 NDJSON 으로 흘려보낸다. 페이지마다 커넥션을 잠깐씩만 쓰므로 JdbcConnectionGuard 를 거치지 않는다.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        MediaType mediaType = format == ExportFormat.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody body = outputStream ->
+                orderExportService.export(Channels.newChannel(outputStream), format);
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
+
+    @PostMapping("/{orderId}/cancel")
+    public ResponseEntity<Void> cancelOrder(@PathVariable Long orderId) {
+        jdbcConnectionGuard.call(() -> {
+            orderService.cancelOrder(orderId);
+            return null;
+        });
+        return ResponseEntity.noContent().build();
+    }
+
+    @PatchMapping("/{orderId}")
+    public ResponseEntity<Void> updateOrderQuantity(@PathVariable Long orderId,
+                                                    @RequestBody UpdateOrderQuantityRequest request) {
+        jdbcConnectionGuard.call(() -> {
+            orderService.updateOrderQuantity(orderId, request.quantity());
+            return null;
+        });
+        return ResponseEntity.noContent().build();
+    }
+}
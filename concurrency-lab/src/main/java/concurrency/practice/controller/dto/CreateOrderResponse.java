@@ -0,0 +1,4 @@
+package concurrency.practice.controller.dto;
+
+public record CreateOrderResponse(Long orderId) {
+}
@@ -0,0 +1,6 @@
+package concurrency.practice.controller.dto;
+
+import java.util.List;
+
+public record CreateOrdersResponse(List<Long> orderIds) {
+}
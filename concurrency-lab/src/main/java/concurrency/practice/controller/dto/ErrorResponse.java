@@ -0,0 +1,10 @@
+package concurrency.practice.controller.dto;
+
+import concurrency.practice.exception.PracticeErrorCode;
+
+public record ErrorResponse(String code, String error, String details) {
+
+    public static ErrorResponse of(PracticeErrorCode errorCode) {
+        return new ErrorResponse(errorCode.name(), errorCode.getError(), errorCode.getDetails());
+    }
+}
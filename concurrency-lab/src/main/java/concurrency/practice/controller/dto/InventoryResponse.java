@@ -0,0 +1,10 @@
+package concurrency.practice.controller.dto;
+
+import concurrency.practice.cache.InventorySnapshot;
+
+public record InventoryResponse(Long inventoryId, String productName, long stock) {
+
+    public static InventoryResponse from(InventorySnapshot snapshot) {
+        return new InventoryResponse(snapshot.id(), snapshot.productName(), snapshot.stock());
+    }
+}
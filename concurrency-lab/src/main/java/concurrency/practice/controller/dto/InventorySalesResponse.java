@@ -0,0 +1,10 @@
+package concurrency.practice.controller.dto;
+
+import concurrency.practice.sales.InventorySales;
+
+public record InventorySalesResponse(Long inventoryId, long unitsSold, long orderCount) {
+
+    public static InventorySalesResponse from(InventorySales sales) {
+        return new InventorySalesResponse(sales.inventoryId(), sales.unitsSold(), sales.orderCount());
+    }
+}
@@ -0,0 +1,13 @@
+package concurrency.practice.controller.dto;
+
+import concurrency.practice.exception.OrderLineException;
+import concurrency.practice.exception.PracticeErrorCode;
+
+public record OrderLineErrorResponse(String code, String error, String details, Long inventoryId) {
+
+    public static OrderLineErrorResponse of(OrderLineException e) {
+        PracticeErrorCode errorCode = e.getErrorCode();
+        return new OrderLineErrorResponse(errorCode.name(), errorCode.getError(), errorCode.getDetails(),
+                e.getInventoryId());
+    }
+}
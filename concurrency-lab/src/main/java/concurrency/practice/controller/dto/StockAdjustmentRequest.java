@@ -0,0 +1,4 @@
+package concurrency.practice.controller.dto;
+
+public record StockAdjustmentRequest(Long inventoryId, long delta) {
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -16,13 +18,18 @@ import static concurrency.practice.exception.PracticeErrorCode.OUT_OF_STOCK;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Inventory {
 
+    // ProductOrder 와 같이 시퀀스 키를 써서 상품 등록(시드 데이터 적재 등)도 묶음 INSERT 가 되게 한다.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50)
     private Long id;
 
     private String productName;
     private long stock;
 
+    @Version
+    private Long version; // 낙관적 락(OPTIMISTIC_VERSION 전략)을 위한 버전 필드
+
     public Inventory(String productName, long stock) {
         this.productName = productName;
         this.stock = stock;
@@ -34,4 +41,21 @@ public class Inventory {
         }
         this.stock -= quantity;
     }
+
+    /**
+     * 입고, 반품 등으로 재고를 늘립니다.
+     */
+    public void increase(long quantity) {
+        // 넘치면 음수로 돌아가는 대신 예외로 트랜잭션을 되돌린다.
+        this.stock = Math.addExact(this.stock, quantity);
+    }
+
+    /**
+     * 샤드로 옮기기 위해 보유한 재고를 모두 꺼냅니다.
+     */
+    public long takeAllStock() {
+        long taken = this.stock;
+        this.stock = 0;
+        return taken;
+    }
 }
@@ -0,0 +1,57 @@
+package concurrency.practice.domain;
+
+import concurrency.practice.exception.PracticeException;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import static concurrency.practice.exception.PracticeErrorCode.OUT_OF_STOCK;
+
+/**
+ * 하나의 재고(Inventory)를 여러 행으로 나눈 조각.
+ * 인기 상품의 재고를 N개의 행에 분산시켜 같은 행을 두고 경합하는 주문 수를 1/N로 줄인다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"inventoryId", "shardIndex"}))
+public class InventoryShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long inventoryId;
+    private int shardIndex;
+    private long stock;
+
+    public InventoryShard(Long inventoryId, int shardIndex, long stock) {
+        this.inventoryId = inventoryId;
+        this.shardIndex = shardIndex;
+        this.stock = stock;
+    }
+
+    public void decrease(long quantity) {
+        if (this.stock - quantity < 0) {
+            throw new PracticeException(OUT_OF_STOCK);
+        }
+        this.stock -= quantity;
+    }
+
+    public void increase(long quantity) {
+        this.stock = Math.addExact(this.stock, quantity);
+    }
+
+    /**
+     * 재분배 시 이 샤드가 가질 재고를 다시 지정합니다.
+     */
+    public void reassign(long stock) {
+        this.stock = stock;
+    }
+}
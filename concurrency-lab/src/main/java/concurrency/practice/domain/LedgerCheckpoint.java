@@ -0,0 +1,33 @@
+package concurrency.practice.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 예약 원장(ReservationLedger)이 DB에 반영을 마친 마지막 예약 순번.
+ * 주문 INSERT 와 같은 트랜잭션에서 갱신되므로, 재시작 시 이 값 이후의 저널 기록만 다시 반영하면 된다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class LedgerCheckpoint {
+
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    private long lastFlushedSequence;
+
+    public LedgerCheckpoint(long lastFlushedSequence) {
+        this.id = SINGLETON_ID;
+        this.lastFlushedSequence = lastFlushedSequence;
+    }
+
+    public void advanceTo(long sequence) {
+        this.lastFlushedSequence = Math.max(this.lastFlushedSequence, sequence);
+    }
+}
@@ -0,0 +1,7 @@
+package concurrency.practice.domain;
+
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_QUANTITY_UPDATED,
+    ORDER_CANCELLED
+}
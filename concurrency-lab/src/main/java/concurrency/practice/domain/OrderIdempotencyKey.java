@@ -0,0 +1,42 @@
+package concurrency.practice.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 멱등 키로 생성된 주문 기록.
+ * 주문 INSERT 와 같은 트랜잭션에 저장되므로, 키가 남아 있으면 그 주문도 반드시 커밋되어 있다.
+ * 메모리 중복 제거 창(IdempotencyRegistry)이 지난 재시도나 다른 인스턴스로 간 재시도는 이 행으로 원래 주문을 찾는다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = "idempotencyKey"))
+public class OrderIdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String idempotencyKey;
+
+    private Long orderId;
+    private Instant createdAt;
+
+    public OrderIdempotencyKey(String idempotencyKey, Long orderId) {
+        this.idempotencyKey = idempotencyKey;
+        this.orderId = orderId;
+        this.createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,47 @@
+package concurrency.practice.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 트랜잭션 아웃박스: 주문 변경과 같은 트랜잭션에 기록되는 발행 대기 이벤트.
+ * 주문이 커밋되면 이벤트도 반드시 남고, 롤백되면 함께 사라진다. 발행을 마친 행은 릴레이가 지운다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderOutboxEvent {
+
+    // 주문과 함께 묶음 INSERT 되도록 시퀀스 키를 쓴다. 릴레이는 id 순으로 발행하지만, 키는 인스턴스마다 50개씩 미리 받아 두므로
+    // id 순서는 기록(커밋) 순서와 다를 수 있다. 같은 주문의 이벤트끼리도 순서를 보장하지 않으니, 소비자는 순서에 기대지 않아야 한다.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_event_seq")
+    @SequenceGenerator(name = "order_outbox_event_seq", sequenceName = "order_outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private OrderEventType eventType;
+
+    private Long orderId;
+    private Long inventoryId;
+    private int quantity;
+    private Instant createdAt;
+
+    public OrderOutboxEvent(OrderEventType eventType, Long orderId, Long inventoryId, int quantity) {
+        this.eventType = eventType;
+        this.orderId = orderId;
+        this.inventoryId = inventoryId;
+        this.quantity = quantity;
+        this.createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,6 @@
+package concurrency.practice.domain;
+
+public enum OrderStatus {
+    CREATED,
+    CANCELLED
+}
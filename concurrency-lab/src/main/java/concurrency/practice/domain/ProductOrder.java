@@ -1,35 +1,71 @@
 package concurrency.practice.domain;
 
+import concurrency.practice.exception.PracticeException;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import static concurrency.practice.exception.PracticeErrorCode.ORDER_ALREADY_CANCELLED;
+
+// 판매 집계 재구성이 재구성 도중 주문이 들어온 상품만 다시 읽을 때 쓴다. (InventorySalesAggregates 참고)
 @Entity
+@Table(indexes = @Index(name = "idx_product_order_inventory", columnList = "inventory_id, status"))
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class ProductOrder {
 
+    // IDENTITY 는 INSERT 를 실행해야 키를 알 수 있어 Hibernate 가 JDBC 배치를 끈다.
+    // 시퀀스에서 50개씩 미리 받아 메모리에서 나눠 주므로, 주문 INSERT 는 hibernate.jdbc.batch_size 만큼 묶인다.
+    // 50개를 어떻게 나눠 줄지는 hibernate.id.optimizer.pooled.preferred 로 고른다. (application.yml 참고)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_order_seq")
+    @SequenceGenerator(name = "product_order_seq", sequenceName = "product_order_seq", allocationSize = 50)
     private Long id;
 
     private Long inventoryId;
     private int quantity;
 
+    // 주문을 만들 때 재고에서 실제로 차감한 수량. 수량 수정은 재고를 건드리지 않으므로 이 값도 바꾸지 않고,
+    // 취소는 quantity 가 아니라 이 값만큼 재고를 돌려준다.
+    private int reservedQuantity;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
     @Version
     private Long version; // 낙관적 락을 위한 버전 필드
 
     public ProductOrder(Long inventoryId, int quantity) {
         this.inventoryId = inventoryId;
         this.quantity = quantity;
+        this.reservedQuantity = quantity;
+        this.status = OrderStatus.CREATED;
     }
 
     public void updateQuantity(int newQuantity) {
+        if (this.status == OrderStatus.CANCELLED) {
+            throw new PracticeException(ORDER_ALREADY_CANCELLED);
+        }
         this.quantity = newQuantity;
     }
+
+    /**
+     * 주문을 취소 상태로 바꿉니다. 버전 필드 덕분에 동시에 취소해도 한 트랜잭션만 커밋된다.
+     */
+    public void cancel() {
+        if (this.status == OrderStatus.CANCELLED) {
+            throw new PracticeException(ORDER_ALREADY_CANCELLED);
+        }
+        this.status = OrderStatus.CANCELLED;
+    }
 }
@@ -0,0 +1,16 @@
+package concurrency.practice.exception;
+
+import lombok.Getter;
+
+/**
+ * 여러 상품을 한 번에 주문할 때, 어느 상품 때문에 주문 전체가 실패했는지를 함께 전달한다.
+ */
+@Getter
+public class OrderLineException extends PracticeException {
+    private final Long inventoryId;
+
+    public OrderLineException(PracticeErrorCode errorCode, Long inventoryId) {
+        super(errorCode);
+        this.inventoryId = inventoryId;
+    }
+}
@@ -6,9 +6,14 @@ import org.springframework.http.HttpStatus;
 @Getter
 public enum PracticeErrorCode {
     INVENTORY_NOT_FOUND("Inventory not found", "상품 재고 정보를 찾을 수 없습니다.", HttpStatus.NOT_FOUND),
+    INVALID_QUANTITY("Invalid quantity", "수량은 1 이상이어야 합니다.", HttpStatus.BAD_REQUEST),
     ORDER_NOT_FOUND("Order not found", "주문 정보를 찾을 수 없습니다.", HttpStatus.NOT_FOUND),
+    ORDER_ALREADY_CANCELLED("Order already cancelled", "이미 취소된 주문입니다.", HttpStatus.CONFLICT),
     OUT_OF_STOCK("Out of stock", "상품의 재고가 부족합니다.", HttpStatus.CONFLICT),
-    OPTIMISTIC_LOCK_CONFLICT("Optimistic lock conflict", "다른 사용자가 데이터를 수정했습니다. 다시 시도해주세요.", HttpStatus.CONFLICT);
+    INVENTORY_NOT_SHARDED("Inventory not sharded", "샤드로 분할되지 않은 재고입니다.", HttpStatus.BAD_REQUEST),
+    OPTIMISTIC_LOCK_CONFLICT("Optimistic lock conflict", "다른 사용자가 데이터를 수정했습니다. 다시 시도해주세요.", HttpStatus.CONFLICT),
+    SERVER_BUSY("Server busy", "요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요.", HttpStatus.SERVICE_UNAVAILABLE),
+    INVENTORY_BUSY("Inventory busy", "이 상품에 주문이 몰려 처리하지 못했습니다. 잠시 후 다시 시도해주세요.", HttpStatus.SERVICE_UNAVAILABLE);
 
     private final String error;
     private final String details;
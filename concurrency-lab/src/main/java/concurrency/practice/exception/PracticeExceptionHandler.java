@@ -0,0 +1,24 @@
+package concurrency.practice.exception;
+
+import concurrency.practice.controller.dto.ErrorResponse;
+import concurrency.practice.controller.dto.OrderLineErrorResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class PracticeExceptionHandler {
+
+    @ExceptionHandler(PracticeException.class)
+    public ResponseEntity<ErrorResponse> handlePracticeException(PracticeException e) {
+        PracticeErrorCode errorCode = e.getErrorCode();
+        return ResponseEntity.status(errorCode.getHttpStatus())
+                .body(ErrorResponse.of(errorCode));
+    }
+
+    @ExceptionHandler(OrderLineException.class)
+    public ResponseEntity<OrderLineErrorResponse> handleOrderLineException(OrderLineException e) {
+        return ResponseEntity.status(e.getErrorCode().getHttpStatus())
+                .body(OrderLineErrorResponse.of(e));
+    }
+}
@@ -0,0 +1,6 @@
+package concurrency.practice.export;
+
+public enum ExportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,9 @@
+package concurrency.practice.export;
+
+import concurrency.practice.domain.OrderStatus;
+
+/**
+ * 내보내기용 주문 한 행. JPQL 생성자 표현식으로 바로 만들어지므로 영속성 컨텍스트에 엔티티가 쌓이지 않는다.
+ */
+public record OrderExportRow(Long id, Long inventoryId, int quantity, OrderStatus status) {
+}
@@ -0,0 +1,110 @@
+package concurrency.practice.export;
+
+import concurrency.practice.config.OrderProperties;
+import concurrency.practice.repository.ProductOrderRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 주문 전체 내보내기 (야간 정산 등)
+ *
+ * - 주문을 id 커서로 pageSize 개씩 읽는다. 페이지마다 짧은 읽기 전용 트랜잭션을 열고 닫으므로, 긴 트랜잭션이 커넥션과
+ *   언두 기록을 붙잡지 않는다. 대신 내보내기 전체가 한 시점의 스냅샷은 아니다. 도중에 커밋된 주문은 id 가 커서보다 크면 포함된다.
+ * - 행은 DTO 로 읽어 영속성 컨텍스트를 거치지 않고, OrderExportWriter 가 바이트 버퍼에 바로 인코딩한다.
+ *   힙에 머무는 것은 페이지 하나와 버퍼 하나뿐이라, 주문 테이블 크기와 상관없이 메모리 사용량이 일정하다.
+ */
+@Service
+public class OrderExportService {
+
+    private final ProductOrderRepository productOrderRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int pageSize;
+    private final int bufferSize;
+
+    public OrderExportService(ProductOrderRepository productOrderRepository,
+                              PlatformTransactionManager transactionManager,
+                              OrderProperties orderProperties) {
+        this.productOrderRepository = productOrderRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.pageSize = orderProperties.export().pageSize();
+        this.bufferSize = orderProperties.export().bufferSize();
+    }
+
+    /**
+     * 주문 전체를 파일로 내보냅니다. 임시 파일에 다 쓴 뒤 이름을 바꾸므로, 읽는 쪽은 반쯤 쓰인 파일을 보지 않습니다.
+     * 도중에 실패하면 임시 파일을 지우고 예외를 그대로 던집니다.
+     *
+     * @return 내보낸 주문 수
+     */
+    public long export(Path path, ExportFormat format) {
+        Path partial = path.resolveSibling(path.getFileName() + ".part");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            long rows;
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                rows = export(channel, format);
+                channel.force(false);
+            }
+            Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rows;
+        } catch (IOException e) {
+            deletePartial(partial, e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException | Error e) {
+            deletePartial(partial, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 주문 전체를 channel 로 내보냅니다. 채널은 닫지 않습니다.
+     *
+     * @return 내보낸 주문 수
+     */
+    public long export(WritableByteChannel channel, ExportFormat format) throws IOException {
+        OrderExportWriter writer = new OrderExportWriter(channel, format, bufferSize);
+        writer.writeHeader();
+
+        long rows = 0;
+        long afterId = 0;
+        PageRequest page = PageRequest.ofSize(pageSize);
+        while (true) {
+            long cursor = afterId;
+            List<OrderExportRow> orders = readOnlyTransaction.execute(
+                    status -> productOrderRepository.findExportPage(cursor, page));
+            for (OrderExportRow order : orders) {
+                writer.write(order);
+            }
+            rows += orders.size();
+            if (orders.size() < pageSize) {
+                break;
+            }
+            afterId = orders.get(orders.size() - 1).id();
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void deletePartial(Path partial, Throwable failure) {
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
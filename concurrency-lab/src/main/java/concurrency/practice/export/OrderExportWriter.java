@@ -0,0 +1,110 @@
+package concurrency.practice.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 주문 행을 CSV 또는 NDJSON 으로 바이트 버퍼에 직접 인코딩하고, 버퍼가 차면 채널에 쓴다.
+ *
+ * 행마다 String 을 만들지 않으므로 행 수와 상관없이 쓰레기가 거의 생기지 않고, 메모리는 버퍼 하나만 쓴다.
+ * 스레드 안전하지 않다. 내보내기 한 번에 하나씩 만든다.
+ */
+public class OrderExportWriter {
+
+    // 한 행이 차지할 수 있는 최대 바이트 수 (long 두 개, int 하나, 상태 이름, 구분자)
+    static final int MAX_ROW_BYTES = 128;
+
+    private static final byte[] CSV_HEADER = "id,inventory_id,quantity,status\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JSON_ID = "{\"id\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JSON_INVENTORY_ID = ",\"inventoryId\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JSON_QUANTITY = ",\"quantity\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JSON_STATUS = ",\"status\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JSON_END = "\"}\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final WritableByteChannel channel;
+    private final ExportFormat format;
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[20];
+
+    public OrderExportWriter(WritableByteChannel channel, ExportFormat format, int bufferSize) {
+        if (bufferSize < MAX_ROW_BYTES) {
+            throw new IllegalArgumentException("export buffer must hold at least one row: " + bufferSize);
+        }
+        this.channel = channel;
+        this.format = format;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public void writeHeader() throws IOException {
+        if (format == ExportFormat.CSV) {
+            ensureRoom();
+            buffer.put(CSV_HEADER);
+        }
+    }
+
+    public void write(OrderExportRow row) throws IOException {
+        ensureRoom();
+        if (format == ExportFormat.CSV) {
+            putLong(row.id());
+            buffer.put((byte) ',');
+            putLong(row.inventoryId());
+            buffer.put((byte) ',');
+            putLong(row.quantity());
+            buffer.put((byte) ',');
+            putAscii(row.status().name());
+            buffer.put((byte) '\n');
+        } else {
+            buffer.put(JSON_ID);
+            putLong(row.id());
+            buffer.put(JSON_INVENTORY_ID);
+            putLong(row.inventoryId());
+            buffer.put(JSON_QUANTITY);
+            putLong(row.quantity());
+            buffer.put(JSON_STATUS);
+            putAscii(row.status().name());
+            buffer.put(JSON_END);
+        }
+    }
+
+    /**
+     * 버퍼에 남은 바이트를 모두 채널에 씁니다.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensureRoom() throws IOException {
+        if (buffer.remaining() < MAX_ROW_BYTES) {
+            flush();
+        }
+    }
+
+    private void putAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            buffer.put((byte) value.charAt(i));
+        }
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            if (value == Long.MIN_VALUE) {
+                putAscii("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, position, digits.length - position);
+    }
+}
@@ -0,0 +1,74 @@
+package concurrency.practice.hotsku;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 최근 시간 창 동안 재고 id 별로 쌓인 경합량을 재는 count-min sketch
+ *
+ * 창은 slots 개의 칸으로 나뉘고, rotate() 가 호출될 때마다 가장 오래된 칸을 비우고 새 칸으로 넘어간다.
+ * 상품 수와 관계없이 메모리는 slots x DEPTH x width 로 고정이며, 해시 충돌 때문에 추정값은 실제보다 크게만 틀린다.
+ */
+class ContentionSketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final AtomicLongArray[] slots;
+    private final int mask;
+    private volatile int current;
+
+    /**
+     * @param slotCount 시간 창을 나눈 칸 수
+     * @param width     행마다의 카운터 수 (2의 거듭제곱으로 올림)
+     */
+    ContentionSketch(int slotCount, int width) {
+        int size = Integer.highestOneBit(Math.max(2, width - 1) << 1);
+        this.mask = size - 1;
+        this.slots = new AtomicLongArray[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new AtomicLongArray(DEPTH * size);
+        }
+    }
+
+    void add(long inventoryId, long weight) {
+        AtomicLongArray slot = slots[current];
+        for (int row = 0; row < DEPTH; row++) {
+            slot.addAndGet(index(row, inventoryId), weight);
+        }
+    }
+
+    /**
+     * 창 전체에 쌓인 경합량 추정값 (행별 합계 중 최솟값)
+     */
+    long estimate(long inventoryId) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(row, inventoryId);
+            long sum = 0;
+            for (AtomicLongArray slot : slots) {
+                sum += slot.get(index);
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    /**
+     * 가장 오래된 칸을 비우고 현재 칸으로 삼습니다. 한 스레드에서만 호출해야 합니다.
+     */
+    void rotate() {
+        int next = (current + 1) % slots.length;
+        AtomicLongArray slot = slots[next];
+        for (int i = 0; i < slot.length(); i++) {
+            slot.set(i, 0);
+        }
+        current = next;
+    }
+
+    private int index(int row, long inventoryId) {
+        long hash = (inventoryId + 1) * SEEDS[row];
+        return row * (mask + 1) + (int) ((hash ^ (hash >>> 32)) & mask);
+    }
+}
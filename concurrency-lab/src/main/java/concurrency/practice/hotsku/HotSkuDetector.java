@@ -0,0 +1,171 @@
+package concurrency.practice.hotsku;
+
+import concurrency.practice.config.OrderProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 재고 id 별 경합을 재서 hot SKU 를 골라낸다.
+ *
+ * 주문이 들어올 때 같은 상품에 이미 진행 중인 주문 수(= 이 주문이 잠금 앞에서 기다려야 할 주문 수)를 경합량으로 보고,
+ * 최근 window 동안의 합을 ContentionSketch 에 쌓는다.
+ * - 합이 promoteThreshold 이상이 되면 hot SKU 로 승격되어, 이후 주문은 HotSkuLanes 의 단일 writer 레인으로 간다.
+ * - 주기적으로 hot SKU 를 다시 재서 합이 demoteThreshold 미만이면 강등한다. (두 기준의 차이로 승격/강등이 반복되는 것을 막는다)
+ *
+ * 진행 중 주문 수는 상품마다 맵 항목을 만들지 않도록 재고 id 를 고정 크기 배열로 접어서 센다.
+ * 승격/강등 횟수와 현재 hot SKU 별 경합량은 practice.order.hot_sku.* 미터로 내보낸다.
+ */
+@Slf4j
+@Component
+public class HotSkuDetector {
+
+    private static final int SLOTS = 10;
+    private static final int SKETCH_WIDTH = 2048;
+    private static final int IN_FLIGHT_STRIPES = 4096;
+
+    private final MeterRegistry meterRegistry;
+    private final long promoteThreshold;
+    private final long demoteThreshold;
+    private volatile boolean enabled;
+
+    private final ContentionSketch sketch = new ContentionSketch(SLOTS, SKETCH_WIDTH);
+    private final AtomicIntegerArray inFlight = new AtomicIntegerArray(IN_FLIGHT_STRIPES);
+    private final Map<Long, Meter> hotSkus = new ConcurrentHashMap<>();
+    private final Counter promotions;
+    private final Counter demotions;
+    private final ScheduledExecutorService rotator;
+
+    public HotSkuDetector(MeterRegistry meterRegistry, OrderProperties orderProperties) {
+        OrderProperties.HotSku hotSku = orderProperties.hotSku();
+        this.meterRegistry = meterRegistry;
+        this.enabled = hotSku.enabled();
+        this.promoteThreshold = hotSku.promoteThreshold();
+        this.demoteThreshold = hotSku.demoteThreshold();
+
+        this.promotions = Counter.builder("practice.order.hot_sku.transitions")
+                .tag("direction", "promoted")
+                .register(meterRegistry);
+        this.demotions = Counter.builder("practice.order.hot_sku.transitions")
+                .tag("direction", "demoted")
+                .register(meterRegistry);
+        Gauge.builder("practice.order.hot_sku.active", hotSkus, Map::size)
+                .description("Inventories currently routed to the single-writer lanes")
+                .register(meterRegistry);
+
+        this.rotator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-sku-rotator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long slotMillis = Math.max(1, hotSku.window().toMillis() / SLOTS);
+        rotator.scheduleAtFixedRate(this::rotate, slotMillis, slotMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 실행 중에 감지와 레인 전환을 끄거나 켭니다. 끄면 모든 hot SKU 가 강등됩니다.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            hotSkus.keySet().forEach(this::demote);
+        }
+    }
+
+    /**
+     * 주문 처리를 시작할 때 호출합니다. 반드시 exit(inventoryId) 와 짝을 이뤄야 합니다.
+     */
+    public void enter(Long inventoryId) {
+        int waiting = inFlight.getAndIncrement(stripe(inventoryId));
+        if (waiting > 0) {
+            sketch.add(inventoryId, waiting);
+            if (enabled && !hotSkus.containsKey(inventoryId) && sketch.estimate(inventoryId) >= promoteThreshold) {
+                promote(inventoryId);
+            }
+        }
+    }
+
+    public void exit(Long inventoryId) {
+        inFlight.decrementAndGet(stripe(inventoryId));
+    }
+
+    public boolean isHot(Long inventoryId) {
+        return hotSkus.containsKey(inventoryId);
+    }
+
+    /**
+     * 현재 레인으로 보내고 있는 재고 id
+     */
+    public Set<Long> hotSkus() {
+        return Set.copyOf(hotSkus.keySet());
+    }
+
+    /**
+     * 최근 window 동안 쌓인 경합량 추정값
+     */
+    public long contention(Long inventoryId) {
+        return sketch.estimate(inventoryId);
+    }
+
+    public long promotions() {
+        return (long) promotions.count();
+    }
+
+    public long demotions() {
+        return (long) demotions.count();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rotator.shutdownNow();
+    }
+
+    private void promote(Long inventoryId) {
+        hotSkus.computeIfAbsent(inventoryId, id -> {
+            promotions.increment();
+            log.info("hot SKU promoted: inventoryId={}, contention={}", id, sketch.estimate(id));
+            // hot SKU 는 손에 꼽을 만큼이라 상품별 태그를 붙여도 시계열 수가 늘지 않는다. 강등되면 미터도 지운다.
+            return Gauge.builder("practice.order.hot_sku.contention", () -> sketch.estimate(id))
+                    .tag("inventory.id", String.valueOf(id))
+                    .register(meterRegistry);
+        });
+    }
+
+    private void demote(Long inventoryId) {
+        Meter meter = hotSkus.remove(inventoryId);
+        if (meter != null) {
+            meterRegistry.remove(meter);
+            demotions.increment();
+            log.info("hot SKU demoted: inventoryId={}, contention={}", inventoryId, sketch.estimate(inventoryId));
+        }
+    }
+
+    private void rotate() {
+        sketch.rotate();
+        for (Long inventoryId : hotSkus.keySet()) {
+            if (sketch.estimate(inventoryId) < demoteThreshold) {
+                demote(inventoryId);
+            }
+        }
+    }
+
+    private static int stripe(Long inventoryId) {
+        long hash = inventoryId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (Long.SIZE - Integer.numberOfTrailingZeros(IN_FLIGHT_STRIPES)));
+    }
+}
@@ -0,0 +1,119 @@
+package concurrency.practice.hotsku;
+
+import concurrency.practice.config.OrderProperties;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * hot SKU 주문을 순서대로 처리하는 단일 writer 레인
+ *
+ * 레인마다 스레드가 하나뿐이고 같은 재고 id 는 항상 같은 레인으로 가므로, hot SKU 의 주문은 한 번에 하나씩만 DB에 닿는다.
+ * - 수천 개의 호출이 각자 커넥션을 잡고 같은 행 잠금 앞에서 기다리는 대신, 레인 큐에 들어가 future 를 받고 바로 돌아간다.
+ *   호출자는 커넥션 허가증도 진입 허가증도 쥐지 않은 채 future 를 기다린다.
+ * - 레인 안에서는 같은 행을 두고 경쟁하는 트랜잭션이 없으므로 잠금 대기 없이 차감한다.
+ * 따라서 hot SKU 가 쓰는 커넥션은 레인 수를 넘지 않고, 나머지 풀은 일반 상품 주문이 쓴다.
+ *
+ * 승격 직전에 일반 경로로 들어간 주문은 여전히 행 잠금을 두고 레인과 경쟁한다. 이를 막기 위해 일반 경로 주문은 runDirect 로 세고,
+ * 레인은 주문을 처리하기 전에 같은 상품의 일반 경로 주문이 모두 끝나기를 (최대 FENCE_TIMEOUT 동안) 기다린다.
+ * 일반 경로 주문 수는 상품마다 맵 항목을 만들지 않도록 재고 id 를 고정 크기 배열로 접어서 세므로,
+ * 같은 칸을 쓰는 다른 상품의 주문도 기다릴 수 있다. 기다림은 경합을 줄이기 위한 것일 뿐이고 재고의 정확성은 행 잠금이 지킨다.
+ */
+@Component
+public class HotSkuLanes {
+
+    private static final int DIRECT_STRIPES = 4096;
+    private static final long FENCE_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FENCE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final ExecutorService[] lanes;
+    private final AtomicIntegerArray directOrders = new AtomicIntegerArray(DIRECT_STRIPES);
+    private final LongAdder executed = new LongAdder();
+
+    public HotSkuLanes(OrderProperties orderProperties) {
+        int laneCount = orderProperties.hotSku().lanes();
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = "hot-sku-lane-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * inventoryId 의 레인 큐에 action 을 넣고 바로 돌아갑니다. action 이 던진 예외로 future 가 실패합니다.
+     */
+    public <T> CompletableFuture<T> submit(Long inventoryId, Supplier<T> action) {
+        ExecutorService lane = lanes[(int) Math.floorMod(inventoryId, (long) lanes.length)];
+        return CompletableFuture.supplyAsync(() -> {
+            awaitDirectOrders(inventoryId);
+            executed.increment();
+            return action.get();
+        }, lane);
+    }
+
+    /**
+     * 레인을 거치지 않는 주문을 호출한 스레드에서 실행합니다. 실행하는 동안 같은 상품의 레인은 이 주문이 끝나기를 기다린다.
+     */
+    public <T> T runDirect(Long inventoryId, Supplier<T> action) {
+        int stripe = stripe(inventoryId);
+        directOrders.incrementAndGet(stripe);
+        try {
+            return action.get();
+        } finally {
+            directOrders.decrementAndGet(stripe);
+        }
+    }
+
+    /**
+     * 레인에서 처리한 주문 수
+     */
+    public long executed() {
+        return executed.sum();
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    private void awaitDirectOrders(Long inventoryId) {
+        int stripe = stripe(inventoryId);
+        if (directOrders.get(stripe) == 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + FENCE_TIMEOUT_NANOS;
+        while (directOrders.get(stripe) > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(FENCE_PARK_NANOS);
+        }
+    }
+
+    private static int stripe(Long inventoryId) {
+        long hash = inventoryId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (Long.SIZE - Integer.numberOfTrailingZeros(DIRECT_STRIPES)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            try {
+                lane.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package concurrency.practice.ledger;
+
+/**
+ * 메모리에서 확정된 재고 예약 한 건
+ *
+ * @param sequence    저널에 기록된 순번 (단조 증가)
+ * @param inventoryId 예약한 재고 id
+ * @param quantity    예약 수량
+ */
+public record Reservation(long sequence, long inventoryId, int quantity) {
+}
@@ -0,0 +1,119 @@
+package concurrency.practice.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 예약을 파일 끝에 순서대로 덧붙이는 저널 (write-ahead log)
+ *
+ * 레코드는 [sequence(8) | inventoryId(8) | quantity(4)] 고정 20바이트이며,
+ * 프로세스가 레코드를 쓰다가 죽어 꼬리에 남은 불완전한 레코드는 읽을 때 무시한다.
+ * 스레드 안전하지 않으므로 호출자가 동기화해야 한다.
+ */
+public class ReservationJournal implements AutoCloseable {
+
+    static final int RECORD_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE);
+
+    /**
+     * @param path  저널 파일 경로 (없으면 생성)
+     * @param fsync true 면 기록마다 디스크까지 강제로 내린다.
+     *              false 면 OS 페이지 캐시까지만 쓰므로 프로세스 장애에는 안전하지만 OS 장애에는 유실될 수 있다.
+     */
+    public ReservationJournal(Path path, boolean fsync) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.channel.position(validLength());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.fsync = fsync;
+    }
+
+    public void append(Reservation reservation) {
+        buffer.clear();
+        buffer.putLong(reservation.sequence())
+                .putLong(reservation.inventoryId())
+                .putInt(reservation.quantity())
+                .flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 저널에 남아 있는 모든 완전한 레코드를 순서대로 읽습니다.
+     */
+    public List<Reservation> readAll() {
+        List<Reservation> reservations = new ArrayList<>();
+        ByteBuffer readBuffer = ByteBuffer.allocate(RECORD_SIZE * 1024);
+        try {
+            long position = 0;
+            long length = validLength();
+            while (position < length) {
+                readBuffer.clear();
+                readBuffer.limit((int) Math.min(readBuffer.capacity(), length - position));
+                if (channel.read(readBuffer, position) < 0) {
+                    break;
+                }
+                readBuffer.flip();
+                while (readBuffer.remaining() >= RECORD_SIZE) {
+                    reservations.add(new Reservation(readBuffer.getLong(), readBuffer.getLong(), readBuffer.getInt()));
+                }
+                // 짧게 읽혀 레코드 중간에서 끊긴 경우 다음 읽기는 그 레코드의 시작부터 다시 한다.
+                position += readBuffer.position();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return reservations;
+    }
+
+    /**
+     * 모든 기록이 DB에 반영되었을 때 저널을 비웁니다.
+     */
+    public void truncate() {
+        try {
+            channel.truncate(0);
+            channel.position(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long validLength() throws IOException {
+        long size = channel.size();
+        return size - (size % RECORD_SIZE);
+    }
+}
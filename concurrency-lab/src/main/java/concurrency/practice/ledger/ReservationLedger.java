@@ -0,0 +1,420 @@
+package concurrency.practice.ledger;
+
+import static concurrency.practice.exception.PracticeErrorCode.INVENTORY_NOT_FOUND;
+import static concurrency.practice.exception.PracticeErrorCode.OUT_OF_STOCK;
+
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.domain.LedgerCheckpoint;
+import concurrency.practice.domain.ProductOrder;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.outbox.OrderEventRecorder;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.LedgerCheckpointRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.sales.InventorySalesRecorder;
+import concurrency.practice.stock.StockDeltaBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 메모리 예약 원장 + 비동기 write-behind
+ *
+ * 1. 주문은 재고별 AtomicLong 카운터를 CAS 로 차감하는 것만으로 성공/재고 부족이 결정된다. (DB 왕복 없음)
+ * 2. 성공한 예약은 저널 파일에 덧붙인 뒤 대기열에 쌓인다.
+ * 3. 백그라운드 writer 가 대기열을 묶음 단위로 꺼내 주문 INSERT, 재고 차감, 체크포인트 갱신을 한 트랜잭션으로 반영한다.
+ * 4. 재시작 시 카운터는 "DB 재고 - 체크포인트 이후 저널에 남은 예약"으로 다시 만들어지고, 남은 예약은 다시 반영된다.
+ *
+ * 카운터의 "DB 재고"에는 입고 버퍼(StockDeltaBuffer)에 쌓여 아직 재고 행에 반영되지 않은 입고분도 들어간다.
+ * 반영할 때 재고 행이 모자라면 버퍼의 입고분을 같은 트랜잭션에서 행에 더해 쓴다.
+ *
+ * 입고, 취소, 다른 전략의 주문처럼 원장 밖에서 커밋된 재고 변경은 InventoryCache 의 재고 변경 리스너(stockChanged)로 전달된다.
+ * 그 상품의 카운터는 다음 예약 때 같은 식("DB 재고 - 반영되지 않은 예약")으로 다시 만들어진다.
+ * 다만 원장 밖의 차감이 커밋되고 카운터가 다시 만들어지기 전에 받은 예약은 DB 재고를 넘을 수 있다.
+ * 반영할 때 재고 행이 묶음의 예약을 다 받지 못하면, 행을 잠그고 순번 순서대로 남은 재고만큼만 주문으로 저장한다.
+ * 나머지 예약은 거절(rejectedReservations)로 세고 체크포인트를 넘겨, 같은 묶음이 writer 를 계속 막지 않게 한다.
+ */
+@Slf4j
+public class ReservationLedger {
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductOrderRepository productOrderRepository;
+    private final LedgerCheckpointRepository ledgerCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryCache inventoryCache;
+    private final OrderEventRecorder orderEventRecorder;
+    private final InventorySalesRecorder inventorySalesRecorder;
+    private final StockDeltaBuffer stockDeltaBuffer;
+    private final ReservationJournal journal;
+    private final int batchSize;
+
+    private final Map<Long, AtomicLong> available = new ConcurrentHashMap<>();
+    // 원장 밖에서 재고가 바뀌어 카운터를 다시 만들어야 하는 상품
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+    private final LongAdder rejectedReservations = new LongAdder();
+
+    // 순번 발급, 저널 기록, 대기열 추가를 같은 순서로 묶기 위한 잠금. 대기열은 항상 순번 순서를 유지한다.
+    private final Object appendLock = new Object();
+    private final Queue<Reservation> pending = new ArrayDeque<>();
+    private long lastSequence;
+    private long lastFlushedSequence;
+
+    // 반영에 실패한 묶음. 다음 반영 때 새 예약보다 먼저 다시 시도한다.
+    private volatile List<Reservation> retryBatch = List.of();
+
+    private ScheduledExecutorService writer;
+
+    public ReservationLedger(InventoryRepository inventoryRepository,
+                             ProductOrderRepository productOrderRepository,
+                             LedgerCheckpointRepository ledgerCheckpointRepository,
+                             TransactionTemplate transactionTemplate,
+                             InventoryCache inventoryCache,
+                             OrderEventRecorder orderEventRecorder,
+                             InventorySalesRecorder inventorySalesRecorder,
+                             StockDeltaBuffer stockDeltaBuffer,
+                             ReservationJournal journal,
+                             int batchSize) {
+        this.inventoryRepository = inventoryRepository;
+        this.productOrderRepository = productOrderRepository;
+        this.ledgerCheckpointRepository = ledgerCheckpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.inventoryCache = inventoryCache;
+        this.orderEventRecorder = orderEventRecorder;
+        this.inventorySalesRecorder = inventorySalesRecorder;
+        this.stockDeltaBuffer = stockDeltaBuffer;
+        this.journal = journal;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 체크포인트와 저널로부터 원장을 복구하고 백그라운드 writer 를 시작합니다.
+     */
+    public void start(Duration flushInterval) {
+        recover();
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-ledger-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushAllQuietly,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * writer 를 멈추고 남은 예약을 모두 DB에 반영한 뒤 저널을 닫습니다.
+     */
+    public void stop() {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushAll();
+        journal.close();
+    }
+
+    /**
+     * DB에 아직 반영되지 않은 예약을 저널에서 읽어 카운터와 대기열을 다시 만듭니다.
+     */
+    public void recover() {
+        long checkpoint = ledgerCheckpointRepository.findById(LedgerCheckpoint.SINGLETON_ID)
+                .map(LedgerCheckpoint::getLastFlushedSequence)
+                .orElse(0L);
+
+        Map<Long, Long> outstanding = new LinkedHashMap<>();
+        synchronized (appendLock) {
+            available.clear();
+            stale.clear();
+            pending.clear();
+            lastSequence = checkpoint;
+            lastFlushedSequence = checkpoint;
+            for (Reservation reservation : journal.readAll()) {
+                lastSequence = Math.max(lastSequence, reservation.sequence());
+                if (reservation.sequence() > checkpoint) {
+                    pending.add(reservation);
+                    outstanding.merge(reservation.inventoryId(), (long) reservation.quantity(), Long::sum);
+                }
+            }
+            outstanding.forEach((inventoryId, reserved) ->
+                    available.put(inventoryId, new AtomicLong(loadStock(inventoryId) - reserved)));
+        }
+        log.info("reservation ledger recovered: checkpoint={}, unflushed={}", checkpoint, pending.size());
+    }
+
+    /**
+     * 메모리 카운터에서 재고를 예약합니다. DB 왕복 없이 성공 또는 OUT_OF_STOCK 이 결정됩니다.
+     *
+     * @return 예약 순번 (주문 id 는 DB 반영 시점에 발급된다)
+     */
+    public long reserve(Long inventoryId, int quantity) {
+        while (true) {
+            if (stale.contains(inventoryId)) {
+                reseed(inventoryId);
+            }
+            AtomicLong counter = counter(inventoryId);
+            take(counter, quantity);
+
+            synchronized (appendLock) {
+                // 차감한 사이에 카운터가 바뀌었다면(reseed, recover) 새 카운터는 이 예약을 모른다.
+                // 버려진 카운터의 차감은 그대로 두고 새 카운터에서 다시 차감한다.
+                if (available.get(inventoryId) == counter) {
+                    Reservation reservation = new Reservation(++lastSequence, inventoryId, quantity);
+                    journal.append(reservation);
+                    pending.add(reservation);
+                    return reservation.sequence();
+                }
+            }
+        }
+    }
+
+    /**
+     * 원장 밖에서 커밋된 재고 변경을 알립니다. 다음 예약 때 그 상품의 카운터를 DB와 다시 맞춘다.
+     * 커밋한 스레드에서 불리므로 표시만 하고 DB는 읽지 않는다.
+     */
+    public void stockChanged(Long inventoryId) {
+        if (available.containsKey(inventoryId)) {
+            stale.add(inventoryId);
+        }
+    }
+
+    /**
+     * 메모리 기준 예약 가능 재고. 아직 DB에 반영되지 않은 예약도 차감된 값입니다.
+     */
+    public long available(Long inventoryId) {
+        if (stale.contains(inventoryId)) {
+            reseed(inventoryId);
+        }
+        AtomicLong counter = available.get(inventoryId);
+        return counter == null ? loadStock(inventoryId) : counter.get();
+    }
+
+    /**
+     * 대기열에서 최대 batchSize 건을 꺼내 한 트랜잭션으로 DB에 반영합니다.
+     *
+     * @return 반영한 예약 수
+     */
+    public synchronized int flush() {
+        List<Reservation> batch = retryBatch.isEmpty() ? drainBatch() : retryBatch;
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        retryBatch = batch;
+        transactionTemplate.executeWithoutResult(status -> write(batch));
+        retryBatch = List.of();
+
+        long flushedSequence = batch.get(batch.size() - 1).sequence();
+        synchronized (appendLock) {
+            lastFlushedSequence = flushedSequence;
+            // 반영되지 않은 예약이 하나도 없으면 저널을 비워 파일이 계속 커지지 않게 한다.
+            if (lastFlushedSequence == lastSequence) {
+                journal.truncate();
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * 대기열이 빌 때까지 반영합니다.
+     */
+    public void flushAll() {
+        while (flush() > 0) {
+            // 반복
+        }
+    }
+
+    /**
+     * 카운터는 받았지만 재고 행이 모자라 주문으로 저장하지 못한 예약 수
+     */
+    public long rejectedReservations() {
+        return rejectedReservations.sum();
+    }
+
+    public int pendingCount() {
+        synchronized (appendLock) {
+            return pending.size() + retryBatch.size();
+        }
+    }
+
+    private void flushAllQuietly() {
+        try {
+            flushAll();
+        } catch (RuntimeException e) {
+            // 실패한 묶음은 retryBatch 에 남아 다음 주기에 다시 반영된다.
+            log.warn("reservation ledger flush failed, will retry", e);
+        }
+    }
+
+    /**
+     * 카운터를 "DB 재고 - 반영되지 않은 예약"으로 바꿔 끼웁니다.
+     * flush 와 같은 잠금을 쥐므로, 읽는 DB 재고와 반영되지 않은 예약(대기열 + retryBatch) 사이에 반영 중인 묶음이 없다.
+     */
+    private synchronized void reseed(Long inventoryId) {
+        // DB를 읽기 전에 지운다. 읽은 뒤에 커밋된 변경은 다시 표시된다.
+        if (!stale.remove(inventoryId)) {
+            return;
+        }
+        long stock = loadStock(inventoryId);
+        synchronized (appendLock) {
+            long reserved = 0;
+            for (Reservation reservation : retryBatch) {
+                reserved += reservation.inventoryId() == inventoryId ? reservation.quantity() : 0;
+            }
+            for (Reservation reservation : pending) {
+                reserved += reservation.inventoryId() == inventoryId ? reservation.quantity() : 0;
+            }
+            available.put(inventoryId, new AtomicLong(stock - reserved));
+        }
+    }
+
+    /**
+     * 상품의 카운터. 없으면 DB 재고로 만든다. DB는 appendLock 밖에서 읽고, 동시에 만든 카운터가 있으면 그것을 쓴다.
+     */
+    private AtomicLong counter(Long inventoryId) {
+        AtomicLong counter = available.get(inventoryId);
+        if (counter != null) {
+            return counter;
+        }
+        AtomicLong loaded = new AtomicLong(loadStock(inventoryId));
+        AtomicLong raced = available.putIfAbsent(inventoryId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    /**
+     * lock-free CAS 루프: 재고가 충분할 때만 차감한다.
+     */
+    private static void take(AtomicLong counter, int quantity) {
+        long current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                throw new PracticeException(OUT_OF_STOCK);
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+    }
+
+    private List<Reservation> drainBatch() {
+        synchronized (appendLock) {
+            List<Reservation> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            while (batch.size() < batchSize && !pending.isEmpty()) {
+                batch.add(pending.poll());
+            }
+            return batch;
+        }
+    }
+
+    private void write(List<Reservation> batch) {
+        LedgerCheckpoint checkpoint = ledgerCheckpointRepository.findById(LedgerCheckpoint.SINGLETON_ID)
+                .orElseGet(() -> new LedgerCheckpoint(0));
+
+        // 커밋 결과를 모른 채 실패한 묶음을 다시 반영하는 중일 수 있다.
+        // 체크포인트는 주문 INSERT 와 같은 트랜잭션에서 바뀌므로, 순번이 체크포인트 이하인 예약은 이미 저장된 것이다.
+        // TreeMap 이므로 재고 행은 id 오름차순으로 잠긴다.
+        Map<Long, List<Reservation>> reservationsByInventory = new TreeMap<>();
+        for (Reservation reservation : batch) {
+            if (reservation.sequence() > checkpoint.getLastFlushedSequence()) {
+                reservationsByInventory.computeIfAbsent(reservation.inventoryId(), id -> new ArrayList<>())
+                        .add(reservation);
+            }
+        }
+        if (reservationsByInventory.isEmpty()) {
+            log.info("reservation batch up to {} was already flushed, skipping", batch.get(batch.size() - 1).sequence());
+            return;
+        }
+
+        // 같은 재고에 대한 예약은 합쳐서 재고 행마다 UPDATE 한 번으로 반영한다.
+        List<ProductOrder> orders = new ArrayList<>(batch.size());
+        List<Reservation> rejected = new ArrayList<>();
+        reservationsByInventory.forEach((inventoryId, reservations) -> {
+            long reserved = reservations.stream().mapToLong(Reservation::quantity).sum();
+            List<Reservation> accepted = stockDeltaBuffer.decreaseStock(inventoryId, reserved) == 1
+                    ? reservations
+                    : acceptWithinStock(inventoryId, reservations, rejected);
+            for (Reservation reservation : accepted) {
+                orders.add(new ProductOrder(reservation.inventoryId(), reservation.quantity()));
+            }
+        });
+        if (!orders.isEmpty()) {
+            List<ProductOrder> saved = productOrderRepository.saveAll(orders);
+            orderEventRecorder.ordersCreated(saved);
+            inventorySalesRecorder.ordersCreated(saved);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // 원장 자신의 차감은 카운터에 이미 들어 있으므로, 재고 변경 리스너를 거치지 않고 캐시만 비운다.
+                if (inventoryCache.isEnabled()) {
+                    reservationsByInventory.keySet().forEach(inventoryCache::invalidate);
+                }
+                if (!rejected.isEmpty()) {
+                    rejectedReservations.add(rejected.size());
+                    // 거절한 예약만큼 카운터가 DB보다 적다. 다음 예약 때 DB 재고로 다시 맞춘다.
+                    rejected.forEach(reservation -> stale.add(reservation.inventoryId()));
+                    log.warn("rejected {} reservations the inventory rows could not cover: {}", rejected.size(), rejected);
+                }
+            }
+        });
+
+        checkpoint.advanceTo(batch.get(batch.size() - 1).sequence());
+        ledgerCheckpointRepository.save(checkpoint);
+    }
+
+    /**
+     * 재고 행이 카운터가 받은 예약을 다 받지 못할 때, 행을 잠그고 순번 순서대로 남은 재고에 들어가는 예약만 받습니다.
+     * 원장 밖의 차감이 카운터를 다시 맞추기 전에 커밋된 경우다. 받지 못한 예약은 rejected 에 더한다.
+     *
+     * @return 주문으로 저장할 예약
+     */
+    private List<Reservation> acceptWithinStock(Long inventoryId, List<Reservation> reservations,
+                                                List<Reservation> rejected) {
+        Optional<Inventory> inventory = inventoryRepository.findByIdWithPessimisticLock(inventoryId);
+        inventory.ifPresent(stockDeltaBuffer::topUp);
+        long stock = inventory.map(Inventory::getStock).orElse(0L);
+        List<Reservation> accepted = new ArrayList<>(reservations.size());
+        long taken = 0;
+        for (Reservation reservation : reservations) {
+            if (taken + reservation.quantity() <= stock) {
+                accepted.add(reservation);
+                taken += reservation.quantity();
+            } else {
+                rejected.add(reservation);
+            }
+        }
+        if (taken > 0) {
+            inventory.get().decrease(taken);
+        }
+        return accepted;
+    }
+
+    /**
+     * 재고 행 + 입고 버퍼의 입고분. 행을 먼저 읽는다.
+     * 그 사이 버퍼가 행에 반영되면 그 양을 세지 못하지만(두 번 세지는 않는다), 반영의 커밋 훅이 카운터를 다시 맞추게 한다.
+     */
+    private long loadStock(Long inventoryId) {
+        long stock = inventoryRepository.findById(inventoryId)
+                .map(Inventory::getStock)
+                .orElseThrow(() -> new PracticeException(INVENTORY_NOT_FOUND));
+        return stock + stockDeltaBuffer.pending(inventoryId);
+    }
+}
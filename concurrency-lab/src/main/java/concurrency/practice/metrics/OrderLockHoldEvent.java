@@ -0,0 +1,26 @@
+package concurrency.practice.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 재고 행 잠금을 얻은 뒤 트랜잭션이 끝나 잠금이 풀리기까지의 구간 (JFR 사용자 정의 이벤트)
+ */
+@Name("concurrency.practice.OrderLockHold")
+@Label("Order Lock Hold")
+@Category({"Concurrency Practice", "Order"})
+@Description("Time the inventory row lock was held until the transaction completed")
+class OrderLockHoldEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Inventory Id")
+    long inventoryId;
+
+    @Label("Committed")
+    boolean committed;
+}
@@ -0,0 +1,26 @@
+package concurrency.practice.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 재고 행 잠금을 얻기까지 기다린 구간 (JFR 사용자 정의 이벤트)
+ *
+ * JFR 기록 중에만 비용이 들고, 꺼져 있으면 begin/commit 은 JIT 에 의해 사실상 제거된다.
+ * jcmd <pid> JFR.start 로 기록한 뒤 JDK Mission Control 의 이벤트 브라우저에서 스레드별로 볼 수 있다.
+ */
+@Name("concurrency.practice.OrderLockWait")
+@Label("Order Lock Wait")
+@Category({"Concurrency Practice", "Order"})
+@Description("Time spent waiting for the inventory row lock")
+class OrderLockWaitEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Inventory Id")
+    long inventoryId;
+}
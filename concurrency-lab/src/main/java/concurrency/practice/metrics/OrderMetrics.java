@@ -0,0 +1,167 @@
+package concurrency.practice.metrics;
+
+import concurrency.practice.config.OrderProperties;
+import concurrency.practice.exception.PracticeErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 주문 처리 핫패스 계측
+ *
+ * - practice.order.lock.wait : 재고 행 잠금을 얻기까지 기다린 시간 (비관적 락 조회, 조건부/버전 UPDATE)
+ * - practice.order.lock.hold : 잠금을 얻은 뒤 트랜잭션이 끝나기까지의 시간 (= 다른 주문이 기다려야 하는 시간)
+ * - practice.order.rows.written : 커밋된 주문 INSERT 와 재고 UPDATE 행 수
+ * - practice.order.failures : OUT_OF_STOCK, OPTIMISTIC_LOCK_CONFLICT 등 실패 코드별 횟수.
+ *   DB에 가기 전에 InventoryAdmission 이 거절한 주문은 operation=ADMISSION 으로 센다
+ *
+ * 타이머는 Micrometer 의 HdrHistogram 기반 분위수(p50/p99/p99.9)를 내보내며, Actuator 의 /actuator/metrics 로 조회한다.
+ * 같은 구간은 JFR 이벤트(OrderLockWaitEvent, OrderLockHoldEvent)로도 남는다.
+ *
+ * 태그 수가 상품 수만큼 늘어나지 않도록 재고 id 는 inventoryBuckets 개의 구간으로 접어서 태그한다.
+ * 미터는 처음 한 번만 레지스트리에서 만들고 이후에는 구간별 배열에서 바로 꺼내 쓴다.
+ */
+@Component
+public class OrderMetrics {
+
+    private static final LockWait NOOP = new LockWait(null, null, null, 0L, null);
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int buckets;
+
+    private final Map<String, AtomicReferenceArray<Timer>> lockWaitTimers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicReferenceArray<Timer>> lockHoldTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rowsWritten = new ConcurrentHashMap<>();
+    private final Map<String, Counter> failures = new ConcurrentHashMap<>();
+
+    public OrderMetrics(MeterRegistry meterRegistry, OrderProperties orderProperties) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = orderProperties.metrics().enabled();
+        this.buckets = orderProperties.metrics().inventoryBuckets();
+    }
+
+    /**
+     * 잠금 대기 구간을 시작합니다. 잠금을 얻은 직후 반환값의 acquired() 를 호출해야 합니다.
+     *
+     * @param operation 재고 차감 전략 이름 등 잠금을 잡는 작업의 이름
+     */
+    public LockWait startLockWait(String operation, Long inventoryId) {
+        if (!enabled) {
+            return NOOP;
+        }
+        OrderLockWaitEvent event = new OrderLockWaitEvent();
+        event.begin();
+        return new LockWait(this, event, inventoryId, System.nanoTime(), operation);
+    }
+
+    public void recordRowsWritten(String operation, int rows) {
+        if (enabled) {
+            rowsWritten.computeIfAbsent(operation, op -> Counter.builder("practice.order.rows.written")
+                    .description("Rows inserted or updated by committed order transactions")
+                    .tag("operation", op)
+                    .register(meterRegistry)).increment(rows);
+        }
+    }
+
+    public void recordFailure(String operation, PracticeErrorCode errorCode) {
+        if (enabled) {
+            failures.computeIfAbsent(operation + ':' + errorCode.name(), key -> Counter.builder("practice.order.failures")
+                    .description("Order operations that ended with a practice error code")
+                    .tag("operation", operation)
+                    .tag("code", errorCode.name())
+                    .register(meterRegistry)).increment();
+        }
+    }
+
+    private void lockAcquired(LockWait lockWait) {
+        long acquiredAt = System.nanoTime();
+        int bucket = bucket(lockWait.inventoryId);
+        timer(lockWaitTimers, "practice.order.lock.wait", lockWait.operation, bucket)
+                .record(acquiredAt - lockWait.startedAt, TimeUnit.NANOSECONDS);
+        lockWait.event.operation = lockWait.operation;
+        lockWait.event.inventoryId = lockWait.inventoryId == null ? -1 : lockWait.inventoryId;
+        lockWait.event.commit();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new LockHold(timer(lockHoldTimers, "practice.order.lock.hold", lockWait.operation, bucket),
+                            lockWait.operation, lockWait.event.inventoryId, acquiredAt));
+        }
+    }
+
+    private Timer timer(Map<String, AtomicReferenceArray<Timer>> timers, String name, String operation, int bucket) {
+        AtomicReferenceArray<Timer> byBucket = timers.computeIfAbsent(operation, op -> new AtomicReferenceArray<>(buckets));
+        Timer timer = byBucket.get(bucket);
+        if (timer == null) {
+            // 같은 태그로 여러 번 등록해도 레지스트리는 같은 미터를 돌려주므로 경합 시 중복 생성은 무해하다.
+            timer = Timer.builder(name)
+                    .tag("operation", operation)
+                    .tag("inventory.bucket", String.valueOf(bucket))
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .register(meterRegistry);
+            byBucket.set(bucket, timer);
+        }
+        return timer;
+    }
+
+    private int bucket(Long inventoryId) {
+        return inventoryId == null ? 0 : (int) Math.floorMod(inventoryId, (long) buckets);
+    }
+
+    /**
+     * 잠금 대기 구간. 잠금을 얻으면 acquired() 로 끝내고, 이후 트랜잭션이 끝날 때까지를 보유 시간으로 잰다.
+     */
+    public static final class LockWait {
+
+        private final OrderMetrics metrics;
+        private final OrderLockWaitEvent event;
+        private final Long inventoryId;
+        private final long startedAt;
+        private final String operation;
+
+        private LockWait(OrderMetrics metrics, OrderLockWaitEvent event, Long inventoryId, long startedAt,
+                         String operation) {
+            this.metrics = metrics;
+            this.event = event;
+            this.inventoryId = inventoryId;
+            this.startedAt = startedAt;
+            this.operation = operation;
+        }
+
+        public void acquired() {
+            if (metrics != null) {
+                metrics.lockAcquired(this);
+            }
+        }
+    }
+
+    private static final class LockHold implements TransactionSynchronization {
+
+        private final Timer timer;
+        private final OrderLockHoldEvent event = new OrderLockHoldEvent();
+        private final long acquiredAt;
+
+        private LockHold(Timer timer, String operation, long inventoryId, long acquiredAt) {
+            this.timer = timer;
+            this.acquiredAt = acquiredAt;
+            event.operation = operation;
+            event.inventoryId = inventoryId;
+            event.begin();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            timer.record(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+            event.committed = status == STATUS_COMMITTED;
+            event.commit();
+        }
+    }
+}
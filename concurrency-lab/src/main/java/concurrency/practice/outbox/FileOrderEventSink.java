@@ -0,0 +1,64 @@
+package concurrency.practice.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 이벤트를 한 줄에 하나씩 JSON(NDJSON)으로 파일 끝에 덧붙이는 싱크 (브로커 대용)
+ *
+ * 묶음 하나를 한 번의 write 로 내보내고, 돌아오기 전에 디스크까지 내린다.
+ */
+public class FileOrderEventSink implements OrderEventSink, AutoCloseable {
+
+    private final FileChannel channel;
+
+    public FileOrderEventSink(Path path) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void publish(List<OrderEvent> events) {
+        StringBuilder lines = new StringBuilder(events.size() * 128);
+        for (OrderEvent event : events) {
+            lines.append("{\"eventId\":").append(event.eventId())
+                    .append(",\"eventType\":\"").append(event.eventType()).append('"')
+                    .append(",\"orderId\":").append(event.orderId())
+                    .append(",\"inventoryId\":").append(event.inventoryId())
+                    .append(",\"quantity\":").append(event.quantity())
+                    .append(",\"occurredAt\":\"").append(event.occurredAt()).append("\"}\n");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
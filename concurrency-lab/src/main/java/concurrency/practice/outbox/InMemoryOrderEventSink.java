@@ -0,0 +1,25 @@
+package concurrency.practice.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 발행된 이벤트를 메모리에 쌓아 두는 싱크 (테스트와 로컬 실행용)
+ */
+public class InMemoryOrderEventSink implements OrderEventSink {
+
+    private final List<OrderEvent> published = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<OrderEvent> events) {
+        published.addAll(events);
+    }
+
+    public synchronized List<OrderEvent> published() {
+        return List.copyOf(published);
+    }
+
+    public synchronized void clear() {
+        published.clear();
+    }
+}
@@ -0,0 +1,24 @@
+package concurrency.practice.outbox;
+
+import concurrency.practice.domain.OrderEventType;
+import concurrency.practice.domain.OrderOutboxEvent;
+
+import java.time.Instant;
+
+/**
+ * 외부로 발행되는 주문 이벤트. eventId 는 아웃박스 행의 id 이므로 수신 측은 이것으로 중복을 거를 수 있다.
+ */
+public record OrderEvent(
+        Long eventId,
+        OrderEventType eventType,
+        Long orderId,
+        Long inventoryId,
+        int quantity,
+        Instant occurredAt
+) {
+
+    public static OrderEvent from(OrderOutboxEvent outboxEvent) {
+        return new OrderEvent(outboxEvent.getId(), outboxEvent.getEventType(), outboxEvent.getOrderId(),
+                outboxEvent.getInventoryId(), outboxEvent.getQuantity(), outboxEvent.getCreatedAt());
+    }
+}
@@ -0,0 +1,60 @@
+package concurrency.practice.outbox;
+
+import concurrency.practice.config.OutboxProperties;
+import concurrency.practice.domain.OrderEventType;
+import concurrency.practice.domain.OrderOutboxEvent;
+import concurrency.practice.domain.ProductOrder;
+import concurrency.practice.repository.OrderOutboxEventRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 주문 변경을 같은 트랜잭션의 아웃박스 행으로 기록한다.
+ *
+ * 외부 시스템 호출은 릴레이가 커밋 이후에 하므로, 주문 트랜잭션이 재고 행 잠금을 쥔 채 네트워크를 기다리는 일이 없다.
+ * 호출자의 트랜잭션 안에서 불려야 하며, practice.outbox.enabled=false 면 아무것도 기록하지 않는다.
+ */
+@Component
+public class OrderEventRecorder {
+
+    private final OrderOutboxEventRepository orderOutboxEventRepository;
+    private final boolean enabled;
+
+    public OrderEventRecorder(OrderOutboxEventRepository orderOutboxEventRepository,
+                              OutboxProperties outboxProperties) {
+        this.orderOutboxEventRepository = orderOutboxEventRepository;
+        this.enabled = outboxProperties.enabled();
+    }
+
+    public void orderCreated(Long orderId, Long inventoryId, int quantity) {
+        record(OrderEventType.ORDER_CREATED, orderId, inventoryId, quantity);
+    }
+
+    /**
+     * 묶음으로 저장된 주문들의 이벤트를 한 번에 기록합니다. 이벤트 INSERT 도 주문처럼 JDBC 배치로 묶인다.
+     */
+    public void ordersCreated(List<ProductOrder> orders) {
+        if (!enabled || orders.isEmpty()) {
+            return;
+        }
+        orderOutboxEventRepository.saveAll(orders.stream()
+                .map(order -> new OrderOutboxEvent(OrderEventType.ORDER_CREATED,
+                        order.getId(), order.getInventoryId(), order.getQuantity()))
+                .toList());
+    }
+
+    public void orderQuantityUpdated(Long orderId, Long inventoryId, int quantity) {
+        record(OrderEventType.ORDER_QUANTITY_UPDATED, orderId, inventoryId, quantity);
+    }
+
+    public void orderCancelled(Long orderId, Long inventoryId, int quantity) {
+        record(OrderEventType.ORDER_CANCELLED, orderId, inventoryId, quantity);
+    }
+
+    private void record(OrderEventType eventType, Long orderId, Long inventoryId, int quantity) {
+        if (enabled) {
+            orderOutboxEventRepository.save(new OrderOutboxEvent(eventType, orderId, inventoryId, quantity));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package concurrency.practice.outbox;
+
+import java.util.List;
+
+/**
+ * 주문 이벤트를 내보낼 곳 (메시지 브로커 등)
+ *
+ * publish 가 예외 없이 돌아오면 릴레이는 해당 아웃박스 행을 지운다.
+ * 예외가 나면 묶음 전체가 다음 주기에 다시 발행되므로, 구현은 같은 eventId 를 두 번 받아도 안전해야 한다.
+ */
+public interface OrderEventSink {
+
+    void publish(List<OrderEvent> events);
+}
@@ -0,0 +1,203 @@
+package concurrency.practice.outbox;
+
+import concurrency.practice.domain.OrderOutboxEvent;
+import concurrency.practice.repository.OrderOutboxEventRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 아웃박스 릴레이: 발행 대기 이벤트를 묶음으로 꺼내 싱크로 내보낸다.
+ *
+ * 워커는 한 트랜잭션 안에서
+ * 1. 오래된 이벤트를 batchSize 건까지 FOR UPDATE SKIP LOCKED 로 잠그고
+ * 2. 싱크로 발행한 뒤
+ * 3. 발행한 행을 지우고 커밋한다.
+ * 발행이 실패하면 트랜잭션이 롤백되어 행이 남고, 다음 주기에 다시 발행된다. (최소 한 번 전달)
+ * 잠긴 행은 다른 워커가 건너뛰므로 워커끼리 같은 이벤트를 동시에 발행하지 않는다.
+ *
+ * 계측: practice.outbox.published.events / published.batches / failed.batches 카운터와
+ * practice.outbox.lag (stat=last|max, ms) 게이지를 내보낸다.
+ */
+@Slf4j
+public class OutboxRelay {
+
+    private final OrderOutboxEventRepository orderOutboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderEventSink sink;
+    private final int workers;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+
+    private final LongAdder publishedEvents = new LongAdder();
+    private final LongAdder publishedBatches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    public OutboxRelay(OrderOutboxEventRepository orderOutboxEventRepository,
+                       TransactionTemplate transactionTemplate,
+                       OrderEventSink sink,
+                       MeterRegistry meterRegistry,
+                       int workers,
+                       int batchSize,
+                       Duration pollInterval) {
+        this.orderOutboxEventRepository = orderOutboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.sink = sink;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollInterval.toMillis();
+
+        FunctionCounter.builder("practice.outbox.published.events", publishedEvents, LongAdder::sum)
+                .description("Outbox events published to the sink")
+                .register(meterRegistry);
+        FunctionCounter.builder("practice.outbox.published.batches", publishedBatches, LongAdder::sum)
+                .description("Outbox batches published to the sink")
+                .register(meterRegistry);
+        FunctionCounter.builder("practice.outbox.failed.batches", failedBatches, LongAdder::sum)
+                .description("Outbox batches rolled back and left for the next poll")
+                .register(meterRegistry);
+        Gauge.builder("practice.outbox.lag", lastLagMillis, AtomicLong::get)
+                .description("Record-to-publish delay of the oldest event in the last batch")
+                .tag("stat", "last")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("practice.outbox.lag", maxLagMillis, AtomicLong::get)
+                .description("Largest record-to-publish delay seen so far")
+                .tag("stat", "max")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::runWorker);
+        }
+    }
+
+    /**
+     * 워커가 진행 중인 묶음을 마치면 멈춥니다. 발행되지 않은 이벤트는 아웃박스에 그대로 남는다.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 한 묶음을 잠그고 발행한 뒤 지웁니다.
+     *
+     * @return 발행한 이벤트 수 (0 이면 발행할 이벤트가 없거나 모두 다른 워커가 잠근 상태)
+     */
+    public int relayBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OrderOutboxEvent> claimed = orderOutboxEventRepository.claimBatch(batchSize);
+            if (claimed.isEmpty()) {
+                return 0;
+            }
+            sink.publish(claimed.stream().map(OrderEvent::from).toList());
+            orderOutboxEventRepository.deleteAllByIdInBatch(claimed.stream().map(OrderOutboxEvent::getId).toList());
+            // id 는 커밋 순서가 아니므로 묶음의 첫 행이 가장 오래된 이벤트라는 보장이 없다.
+            recordLag(claimed.stream().map(OrderOutboxEvent::getCreatedAt).min(Instant::compareTo).orElseThrow());
+            return claimed.size();
+        });
+        if (published != null && published > 0) {
+            publishedEvents.add(published);
+            publishedBatches.increment();
+            return published;
+        }
+        return 0;
+    }
+
+    /**
+     * 아직 발행되지 않은 이벤트 수
+     */
+    public long backlog() {
+        return orderOutboxEventRepository.count();
+    }
+
+    public long publishedEvents() {
+        return publishedEvents.sum();
+    }
+
+    public long publishedBatches() {
+        return publishedBatches.sum();
+    }
+
+    public long failedBatches() {
+        return failedBatches.sum();
+    }
+
+    /**
+     * 마지막 묶음에서 가장 오래 기다린 이벤트의 기록 ~ 발행 간격
+     */
+    public long lastLagMillis() {
+        return lastLagMillis.get();
+    }
+
+    public long maxLagMillis() {
+        return maxLagMillis.get();
+    }
+
+    private void runWorker() {
+        while (running) {
+            int published;
+            try {
+                published = relayBatch();
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                log.warn("outbox relay batch failed, will retry", e);
+                published = 0;
+            }
+            if (published < batchSize) {
+                // 묶음을 꽉 채우지 못했다면 밀린 이벤트가 없으니 잠시 쉰다.
+                try {
+                    TimeUnit.MILLISECONDS.sleep(pollIntervalMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void recordLag(Instant oldestCreatedAt) {
+        long lag = Math.max(0, Duration.between(oldestCreatedAt, Instant.now()).toMillis());
+        lastLagMillis.set(lag);
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+    }
+}
@@ -4,8 +4,11 @@ import concurrency.practice.domain.Inventory;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
@@ -18,4 +21,31 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select i from Inventory i where i.id = :id")
     Optional<Inventory> findByIdWithPessimisticLock(Long id);
+
+    /**
+     * 여러 재고를 id 오름차순으로 비관적 쓰기 잠금을 걸어 조회합니다.
+     * 장바구니 주문과 같은 순서로 잠그므로 서로 교착 상태에 빠지지 않습니다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Inventory i where i.id in :ids order by i.id")
+    List<Inventory> findAllByIdInWithPessimisticLock(Collection<Long> ids);
+
+    /**
+     * 조건부 UPDATE 한 문장으로 재고를 차감합니다.
+     * 재고가 충분할 때만 차감되며, 영향받은 행의 수(0 또는 1)를 반환합니다.
+     * 조회 후 수정하는 방식과 달리 잠금은 이 문장이 실행될 때 처음 잡힙니다.
+     * 벌크 UPDATE 는 @Version 을 자동으로 올리지 않으므로, 낙관적 락 사용자를 위해 버전도 함께 올립니다.
+     */
+    @Modifying
+    @Query("update Inventory i set i.stock = i.stock - :quantity, i.version = i.version + 1"
+            + " where i.id = :id and i.stock >= :quantity")
+    int decreaseStock(Long id, long quantity);
+
+    /**
+     * 재고를 quantity 만큼 늘립니다. (재입고)
+     * 차감과 마찬가지로 한 문장으로 처리하여, 진행 중인 주문과 엔티티 값을 덮어쓰며 경쟁하지 않습니다.
+     */
+    @Modifying
+    @Query("update Inventory i set i.stock = i.stock + :quantity, i.version = i.version + 1 where i.id = :id")
+    int increaseStock(Long id, long quantity);
 }
@@ -0,0 +1,43 @@
+package concurrency.practice.repository;
+
+import concurrency.practice.domain.InventoryShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface InventoryShardRepository extends JpaRepository<InventoryShard, Long> {
+
+    /**
+     * 하나의 샤드에서 조건부 UPDATE 로 재고를 차감합니다.
+     * 해당 샤드의 재고가 부족하면 0을 반환하므로 호출자는 다른 샤드를 시도할 수 있습니다.
+     */
+    @Modifying
+    @Query("update InventoryShard s set s.stock = s.stock - :quantity"
+            + " where s.inventoryId = :inventoryId and s.shardIndex = :shardIndex and s.stock >= :quantity")
+    int decreaseStock(Long inventoryId, int shardIndex, long quantity);
+
+    /**
+     * 재고의 모든 샤드를 shardIndex 순서로 잠급니다.
+     * 항상 같은 순서로 잠그므로 여러 트랜잭션이 동시에 호출해도 교착 상태가 생기지 않습니다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from InventoryShard s where s.inventoryId = :inventoryId order by s.shardIndex")
+    List<InventoryShard> findAllByInventoryIdWithPessimisticLock(Long inventoryId);
+
+    /**
+     * 여러 재고의 샤드를 (inventoryId, shardIndex) 순서로 잠급니다. 입고 버퍼가 샤드 재고에 입고분을 더할 때 사용합니다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from InventoryShard s where s.inventoryId in :inventoryIds order by s.inventoryId, s.shardIndex")
+    List<InventoryShard> findAllByInventoryIdInWithPessimisticLock(Collection<Long> inventoryIds);
+
+    @Query("select coalesce(sum(s.stock), 0) from InventoryShard s where s.inventoryId = :inventoryId")
+    long sumStockByInventoryId(Long inventoryId);
+
+    long countByInventoryId(Long inventoryId);
+}
@@ -0,0 +1,7 @@
+package concurrency.practice.repository;
+
+import concurrency.practice.domain.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, Long> {
+}
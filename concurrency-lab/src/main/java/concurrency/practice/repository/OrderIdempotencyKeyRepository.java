@@ -0,0 +1,11 @@
+package concurrency.practice.repository;
+
+import concurrency.practice.domain.OrderIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, Long> {
+
+    Optional<OrderIdempotencyKey> findByIdempotencyKey(String idempotencyKey);
+}
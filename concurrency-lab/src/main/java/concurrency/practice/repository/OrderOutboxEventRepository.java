@@ -0,0 +1,19 @@
+package concurrency.practice.repository;
+
+import concurrency.practice.domain.OrderOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OrderOutboxEventRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    /**
+     * 발행 대기 이벤트를 id 순서로 최대 limit 건 잠그고 가져옵니다. id 는 미리 받아 둔 시퀀스 값이라 커밋 순서와 다를 수 있다.
+     * SKIP LOCKED 이므로 다른 릴레이 워커가 이미 잠근 행은 기다리지 않고 건너뛴다.
+     * 워커마다 서로 다른 묶음을 가져가므로 워커 수를 늘려 발행 처리량을 늘릴 수 있다.
+     */
+    @Query(value = "select * from order_outbox_event order by id limit :limit for update skip locked",
+            nativeQuery = true)
+    List<OrderOutboxEvent> claimBatch(int limit);
+}
@@ -1,7 +1,40 @@
 package concurrency.practice.repository;
 
 import concurrency.practice.domain.ProductOrder;
+import concurrency.practice.export.OrderExportRow;
+import concurrency.practice.sales.InventorySales;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ProductOrderRepository extends JpaRepository<ProductOrder, Long> {
+
+    /**
+     * id 가 afterId 보다 큰 주문을 id 오름차순으로 한 페이지 읽습니다. (키셋 페이지네이션)
+     * OFFSET 과 달리 앞 페이지를 건너뛰느라 읽는 행이 없어, 몇 번째 페이지든 기본 키 인덱스로 바로 찾아간다.
+     * 엔티티가 아니라 OrderExportRow 로 읽으므로 영속성 컨텍스트에 아무것도 남지 않는다.
+     * pageable 은 크기만 쓴다. (반환형이 List 라 count 쿼리는 나가지 않는다)
+     */
+    @Query("select new concurrency.practice.export.OrderExportRow(o.id, o.inventoryId, o.quantity, o.status)"
+            + " from ProductOrder o where o.id > :afterId order by o.id")
+    List<OrderExportRow> findExportPage(Long afterId, Pageable pageable);
+
+    /**
+     * 취소되지 않은 주문을 상품별로 묶어 수량 합과 주문 수를 셉니다. 주문 테이블 전체를 읽으므로 판매 집계 재구성에만 쓴다.
+     */
+    @Query("select new concurrency.practice.sales.InventorySales(o.inventoryId, sum(o.quantity), count(o))"
+            + " from ProductOrder o where o.status = concurrency.practice.domain.OrderStatus.CREATED"
+            + " group by o.inventoryId")
+    List<InventorySales> sumSalesByInventory();
+
+    /**
+     * sumSalesByInventory 를 inventoryIds 상품으로만 좁힌 것. inventory_id 인덱스로 그 상품의 주문만 읽는다.
+     */
+    @Query("select new concurrency.practice.sales.InventorySales(o.inventoryId, sum(o.quantity), count(o))"
+            + " from ProductOrder o where o.status = concurrency.practice.domain.OrderStatus.CREATED"
+            + " and o.inventoryId in :inventoryIds group by o.inventoryId")
+    List<InventorySales> sumSalesByInventoryIn(Collection<Long> inventoryIds);
 }
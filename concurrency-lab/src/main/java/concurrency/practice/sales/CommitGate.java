@@ -0,0 +1,157 @@
+package concurrency.practice.sales;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 판매 집계 재구성과 주문 커밋 사이의 문
+ *
+ * 커밋은 커밋 직전(beforeCommit)에 지금 단계(Phase)의 카운터를 올리고, 집계를 고친 뒤(afterCompletion) 내린다.
+ * 카운터는 스레드마다 다른 칸(캐시 라인)을 쓰므로, 모든 커밋이 잠금 하나의 상태 워드를 두고 CAS 경쟁을 하지 않는다.
+ * 재구성은 단계를 새로 바꿔 끼운 뒤 옛 단계의 카운터가 0 이 되기를 기다린다. 그러면 옛 단계의 커밋은 모두 DB 커밋까지 끝난 것이다.
+ *
+ * 단계는 세 가지다.
+ * - 열림: 평소 상태
+ * - 기록: 재구성의 GROUP BY 가 도는 동안. 커밋이 건드린 상품 id 를 journal 에 적는다.
+ * - 닫힘: 재구성이 journal 의 상품만 다시 읽어 맞추는 짧은 동안. 새 커밋은 열릴 때까지 beforeCommit 에서 기다린다.
+ *
+ * 한 번에 재구성 하나만 단계를 바꾼다고 가정한다. (InventorySalesAggregates.rebuild 가 synchronized 다)
+ */
+final class CommitGate {
+
+    private static final int STRIPES = 64;
+    // 칸마다 64바이트(int 16개)씩 띄워 다른 스레드의 칸과 캐시 라인을 나눠 쓰지 않게 한다.
+    private static final int PADDING = 16;
+    private static final long DRAIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private volatile Phase phase = Phase.open();
+
+    /**
+     * 커밋 직전에 부릅니다. 닫힌 단계면 열릴 때까지 기다린다.
+     * 돌려받은 Pass 는 커밋이 끝나면(롤백 포함) 반드시 exit 로 돌려줘야 한다.
+     */
+    Pass enter(long[] inventoryIds, int size) {
+        int stripe = stripe();
+        while (true) {
+            Phase current = phase;
+            if (current.opened != null) {
+                current.awaitOpened();
+                continue;
+            }
+            current.holders.incrementAndGet(stripe);
+            // 카운터를 올리는 사이에 재구성이 단계를 바꿨다면, 재구성은 이 커밋을 기다리지 않았을 수 있다. 새 단계로 다시 들어간다.
+            if (phase == current) {
+                if (current.journal != null) {
+                    for (int i = 0; i < size; i++) {
+                        current.journal.add(inventoryIds[i]);
+                    }
+                }
+                return new Pass(current, stripe);
+            }
+            current.holders.decrementAndGet(stripe);
+        }
+    }
+
+    void exit(Pass pass) {
+        pass.phase.holders.decrementAndGet(pass.stripe);
+    }
+
+    /**
+     * 기록 단계로 바꾸고, 그 전에 들어온 커밋이 모두 끝나기를 기다립니다.
+     *
+     * @return 이후 커밋이 건드린 상품 id 가 쌓일 집합
+     */
+    Set<Long> startJournal() {
+        Phase journaling = Phase.journaling();
+        swapAndDrain(journaling);
+        return journaling.journal;
+    }
+
+    /**
+     * 문을 닫고, 기록 단계에서 들어온 커밋이 모두 끝나기를 기다립니다. 이후 새 커밋은 open 전까지 기다린다.
+     */
+    void close() {
+        swapAndDrain(Phase.closed());
+    }
+
+    void open() {
+        Phase closed = phase;
+        phase = Phase.open();
+        if (closed.opened != null) {
+            closed.opened.countDown();
+        }
+    }
+
+    private void swapAndDrain(Phase next) {
+        Phase previous = phase;
+        phase = next;
+        while (previous.holding()) {
+            LockSupport.parkNanos(DRAIN_PARK_NANOS);
+        }
+    }
+
+    private static int stripe() {
+        long hash = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (Long.SIZE - Integer.numberOfTrailingZeros(STRIPES))) * PADDING;
+    }
+
+    /**
+     * 커밋 하나가 들어간 단계와 카운터 칸. exit 은 enter 와 다른 스레드에서 불려도 같은 칸을 내린다.
+     * 그래서 칸마다 값이 음수가 되지 않고, 칸을 하나씩 읽어 합이 0 이면 그 순간 남은 커밋이 없다.
+     */
+    record Pass(Phase phase, int stripe) {
+    }
+
+    static final class Phase {
+
+        private final AtomicIntegerArray holders = new AtomicIntegerArray(STRIPES * PADDING);
+        private final Set<Long> journal;
+        private final CountDownLatch opened;
+
+        private Phase(Set<Long> journal, CountDownLatch opened) {
+            this.journal = journal;
+            this.opened = opened;
+        }
+
+        static Phase open() {
+            return new Phase(null, null);
+        }
+
+        static Phase journaling() {
+            return new Phase(ConcurrentHashMap.newKeySet(), null);
+        }
+
+        static Phase closed() {
+            return new Phase(null, new CountDownLatch(1));
+        }
+
+        boolean holding() {
+            for (int i = 0; i < STRIPES; i++) {
+                if (holders.get(i * PADDING) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void awaitOpened() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    opened.await();
+                    break;
+                } catch (InterruptedException e) {
+                    // 닫힌 시간은 짧고, 여기서 빠져나가면 커밋이 집계에서 빠진다.
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
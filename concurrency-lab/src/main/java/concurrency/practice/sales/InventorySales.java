@@ -0,0 +1,8 @@
+package concurrency.practice.sales;
+
+/**
+ * 상품 하나의 판매 집계: 취소되지 않은 주문의 수량 합과 주문 수
+ * JPQL 생성자 표현식(GROUP BY 재구성)과 메모리 집계 조회가 같은 모양으로 돌려준다.
+ */
+public record InventorySales(Long inventoryId, Long unitsSold, Long orderCount) {
+}
@@ -0,0 +1,215 @@
+package concurrency.practice.sales;
+
+import concurrency.practice.config.InventorySalesProperties;
+import concurrency.practice.repository.ProductOrderRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 상품별 판매 집계 (취소되지 않은 주문의 수량 합, 주문 수)
+ *
+ * - 주문 생성/수량 수정/취소가 커밋되면 InventorySalesRecorder 가 그 차이만큼 메모리 집계를 고친다. 주문 테이블을 다시 읽지 않는다.
+ * - 집계는 구간(segment)마다 SalesTable(long 배열 오픈 어드레싱)에 두므로, 조회는 주문 수가 아니라 상품 수에 비례한다.
+ * - rebuild() 는 주문 테이블을 GROUP BY 로 한 번 읽어 집계를 통째로 바꾼다. 시작할 때 한 번 돌고,
+ *   커밋 훅을 거치지 않은 변경(직접 SQL, 주문 삭제 등)으로 어긋났을 때 복구용으로 다시 돌린다.
+ *
+ * 재구성과 커밋이 엇갈려 변경이 두 번 세어지거나 빠지지 않도록 CommitGate 를 둔다.
+ * 1. GROUP BY 전에 그때까지 들어온 커밋이 끝나기를 기다린다. 이 커밋들은 모두 GROUP BY 에 보인다.
+ * 2. GROUP BY 는 잠금 없이 돈다. 그동안 커밋된 변경은 GROUP BY 에 보였는지 알 수 없으므로, 건드린 상품 id 만 적어 둔다.
+ * 3. 문을 닫고, 적어 둔 상품만 주문 테이블에서 다시 읽어 GROUP BY 결과를 덮어쓴다.
+ * 커밋이 멈추는 시간은 3단계, 즉 재구성 도중 주문이 들어온 상품의 주문만 (inventory_id 인덱스로) 읽는 동안뿐이다.
+ *
+ * 1~3단계는 한 트랜잭션에서 돌고, 그 트랜잭션은 READ COMMITTED 여야 한다. 3단계의 재조회는 2단계 동안 커밋된 변경을 봐야 하는데,
+ * REPEATABLE READ 나 스냅샷 격리에서는 GROUP BY 때의 스냅샷을 다시 읽어 그 변경이 집계에서 빠진다.
+ * 그래서 DB 기본 격리 수준에 기대지 않고 트랜잭션에 READ COMMITTED 를 명시한다.
+ * (3단계를 문을 닫은 뒤의 새 트랜잭션으로 돌리면, 문 앞에서 기다리는 주문 트랜잭션들이 커넥션 풀을 다 쥐고 있을 때 막힌다)
+ */
+@Slf4j
+@Component
+public class InventorySalesAggregates {
+
+    // 다시 읽을 상품 id 를 IN 절 하나에 넣는 최대 개수
+    private static final int RECONCILE_CHUNK = 1000;
+
+    private final ProductOrderRepository productOrderRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int expectedSkusPerSegment;
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final CommitGate commitGate = new CommitGate();
+
+    public InventorySalesAggregates(ProductOrderRepository productOrderRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    InventorySalesProperties properties) {
+        if (properties.segments() < 1 || properties.expectedSkus() < 1) {
+            throw new IllegalArgumentException("segments and expectedSkus must be positive");
+        }
+        this.productOrderRepository = productOrderRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.enabled = properties.enabled();
+
+        int segmentCount = properties.segments() == 1 ? 1 : Integer.highestOneBit(properties.segments() - 1) << 1;
+        this.expectedSkusPerSegment = Math.max(1, properties.expectedSkus() / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(new SalesTable(expectedSkusPerSegment));
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    /**
+     * 상품 하나의 집계. 주문이 없는 상품은 0 으로 돌려준다.
+     */
+    public InventorySales get(Long inventoryId) {
+        InventorySales sales = segmentFor(inventoryId).get(inventoryId);
+        return sales != null ? sales : new InventorySales(inventoryId, 0L, 0L);
+    }
+
+    /**
+     * 주문이 남아 있는 모든 상품의 집계 (순서 없음). 구간마다 따로 읽으므로 구간끼리는 같은 시점이 아닐 수 있다.
+     */
+    public List<InventorySales> all() {
+        List<InventorySales> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            segment.collectInto(result);
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * 주문 테이블을 GROUP BY 로 읽어 집계를 처음부터 다시 만듭니다.
+     * GROUP BY 가 도는 동안 주문 커밋은 멈추지 않는다. (클래스 설명 참고)
+     *
+     * @return 주문이 남아 있는 상품 수
+     */
+    public synchronized int rebuild() {
+        long startedAt = System.nanoTime();
+        // 트랜잭션(커넥션)을 먼저 잡고 문을 닫는다. 문 앞에서 기다리는 주문 트랜잭션들이 커넥션 풀을 다 쥐고 있어도 막히지 않는다.
+        int skus = readOnlyTransaction.execute(status -> {
+            Set<Long> touched = commitGate.startJournal();
+            List<InventorySales> snapshot = productOrderRepository.sumSalesByInventory();
+            long gateClosedAt = System.nanoTime();
+            commitGate.close();
+            try {
+                List<InventorySales> reconciled = reconcile(touched);
+                SalesTable[] tables = new SalesTable[segments.length];
+                for (int i = 0; i < tables.length; i++) {
+                    tables[i] = new SalesTable(Math.max(expectedSkusPerSegment, snapshot.size() / segments.length));
+                }
+                int size = 0;
+                for (InventorySales sales : snapshot) {
+                    if (!touched.contains(sales.inventoryId())) {
+                        addTo(tables, sales);
+                        size++;
+                    }
+                }
+                for (InventorySales sales : reconciled) {
+                    addTo(tables, sales);
+                    size++;
+                }
+                for (int i = 0; i < segments.length; i++) {
+                    segments[i].replace(tables[i]);
+                }
+                log.debug("inventory sales reconciled: touched={}, gateClosedMicros={}",
+                        touched.size(), (System.nanoTime() - gateClosedAt) / 1_000);
+                return size;
+            } finally {
+                commitGate.open();
+            }
+        });
+        log.info("inventory sales rebuilt: skus={}, elapsedMs={}", skus, (System.nanoTime() - startedAt) / 1_000_000);
+        return skus;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 커밋 직전에 부릅니다. 재구성이 문을 닫고 있으면 열릴 때까지 기다린다.
+     */
+    CommitGate.Pass enterCommit(long[] inventoryIds, int size) {
+        return commitGate.enter(inventoryIds, size);
+    }
+
+    /**
+     * 커밋이 끝나면(롤백 포함) 부릅니다.
+     */
+    void exitCommit(CommitGate.Pass pass) {
+        commitGate.exit(pass);
+    }
+
+    void apply(long[] inventoryIds, long[] units, long[] counts, int size) {
+        for (int i = 0; i < size; i++) {
+            segmentFor(inventoryIds[i]).add(inventoryIds[i], units[i], counts[i]);
+        }
+    }
+
+    private List<InventorySales> reconcile(Set<Long> touched) {
+        List<Long> inventoryIds = new ArrayList<>(touched);
+        List<InventorySales> result = new ArrayList<>();
+        for (int from = 0; from < inventoryIds.size(); from += RECONCILE_CHUNK) {
+            result.addAll(productOrderRepository.sumSalesByInventoryIn(
+                    inventoryIds.subList(from, Math.min(from + RECONCILE_CHUNK, inventoryIds.size()))));
+        }
+        return result;
+    }
+
+    private void addTo(SalesTable[] tables, InventorySales sales) {
+        tables[segmentIndex(sales.inventoryId())].add(sales.inventoryId(), sales.unitsSold(), sales.orderCount());
+    }
+
+    private Segment segmentFor(long inventoryId) {
+        return segments[segmentIndex(inventoryId)];
+    }
+
+    private int segmentIndex(long inventoryId) {
+        long hash = inventoryId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & segmentMask;
+    }
+
+    /**
+     * 잠금 하나를 공유하는 집계 구간. 재구성은 테이블을 통째로 바꾼다.
+     */
+    private static final class Segment {
+
+        private SalesTable table;
+
+        private Segment(SalesTable table) {
+            this.table = table;
+        }
+
+        synchronized void add(long inventoryId, long unitsDelta, long ordersDelta) {
+            table.add(inventoryId, unitsDelta, ordersDelta);
+        }
+
+        synchronized InventorySales get(long inventoryId) {
+            return table.get(inventoryId);
+        }
+
+        synchronized void collectInto(List<InventorySales> result) {
+            table.forEach((inventoryId, unitsSold, orderCount) ->
+                    result.add(new InventorySales(inventoryId, unitsSold, orderCount)));
+        }
+
+        synchronized void replace(SalesTable table) {
+            this.table = table;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package concurrency.practice.sales;
+
+import concurrency.practice.domain.ProductOrder;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 주문 변경을 트랜잭션마다 모았다가, 커밋되면 상품별 판매 집계(InventorySalesAggregates)에 한 번에 더한다.
+ *
+ * 트랜잭션 하나에 SalesSynchronization 하나만 등록하므로, 주문을 여러 건 바꾼 트랜잭션도 커밋 문을 한 번만 지난다.
+ * 롤백되면 모은 변경을 버린다. 트랜잭션 밖에서 불리면 바로 더한다.
+ * practice.inventory.sales.enabled=false 면 아무것도 하지 않는다.
+ */
+@Component
+public class InventorySalesRecorder {
+
+    private final InventorySalesAggregates inventorySalesAggregates;
+
+    public InventorySalesRecorder(InventorySalesAggregates inventorySalesAggregates) {
+        this.inventorySalesAggregates = inventorySalesAggregates;
+    }
+
+    public void orderCreated(Long inventoryId, int quantity) {
+        record(inventoryId, quantity, 1);
+    }
+
+    public void ordersCreated(List<ProductOrder> orders) {
+        if (!inventorySalesAggregates.isEnabled() || orders.isEmpty()) {
+            return;
+        }
+        SalesSynchronization changes = changes();
+        for (ProductOrder order : orders) {
+            changes.add(order.getInventoryId(), order.getQuantity(), 1);
+        }
+        applyIfOutsideTransaction(changes);
+    }
+
+    public void orderQuantityUpdated(Long inventoryId, int previousQuantity, int quantity) {
+        if (previousQuantity != quantity) {
+            record(inventoryId, quantity - previousQuantity, 0);
+        }
+    }
+
+    public void orderCancelled(Long inventoryId, int quantity) {
+        record(inventoryId, -quantity, -1);
+    }
+
+    private void record(long inventoryId, long unitsDelta, long ordersDelta) {
+        if (!inventorySalesAggregates.isEnabled()) {
+            return;
+        }
+        SalesSynchronization changes = changes();
+        changes.add(inventoryId, unitsDelta, ordersDelta);
+        applyIfOutsideTransaction(changes);
+    }
+
+    private SalesSynchronization changes() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                ? currentSynchronization()
+                : new SalesSynchronization(inventorySalesAggregates);
+    }
+
+    private void applyIfOutsideTransaction(SalesSynchronization changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changes.applyNow();
+        }
+    }
+
+    /**
+     * 지금 트랜잭션에 등록된 SalesSynchronization, 없으면 새로 등록한다.
+     * 리소스로 묶지 않고 등록 목록에서 찾으므로, REQUIRES_NEW 로 바깥 트랜잭션이 멈춘 동안에는 안쪽 트랜잭션 것을 따로 만든다.
+     */
+    private SalesSynchronization currentSynchronization() {
+        for (TransactionSynchronization registered : TransactionSynchronizationManager.getSynchronizations()) {
+            if (registered instanceof SalesSynchronization synchronization
+                    && synchronization.inventorySalesAggregates == inventorySalesAggregates) {
+                return synchronization;
+            }
+        }
+        SalesSynchronization synchronization = new SalesSynchronization(inventorySalesAggregates);
+        TransactionSynchronizationManager.registerSynchronization(synchronization);
+        return synchronization;
+    }
+
+    /**
+     * 트랜잭션 하나의 판매 집계 변경. 커밋 직전(beforeCommit)에 커밋 문에 들어가고, 집계를 고친 뒤(afterCompletion) 나온다.
+     */
+    private static final class SalesSynchronization implements TransactionSynchronization {
+
+        private final InventorySalesAggregates inventorySalesAggregates;
+        private long[] inventoryIds = new long[4];
+        private long[] units = new long[4];
+        private long[] counts = new long[4];
+        private int size;
+        private CommitGate.Pass pass;
+
+        private SalesSynchronization(InventorySalesAggregates inventorySalesAggregates) {
+            this.inventorySalesAggregates = inventorySalesAggregates;
+        }
+
+        void add(long inventoryId, long unitsDelta, long ordersDelta) {
+            if (size == inventoryIds.length) {
+                inventoryIds = Arrays.copyOf(inventoryIds, size * 2);
+                units = Arrays.copyOf(units, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            inventoryIds[size] = inventoryId;
+            units[size] = unitsDelta;
+            counts[size] = ordersDelta;
+            size++;
+        }
+
+        void applyNow() {
+            CommitGate.Pass immediate = inventorySalesAggregates.enterCommit(inventoryIds, size);
+            try {
+                inventorySalesAggregates.apply(inventoryIds, units, counts, size);
+            } finally {
+                inventorySalesAggregates.exitCommit(immediate);
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            pass = inventorySalesAggregates.enterCommit(inventoryIds, size);
+        }
+
+        @Override
+        public void afterCommit() {
+            inventorySalesAggregates.apply(inventoryIds, units, counts, size);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            // 롤백이면 beforeCommit 을 거치지 않았을 수 있다.
+            if (pass != null) {
+                inventorySalesAggregates.exitCommit(pass);
+                pass = null;
+            }
+        }
+    }
+}
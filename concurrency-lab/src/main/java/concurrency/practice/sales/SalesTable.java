@@ -0,0 +1,106 @@
+package concurrency.practice.sales;
+
+import java.util.Arrays;
+
+/**
+ * 상품 id -> (판매 수량, 주문 수) 오픈 어드레싱 해시 테이블
+ *
+ * 키와 두 값을 long 배열 세 개에 나란히 두어 항목마다 객체(Long 박싱, Map.Entry)를 만들지 않는다.
+ * 충돌은 선형 탐사로 풀고, 채움률이 절반을 넘으면 두 배로 늘린다. 삭제는 하지 않는다.
+ * 주문이 모두 취소된 상품은 값이 0 인 채로 남고, 재구성할 때 사라진다.
+ *
+ * 스레드 안전하지 않다. InventorySalesAggregates 가 구간 잠금 안에서만 쓴다.
+ */
+final class SalesTable {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] units;
+    private long[] orders;
+    private int mask;
+    private int size;
+
+    SalesTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    void add(long inventoryId, long unitsDelta, long ordersDelta) {
+        int slot = slotFor(inventoryId);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = inventoryId;
+            if (++size > keys.length >> 1) {
+                units[slot] = unitsDelta;
+                orders[slot] = ordersDelta;
+                grow();
+                return;
+            }
+        }
+        units[slot] += unitsDelta;
+        orders[slot] += ordersDelta;
+    }
+
+    /**
+     * @return 항목이 없으면 null
+     */
+    InventorySales get(long inventoryId) {
+        int slot = slotFor(inventoryId);
+        return keys[slot] == EMPTY ? null : new InventorySales(inventoryId, units[slot], orders[slot]);
+    }
+
+    /**
+     * 주문이 하나라도 남은 상품을 consumer 에 넘긴다. 배열을 한 번 훑으므로 상품 수에 비례한다.
+     */
+    void forEach(SalesConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY && orders[slot] != 0) {
+                consumer.accept(keys[slot], units[slot], orders[slot]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 키가 있으면 그 칸, 없으면 키가 들어갈 빈 칸
+     */
+    private int slotFor(long inventoryId) {
+        long hash = inventoryId * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != inventoryId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldUnits = units;
+        long[] oldOrders = orders;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotFor(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                units[slot] = oldUnits[i];
+                orders[slot] = oldOrders[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        units = new long[capacity];
+        orders = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    @FunctionalInterface
+    interface SalesConsumer {
+        void accept(long inventoryId, long unitsSold, long orderCount);
+    }
+}
@@ -0,0 +1,167 @@
+package concurrency.practice.service;
+
+import concurrency.practice.config.OrderProperties;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * 멱등 키별 진행 중/완료된 주문을 기억하는 메모리 중복 제거 창
+ *
+ * - 같은 키로 처음 들어온 요청만 action 을 실행한다. 동시에 들어온 나머지는 그 결과(future)를 함께 기다린다.
+ * - 완료된 키는 ttl 동안 남아, 그 사이의 재시도는 DB와 재고 잠금을 전혀 거치지 않고 같은 주문 id 를 받는다.
+ * - 실패한 키는 바로 지워서 다음 재시도가 다시 실행되게 한다. (재고 부족 등으로 실패한 주문은 아무것도 남기지 않는다)
+ *
+ * 메모리는 프로세스 안에서만 유효하므로, 창이 지났거나 다른 인스턴스에서 온 재시도는 DB의 키 기록이 막는다.
+ */
+@Component
+public class IdempotencyRegistry {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final ScheduledExecutorService sweeper;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    public IdempotencyRegistry(OrderProperties orderProperties) {
+        OrderProperties.Idempotency idempotency = orderProperties.idempotency();
+        this.ttlNanos = idempotency.ttl().toNanos();
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = idempotency.sweepInterval().toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * key 로 처음 들어온 호출이면 action 을 실행하고, 이미 진행 중이거나 완료된 키면 그 결과를 돌려줍니다.
+     */
+    public <T> T execute(String key, Supplier<T> action) {
+        Entry created = new Entry();
+        long now = System.nanoTime();
+        Entry current = entries.compute(key,
+                (k, existing) -> existing == null || existing.isExpired(now, ttlNanos) ? created : existing);
+
+        if (current != created) {
+            duplicates.increment();
+            return await(current);
+        }
+
+        executions.increment();
+        try {
+            T result = action.get();
+            created.complete(result);
+            return result;
+        } catch (Throwable t) {
+            // Error 도 여기서 풀어 주지 않으면 같은 키로 기다리는 호출들이 영원히 깨어나지 못한다.
+            entries.remove(key, created);
+            created.result.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    /**
+     * execute 와 같지만 action 이 future 를 돌려준다. 같은 키의 다른 호출은 그 future 의 결과를 함께 받는다.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String key, Supplier<CompletableFuture<T>> action) {
+        Entry created = new Entry();
+        long now = System.nanoTime();
+        Entry current = entries.compute(key,
+                (k, existing) -> existing == null || existing.isExpired(now, ttlNanos) ? created : existing);
+
+        if (current != created) {
+            duplicates.increment();
+            return current.result.thenApply(value -> (T) value);
+        }
+
+        executions.increment();
+        CompletableFuture<T> result;
+        try {
+            result = action.get();
+        } catch (Throwable t) {
+            result = CompletableFuture.failedFuture(t);
+        }
+        return result.whenComplete((value, failure) -> {
+            if (failure == null) {
+                created.complete(value);
+            } else {
+                entries.remove(key, created);
+                created.result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    /**
+     * 키를 메모리에서 지웁니다. 이후 같은 키의 재시도는 DB의 키 기록으로 판단합니다.
+     */
+    public void forget(String key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * action 을 실제로 실행한 횟수
+     */
+    public long executions() {
+        return executions.sum();
+    }
+
+    /**
+     * 진행 중이거나 완료된 키와 겹쳐 action 을 실행하지 않은 횟수
+     */
+    public long duplicates() {
+        return duplicates.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    void sweep() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now, ttlNanos));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T await(Entry entry) {
+        try {
+            return (T) entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        void complete(Object value) {
+            completedAt = System.nanoTime();
+            result.complete(value);
+        }
+
+        boolean isExpired(long now, long ttlNanos) {
+            return result.isDone() && !result.isCompletedExceptionally() && now - completedAt > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package concurrency.practice.service;
+
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.cache.InventorySnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * 재고 조회
+ *
+ * 상품 목록/상세 화면은 주문보다 훨씬 자주 재고를 조회하므로, 조회는 InventoryCache 를 거친다.
+ * 반환되는 재고는 커밋된 값이며, 커밋 훅을 거치지 않은 변경은 최대 practice.inventory.cache.ttl 만큼 늦게 보일 수 있다.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryQueryService {
+
+    private final InventoryCache inventoryCache;
+
+    public InventorySnapshot getInventory(Long inventoryId) {
+        return inventoryCache.get(inventoryId);
+    }
+
+    public long getStock(Long inventoryId) {
+        return inventoryCache.get(inventoryId).stock();
+    }
+}
@@ -0,0 +1,99 @@
+package concurrency.practice.service;
+
+import static concurrency.practice.exception.PracticeErrorCode.INVALID_QUANTITY;
+import static concurrency.practice.exception.PracticeErrorCode.INVENTORY_NOT_FOUND;
+import static concurrency.practice.exception.PracticeErrorCode.OUT_OF_STOCK;
+
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.exception.OrderLineException;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.stock.StockDeltaBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 재고 입고와 조정
+ *
+ * 재고를 늘리는 변경은 입고 버퍼(StockDeltaBuffer)에 쌓여 트랜잭션 없이 끝나고, 주문은 버퍼에 쌓인 양까지 바로 쓸 수 있다.
+ * 재고를 줄이는 조정은 재고가 음수가 되지 않도록 조건부 UPDATE 로 바로 반영한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryStockService {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryCache inventoryCache;
+    private final StockDeltaBuffer stockDeltaBuffer;
+    private final TransactionTemplate transactionTemplate;
+
+    public void restock(Long inventoryId, long quantity) {
+        if (quantity < 1) {
+            throw new PracticeException(INVALID_QUANTITY);
+        }
+        // 없는 상품이면 INVENTORY_NOT_FOUND. 캐시 적중 시에는 DB에 가지 않는다.
+        inventoryCache.get(inventoryId);
+        stockDeltaBuffer.add(inventoryId, quantity);
+    }
+
+    /**
+     * 한 상품의 재고를 delta 만큼 조정합니다. 음수면 재고가 충분할 때만 차감합니다.
+     *
+     * @throws PracticeException 상품이 없으면 INVENTORY_NOT_FOUND, 차감할 재고가 모자라면 OUT_OF_STOCK
+     */
+    public void adjust(Long inventoryId, long delta) {
+        if (delta > 0) {
+            restock(inventoryId, delta);
+        } else if (delta < 0) {
+            transactionTemplate.executeWithoutResult(status -> decrease(inventoryId, -delta));
+        }
+    }
+
+    /**
+     * 여러 상품의 재고를 한꺼번에 조정합니다. 같은 상품의 조정은 합쳐서 반영합니다.
+     * 차감은 상품 id 오름차순으로 한 트랜잭션에서 반영하고, 모두 성공한 뒤에야 입고분을 버퍼에 쌓으므로 전체가 반영되거나 전혀 반영되지 않습니다.
+     *
+     * @throws OrderLineException 실패한 상품 id 와 함께 INVENTORY_NOT_FOUND 또는 OUT_OF_STOCK
+     */
+    public void adjustAll(List<StockAdjustment> adjustments) {
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (StockAdjustment adjustment : adjustments) {
+            deltas.merge(adjustment.inventoryId(), adjustment.delta(), Long::sum);
+        }
+        for (Long inventoryId : deltas.keySet()) {
+            try {
+                inventoryCache.get(inventoryId);
+            } catch (PracticeException e) {
+                throw new OrderLineException(e.getErrorCode(), inventoryId);
+            }
+        }
+
+        if (deltas.values().stream().anyMatch(delta -> delta < 0)) {
+            transactionTemplate.executeWithoutResult(status -> deltas.forEach((inventoryId, delta) -> {
+                if (delta < 0) {
+                    try {
+                        decrease(inventoryId, -delta);
+                    } catch (PracticeException e) {
+                        throw new OrderLineException(e.getErrorCode(), inventoryId);
+                    }
+                }
+            }));
+        }
+        deltas.forEach((inventoryId, delta) -> {
+            if (delta > 0) {
+                stockDeltaBuffer.add(inventoryId, delta);
+            }
+        });
+    }
+
+    private void decrease(Long inventoryId, long quantity) {
+        if (stockDeltaBuffer.decreaseStock(inventoryId, quantity) == 0) {
+            throw new PracticeException(inventoryRepository.existsById(inventoryId) ? OUT_OF_STOCK : INVENTORY_NOT_FOUND);
+        }
+        inventoryCache.invalidateAfterCommit(inventoryId);
+    }
+}
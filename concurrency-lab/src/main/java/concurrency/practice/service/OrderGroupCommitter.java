@@ -0,0 +1,255 @@
+package concurrency.practice.service;
+
+import static concurrency.practice.exception.PracticeErrorCode.INVENTORY_NOT_FOUND;
+import static concurrency.practice.exception.PracticeErrorCode.OUT_OF_STOCK;
+
+import concurrency.practice.admission.InventoryAdmission;
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.config.OrderProperties;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.domain.ProductOrder;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.metrics.OrderMetrics;
+import concurrency.practice.outbox.OrderEventRecorder;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.sales.InventorySalesRecorder;
+import concurrency.practice.stock.StockDeltaBuffer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 그룹 커밋: 같은 재고에 대한 주문을 짧은 시간 동안 모아 한 트랜잭션으로 처리한다.
+ *
+ * 100개의 주문이 각자 트랜잭션을 열고 차례로 행 잠금을 기다리는 대신,
+ * 모인 주문들은 한 번의 잠금 획득과 한 번의 묶음 INSERT 로 처리되고
+ * 각 호출자의 future 는 자신의 주문 id 또는 OUT_OF_STOCK 으로 완료된다.
+ *
+ * 재고마다 레인(Lane)을 두고, 한 레인의 묶음은 한 번에 하나씩만 커밋한다. 커밋 중인 레인의 flush 는 기다리지 않고 건너뛰며,
+ * 커밋을 마친 flush 가 그 사이 쌓인 주문을 보고 다음 flush 를 예약한다. 그래서 스케줄러 스레드는 바쁜 레인 앞에서 멈추지 않는다.
+ * 대기 주문이 없는 레인은 커밋을 마칠 때 맵에서 지우므로, 레인 수는 최근 주문이 들어온 재고 수를 넘지 않는다.
+ */
+@Component
+public class OrderGroupCommitter {
+
+    private static final String GROUP_COMMIT = "GROUP_COMMIT";
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductOrderRepository productOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryCache inventoryCache;
+    private final OrderEventRecorder orderEventRecorder;
+    private final InventorySalesRecorder inventorySalesRecorder;
+    private final OrderMetrics orderMetrics;
+    private final InventoryAdmission inventoryAdmission;
+    private final StockDeltaBuffer stockDeltaBuffer;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public OrderGroupCommitter(InventoryRepository inventoryRepository,
+                               ProductOrderRepository productOrderRepository,
+                               TransactionTemplate transactionTemplate,
+                               InventoryCache inventoryCache,
+                               OrderEventRecorder orderEventRecorder,
+                               InventorySalesRecorder inventorySalesRecorder,
+                               OrderMetrics orderMetrics,
+                               InventoryAdmission inventoryAdmission,
+                               StockDeltaBuffer stockDeltaBuffer,
+                               OrderProperties orderProperties) {
+        this.inventoryRepository = inventoryRepository;
+        this.productOrderRepository = productOrderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.inventoryCache = inventoryCache;
+        this.orderEventRecorder = orderEventRecorder;
+        this.inventorySalesRecorder = inventorySalesRecorder;
+        this.orderMetrics = orderMetrics;
+        this.inventoryAdmission = inventoryAdmission;
+        this.stockDeltaBuffer = stockDeltaBuffer;
+        this.windowNanos = orderProperties.groupCommit().window().toNanos();
+        this.maxBatchSize = orderProperties.groupCommit().maxBatchSize();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "order-group-commit-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 주문을 현재 묶음에 넣습니다.
+     * 묶음은 첫 주문이 들어온 뒤 window 가 지나거나 maxBatchSize 에 도달하면 커밋됩니다.
+     *
+     * @return 커밋 후 주문 id 로 완료되는 future. 재고가 부족하면 PracticeException(OUT_OF_STOCK) 으로 완료된다.
+     */
+    public CompletableFuture<Long> submit(Long inventoryId, int quantity) {
+        PendingOrder order = new PendingOrder(quantity, new CompletableFuture<>());
+        Lane lane;
+        int size;
+        while (true) {
+            lane = lanes.computeIfAbsent(inventoryId, Lane::new);
+            synchronized (lane) {
+                // 맵에서 막 지워진 레인이면 새 레인을 만들어 넣는다.
+                if (!lane.retired) {
+                    lane.pending.add(order);
+                    size = lane.pending.size();
+                    break;
+                }
+            }
+        }
+
+        if (size >= maxBatchSize) {
+            scheduler.execute(() -> flush(lane));
+        } else if (size == 1) {
+            // 묶음의 첫 주문이 시간 창을 연다.
+            scheduler.schedule(() -> flush(lane), windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return order.result();
+    }
+
+    /**
+     * 대기 주문이 있거나 커밋 중인 레인 수
+     */
+    public int laneCount() {
+        return lanes.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 예약된 flush 가 취소되어 남은 주문이 있다면 마저 처리한다.
+        lanes.values().forEach(this::flush);
+    }
+
+    private void flush(Lane lane) {
+        // 같은 재고의 묶음은 도착 순서대로 하나씩 커밋되어야 하므로, 묶음을 꺼내는 것부터 커밋까지 직렬화한다.
+        // 다른 flush 가 커밋 중이면 기다리지 않는다. 그 flush 가 끝날 때 남은 주문을 보고 다시 예약한다.
+        if (!lane.flushLock.tryLock()) {
+            return;
+        }
+        boolean hasMore;
+        try {
+            List<PendingOrder> batch;
+            synchronized (lane) {
+                int size = Math.min(maxBatchSize, lane.pending.size());
+                batch = new ArrayList<>(lane.pending.subList(0, size));
+                lane.pending.subList(0, size).clear();
+            }
+            if (!batch.isEmpty()) {
+                commit(lane.inventoryId, batch);
+            }
+            synchronized (lane) {
+                hasMore = !lane.pending.isEmpty();
+                if (!hasMore) {
+                    // 커밋 중인 묶음이 없을 때만 지운다. 새 레인의 묶음이 이 레인의 묶음을 앞질러 커밋되지 않는다.
+                    lane.retired = true;
+                    lanes.remove(lane.inventoryId, lane);
+                }
+            }
+        } finally {
+            lane.flushLock.unlock();
+        }
+        // 커밋하는 동안 들어와 건너뛴 flush 의 몫까지 이어서 처리한다.
+        if (hasMore) {
+            if (scheduler.isShutdown()) {
+                flush(lane);
+            } else {
+                scheduler.execute(() -> flush(lane));
+            }
+        }
+    }
+
+    private void commit(Long inventoryId, List<PendingOrder> batch) {
+        boolean[] admitted = new boolean[batch.size()];
+        List<ProductOrder> savedOrders;
+        try {
+            savedOrders = transactionTemplate.execute(status -> {
+                // 묶음 전체에 대해 잠금은 한 번만 잡는다.
+                OrderMetrics.LockWait lockWait = orderMetrics.startLockWait(GROUP_COMMIT, inventoryId);
+                Inventory inventory = inventoryRepository.findByIdWithPessimisticLock(inventoryId)
+                        .orElseThrow(() -> new PracticeException(INVENTORY_NOT_FOUND));
+                lockWait.acquired();
+                long requested = batch.stream().mapToLong(PendingOrder::quantity).sum();
+                if (inventory.getStock() < requested) {
+                    // 묶음을 다 채우지 못하면 아직 행에 반영되지 않은 입고분을 가져다 쓴다.
+                    stockDeltaBuffer.topUp(inventory);
+                }
+                if (inventory.getStock() == 0) {
+                    // 잠금을 쥔 채 커밋된 0 을 읽었다. 이후 주문은 묶음에 들어오기 전에 거절된다.
+                    inventoryAdmission.markSoldOut(inventoryId);
+                }
+                inventoryCache.refreshAfterCommit(inventory);
+
+                // 도착 순서대로 재고를 배정한다.
+                List<ProductOrder> orders = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    int quantity = batch.get(i).quantity();
+                    if (inventory.getStock() >= quantity) {
+                        inventory.decrease(quantity);
+                        orders.add(new ProductOrder(inventoryId, quantity));
+                        admitted[i] = true;
+                    }
+                }
+                // hibernate.jdbc.batch_size 만큼 묶어서 INSERT 한다.
+                List<ProductOrder> saved = productOrderRepository.saveAll(orders);
+                orderEventRecorder.ordersCreated(saved);
+                inventorySalesRecorder.ordersCreated(saved);
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            if (e instanceof PracticeException practiceException) {
+                orderMetrics.recordFailure(GROUP_COMMIT, practiceException.getErrorCode());
+            }
+            batch.forEach(order -> order.result().completeExceptionally(e));
+            return;
+        }
+        // 주문 INSERT 묶음 + 재고 UPDATE 1행
+        orderMetrics.recordRowsWritten(GROUP_COMMIT, savedOrders.size() + 1);
+
+        // 커밋이 끝난 뒤에 호출자들을 깨운다.
+        int next = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (admitted[i]) {
+                batch.get(i).result().complete(savedOrders.get(next++).getId());
+            } else {
+                orderMetrics.recordFailure(GROUP_COMMIT, OUT_OF_STOCK);
+                batch.get(i).result().completeExceptionally(new PracticeException(OUT_OF_STOCK));
+            }
+        }
+    }
+
+    private record PendingOrder(int quantity, CompletableFuture<Long> result) {
+    }
+
+    private static final class Lane {
+
+        private final Long inventoryId;
+        private final List<PendingOrder> pending = new ArrayList<>();
+        private final ReentrantLock flushLock = new ReentrantLock();
+        // 맵에서 지워졌으면 true. lane 모니터 안에서만 읽고 쓴다.
+        private boolean retired;
+
+        private Lane(Long inventoryId) {
+            this.inventoryId = inventoryId;
+        }
+    }
+}
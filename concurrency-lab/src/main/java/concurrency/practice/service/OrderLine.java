@@ -0,0 +1,7 @@
+package concurrency.practice.service;
+
+/**
+ * 장바구니 주문의 한 줄
+ */
+public record OrderLine(Long inventoryId, int quantity) {
+}
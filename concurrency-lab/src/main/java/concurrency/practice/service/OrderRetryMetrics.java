@@ -0,0 +1,50 @@
+package concurrency.practice.service;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 주문 수정 재시도 횟수 집계
+ *
+ * 여러 스레드가 동시에 증가시키는 카운터이므로 AtomicLong 대신 LongAdder 를 사용한다.
+ */
+@Component
+public class OrderRetryMetrics {
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder giveUps = new LongAdder();
+
+    void recordAttempt() {
+        attempts.increment();
+    }
+
+    void recordConflict() {
+        conflicts.increment();
+    }
+
+    void recordGiveUp() {
+        giveUps.increment();
+    }
+
+    /**
+     * 최초 시도와 재시도를 합친 전체 시도 횟수
+     */
+    public long attempts() {
+        return attempts.sum();
+    }
+
+    /**
+     * 낙관적 락 충돌 횟수
+     */
+    public long conflicts() {
+        return conflicts.sum();
+    }
+
+    /**
+     * 최대 시도 횟수를 모두 쓰고 OPTIMISTIC_LOCK_CONFLICT 로 끝난 횟수
+     */
+    public long giveUps() {
+        return giveUps.sum();
+    }
+}
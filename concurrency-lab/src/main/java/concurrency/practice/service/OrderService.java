@@ -1,38 +1,270 @@
 package concurrency.practice.service;
 
+import static concurrency.practice.exception.PracticeErrorCode.INVALID_QUANTITY;
 import static concurrency.practice.exception.PracticeErrorCode.INVENTORY_NOT_FOUND;
 import static concurrency.practice.exception.PracticeErrorCode.OPTIMISTIC_LOCK_CONFLICT;
 import static concurrency.practice.exception.PracticeErrorCode.ORDER_NOT_FOUND;
+import static concurrency.practice.exception.PracticeErrorCode.OUT_OF_STOCK;
 
+import concurrency.practice.admission.InventoryAdmission;
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.config.OrderProperties;
 import concurrency.practice.domain.Inventory;
+import concurrency.practice.domain.OrderIdempotencyKey;
 import concurrency.practice.domain.ProductOrder;
+import concurrency.practice.exception.OrderLineException;
 import concurrency.practice.exception.PracticeException;
+import concurrency.practice.hotsku.HotSkuDetector;
+import concurrency.practice.hotsku.HotSkuLanes;
+import concurrency.practice.ledger.ReservationLedger;
+import concurrency.practice.metrics.OrderMetrics;
+import concurrency.practice.outbox.OrderEventRecorder;
 import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.OrderIdempotencyKeyRepository;
 import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.sales.InventorySalesRecorder;
+import concurrency.practice.stock.StockDeltaBuffer;
 import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    // 계측 태그로 쓰는 작업 이름 (주문 생성은 재고 차감 전략 이름을 그대로 쓴다)
+    private static final String CREATE_ORDERS = "CREATE_ORDERS";
+    private static final String UPDATE_QUANTITY = "UPDATE_QUANTITY";
+    private static final String CANCEL_ORDER = "CANCEL_ORDER";
+
     private final InventoryRepository inventoryRepository;
     private final ProductOrderRepository productOrderRepository;
+    private final ShardedInventoryService shardedInventoryService;
+    private final OrderProperties orderProperties;
+    private final ObjectProvider<ReservationLedger> reservationLedger;
+    private final OrderGroupCommitter orderGroupCommitter;
+    private final OrderRetryMetrics orderRetryMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryCache inventoryCache;
+    private final IdempotencyRegistry idempotencyRegistry;
+    private final OrderIdempotencyKeyRepository orderIdempotencyKeyRepository;
+    private final OrderEventRecorder orderEventRecorder;
+    private final InventorySalesRecorder inventorySalesRecorder;
+    private final OrderMetrics orderMetrics;
+    private final HotSkuDetector hotSkuDetector;
+    private final HotSkuLanes hotSkuLanes;
+    private final InventoryAdmission inventoryAdmission;
+    private final StockDeltaBuffer stockDeltaBuffer;
 
     /**
-     * 비관적 락 예제: 주문 생성 시 재고 동시성 문제 해결
+     * 설정된 재고 차감 전략(practice.order.stock-strategy)으로 주문을 생성합니다.
      */
-    @Transactional
     public Long createOrder(Long inventoryId, int quantity) {
+        return createOrder(inventoryId, quantity, orderProperties.stockStrategy());
+    }
+
+    /**
+     * 재고 차감 전략을 직접 지정하여 주문을 생성합니다.
+     */
+    public Long createOrder(Long inventoryId, int quantity, StockStrategy strategy) {
+        return await(placeOrder(inventoryId, quantity, strategy, null));
+    }
+
+    /**
+     * 멱등 키로 주문을 생성합니다. 같은 키로 다시 호출하면 재고를 다시 차감하지 않고 처음 생성된 주문 id 를 돌려줍니다.
+     *
+     * 1. 메모리 중복 제거 창(IdempotencyRegistry): 진행 중인 같은 키는 결과를 기다리고, 완료된 키는 바로 돌려받는다.
+     * 2. DB 키 기록: 창이 지났거나 다른 인스턴스에서 처리된 키는 재고 잠금 없이 기록된 주문 id 를 읽는다.
+     * 3. 유니크 제약: 두 인스턴스가 동시에 같은 키를 처리하면 늦게 커밋하는 쪽이 롤백되고 먼저 커밋된 주문 id 를 받는다.
+     */
+    public Long createOrder(Long inventoryId, int quantity, String idempotencyKey) {
+        return await(createOrderAsync(inventoryId, quantity, idempotencyKey));
+    }
+
+    /**
+     * createOrder 와 같지만, hot SKU 주문은 레인 큐에 넣자마자 돌아옵니다.
+     * 일반 경로 주문은 호출한 스레드에서 처리되어 이미 완료된 future 로 돌아온다.
+     * 호출자는 커넥션 허가증(JdbcConnectionGuard)을 쥔 채 레인을 기다리지 않도록 future 를 허가증 밖에서 기다려야 한다.
+     */
+    public CompletableFuture<Long> createOrderAsync(Long inventoryId, int quantity) {
+        return placeOrder(inventoryId, quantity, orderProperties.stockStrategy(), null);
+    }
+
+    public CompletableFuture<Long> createOrderAsync(Long inventoryId, int quantity, String idempotencyKey) {
+        return idempotencyRegistry.executeAsync(idempotencyKey,
+                () -> createOrderOnce(inventoryId, quantity, idempotencyKey));
+    }
+
+    private CompletableFuture<Long> createOrderOnce(Long inventoryId, int quantity, String idempotencyKey) {
+        Optional<Long> recorded = findRecordedOrderId(idempotencyKey);
+        if (recorded.isPresent()) {
+            return CompletableFuture.completedFuture(recorded.get());
+        }
+        return placeOrder(inventoryId, quantity, orderProperties.stockStrategy(), idempotencyKey)
+                .exceptionally(failure -> {
+                    if (unwrap(failure) instanceof DataIntegrityViolationException e) {
+                        // 다른 인스턴스가 같은 키로 먼저 커밋했다. 이쪽의 재고 차감과 주문 INSERT 는 함께 롤백되었다.
+                        return findRecordedOrderId(idempotencyKey).orElseThrow(() -> e);
+                    }
+                    throw failure instanceof CompletionException completion
+                            ? completion
+                            : new CompletionException(failure);
+                });
+    }
+
+    /**
+     * practice.order.hot-sku.enabled 면 경합이 몰린 상품(hot SKU)의 주문은 단일 writer 레인으로 보내고,
+     * 나머지는 호출한 스레드에서 요청한 전략대로 처리한다. 실패는 던지지 않고 실패한 future 로 돌려준다.
+     */
+    private CompletableFuture<Long> placeOrder(Long inventoryId, int quantity, StockStrategy strategy,
+                                               String idempotencyKey) {
+        try {
+            requirePositive(quantity);
+            // SHARDED 는 이미 경합을 여러 샤드 행으로 나눠 받으므로 레인으로 보내지 않는다.
+            if (strategy == StockStrategy.SHARDED || !hotSkuDetector.isEnabled()) {
+                return CompletableFuture.completedFuture(
+                        admitAndExecute(inventoryId, quantity, strategy, idempotencyKey));
+            }
+            hotSkuDetector.enter(inventoryId);
+            CompletableFuture<Long> result;
+            try {
+                result = routeOrder(inventoryId, quantity, strategy, idempotencyKey);
+            } catch (RuntimeException e) {
+                hotSkuDetector.exit(inventoryId);
+                throw e;
+            }
+            // 레인에서 기다리는 주문도 경합으로 세어야 hot SKU 가 곧바로 강등되지 않는다.
+            return result.whenComplete((orderId, failure) -> hotSkuDetector.exit(inventoryId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Long> routeOrder(Long inventoryId, int quantity, StockStrategy strategy,
+                                               String idempotencyKey) {
+        if (!hotSkuDetector.isHot(inventoryId)) {
+            // 일반 경로 주문으로 먼저 센 뒤 다시 확인한다. 그 사이 승격되었으면 레인으로 보내고,
+            // 세어진 주문은 레인이 첫 주문을 처리하기 전에 끝나기를 기다린다. (HotSkuLanes 참고)
+            Long orderId = hotSkuLanes.runDirect(inventoryId, () -> hotSkuDetector.isHot(inventoryId)
+                    ? null
+                    : admitAndExecute(inventoryId, quantity, strategy, idempotencyKey));
+            if (orderId != null) {
+                return CompletableFuture.completedFuture(orderId);
+            }
+        }
+        // 레인은 이미 상품마다 한 번에 하나씩만 DB에 보내므로 진입 허가증을 쥐지 않고, 품절 표시만 확인한다.
+        // 레인 안에는 같은 상품을 두고 경쟁하는 트랜잭션이 없으므로, 행 잠금을 트랜잭션 내내 쥐는 대신
+        // 조건부 UPDATE 한 문장으로 차감한다.
+        inventoryAdmission.rejectIfSoldOut(inventoryId);
+        return hotSkuLanes.submit(inventoryId,
+                        () -> executeOrder(inventoryId, quantity, StockStrategy.CONDITIONAL_UPDATE, idempotencyKey))
+                .thenApply(orderId -> {
+                    // 품절 확인 요청이 성공했다면 앱 밖에서 재입고된 것이다.
+                    inventoryAdmission.clearSoldOut(inventoryId);
+                    return orderId;
+                });
+    }
+
+    /**
+     * 품절로 표시되었거나 동시 주문이 한도를 넘은 상품은 InventoryAdmission 이 DB에 가기 전에 돌려보낸다.
+     */
+    private Long admitAndExecute(Long inventoryId, int quantity, StockStrategy strategy, String idempotencyKey) {
+        return inventoryAdmission.admit(inventoryId,
+                () -> executeOrder(inventoryId, quantity, strategy, idempotencyKey));
+    }
+
+    private Long executeOrder(Long inventoryId, int quantity, StockStrategy strategy, String idempotencyKey) {
+        try {
+            Long orderId = placeOrderInTransaction(inventoryId, quantity, strategy, idempotencyKey);
+            // 주문 INSERT 1행 + 재고(또는 샤드) UPDATE 1행
+            orderMetrics.recordRowsWritten(strategy.name(), 2);
+            return orderId;
+        } catch (PracticeException e) {
+            orderMetrics.recordFailure(strategy.name(), e.getErrorCode());
+            throw e;
+        }
+    }
+
+    /**
+     * OPTIMISTIC_VERSION 은 충돌 시 새 트랜잭션으로 다시 시도해야 하므로, 트랜잭션 경계는 전략별로 이 메서드가 직접 연다.
+     * 주문 이벤트와 멱등 키 기록은 주문과 같은 트랜잭션에 남긴다.
+     */
+    private Long placeOrderInTransaction(Long inventoryId, int quantity, StockStrategy strategy,
+                                         String idempotencyKey) {
+        return switch (strategy) {
+            case PESSIMISTIC_LOCK -> transactionTemplate.execute(status -> afterOrderCreated(
+                    createOrderWithPessimisticLock(inventoryId, quantity), inventoryId, quantity, idempotencyKey));
+            case CONDITIONAL_UPDATE -> transactionTemplate.execute(status -> afterOrderCreated(
+                    createOrderWithConditionalUpdate(inventoryId, quantity), inventoryId, quantity, idempotencyKey));
+            case SHARDED -> transactionTemplate.execute(status -> afterOrderCreated(
+                    createOrderWithShardedStock(inventoryId, quantity), inventoryId, quantity, idempotencyKey));
+            case OPTIMISTIC_VERSION -> withOptimisticRetry(orderProperties.stockRetry(),
+                    () -> transactionTemplate.execute(status -> afterOrderCreated(
+                            createOrderWithOptimisticVersion(inventoryId, quantity), inventoryId, quantity,
+                            idempotencyKey)));
+        };
+    }
+
+    /**
+     * 주문과 같은 트랜잭션에 아웃박스 이벤트와 (있다면) 멱등 키 기록을 남기고, 커밋되면 판매 집계에 더해지게 합니다.
+     */
+    private Long afterOrderCreated(Long orderId, Long inventoryId, int quantity, String idempotencyKey) {
+        orderEventRecorder.orderCreated(orderId, inventoryId, quantity);
+        inventorySalesRecorder.orderCreated(inventoryId, quantity);
+        if (idempotencyKey != null) {
+            // 유니크 제약 위반이 커밋 시점이 아니라 여기서 바로 드러나도록 flush 한다.
+            orderIdempotencyKeyRepository.saveAndFlush(new OrderIdempotencyKey(idempotencyKey, orderId));
+        }
+        return orderId;
+    }
+
+    /**
+     * 이번 트랜잭션이 차감하기 전에 읽은 재고가 0 이면 품절로 표시합니다.
+     * 차감 후의 0 은 롤백될 수 있으므로 표시하지 않고, 다음 주문이 커밋된 0 을 읽을 때 표시됩니다.
+     */
+    private void markIfSoldOut(Inventory inventory) {
+        if (inventory.getStock() == 0) {
+            inventoryAdmission.markSoldOut(inventory.getId());
+        }
+    }
+
+    private Optional<Long> findRecordedOrderId(String idempotencyKey) {
+        return orderIdempotencyKeyRepository.findByIdempotencyKey(idempotencyKey)
+                .map(OrderIdempotencyKey::getOrderId);
+    }
+
+    /**
+     * 비관적 락 예제: 주문 생성 시 재고 동시성 문제 해결
+     */
+    private Long createOrderWithPessimisticLock(Long inventoryId, int quantity) {
         // PESSIMISTIC_WRITE 잠금을 통해 다른 트랜잭션의 동시 접근을 막는다.
+        OrderMetrics.LockWait lockWait = orderMetrics.startLockWait(StockStrategy.PESSIMISTIC_LOCK.name(), inventoryId);
         Inventory inventory = inventoryRepository.findByIdWithPessimisticLock(inventoryId)
                 .orElseThrow(() -> new PracticeException(INVENTORY_NOT_FOUND));
+        lockWait.acquired();
+        if (inventory.getStock() < quantity) {
+            // 아직 행에 반영되지 않은 입고분이 있으면 잠근 김에 가져다 쓴다.
+            stockDeltaBuffer.topUp(inventory);
+        }
+        markIfSoldOut(inventory);
 
         // 재고 감소
         inventory.decrease(quantity);
+        inventoryCache.refreshAfterCommit(inventory);
 
         // 주문 생성
         ProductOrder order = new ProductOrder(inventoryId, quantity);
@@ -41,24 +273,296 @@ public class OrderService {
         return savedOrder.getId();
     }
 
+    /**
+     * 낙관적 락 예제: 재고 행을 잠그지 않고 읽은 뒤, 커밋 직전에 버전으로 충돌을 확인한다.
+     */
+    private Long createOrderWithOptimisticVersion(Long inventoryId, int quantity) {
+        Inventory inventory = inventoryRepository.findById(inventoryId)
+                .orElseThrow(() -> new PracticeException(INVENTORY_NOT_FOUND));
+        if (inventory.getStock() < quantity) {
+            // 버전 충돌로 롤백되면 가져온 입고분은 버퍼로 돌아간다.
+            stockDeltaBuffer.topUp(inventory);
+        }
+        markIfSoldOut(inventory);
+
+        inventory.decrease(quantity);
+        // 다른 트랜잭션이 먼저 재고를 바꿨다면 UPDATE ... WHERE version = ? 가 0건이 되어 예외가 발생한다.
+        OrderMetrics.LockWait lockWait = orderMetrics.startLockWait(StockStrategy.OPTIMISTIC_VERSION.name(), inventoryId);
+        inventoryRepository.saveAndFlush(inventory);
+        lockWait.acquired();
+        inventoryCache.refreshAfterCommit(inventory);
+
+        ProductOrder savedOrder = productOrderRepository.save(new ProductOrder(inventoryId, quantity));
+        return savedOrder.getId();
+    }
+
+    /**
+     * 조건부 UPDATE 예제: 재고 행 잠금을 트랜잭션 마지막 한 문장으로 줄인다.
+     */
+    private Long createOrderWithConditionalUpdate(Long inventoryId, int quantity) {
+        // 주문을 먼저 INSERT 해두고 재고 차감을 트랜잭션의 마지막 문장으로 둔다.
+        // UPDATE 가 잡은 행 잠금은 커밋까지 유지되므로, 이렇게 해야 잠금 보유 구간이 가장 짧다.
+        ProductOrder savedOrder = productOrderRepository.saveAndFlush(new ProductOrder(inventoryId, quantity));
+
+        OrderMetrics.LockWait lockWait = orderMetrics.startLockWait(StockStrategy.CONDITIONAL_UPDATE.name(), inventoryId);
+        // 재고가 모자라면 버퍼의 입고분을 행에 더하고 한 번 더 차감한다.
+        int updated = stockDeltaBuffer.decreaseStock(inventoryId, quantity);
+        lockWait.acquired();
+        if (updated == 0) {
+            // 실패 경로에서만 존재 여부를 확인하여 재고 부족과 상품 없음을 구분한다.
+            // 예외가 던져지면 위의 주문 INSERT 도 함께 롤백된다.
+            Inventory inventory = inventoryRepository.findById(inventoryId)
+                    .orElseThrow(() -> new PracticeException(INVENTORY_NOT_FOUND));
+            markIfSoldOut(inventory);
+            throw new PracticeException(OUT_OF_STOCK);
+        }
+        // 벌크 UPDATE 는 커밋된 재고 값을 엔티티로 돌려주지 않으므로 캐시는 무효화만 한다.
+        inventoryCache.invalidateAfterCommit(inventoryId);
+        return savedOrder.getId();
+    }
+
+    /**
+     * 샤드 재고 예제: 재고 행 하나에 몰리는 경합을 여러 샤드 행으로 분산한다.
+     */
+    private Long createOrderWithShardedStock(Long inventoryId, int quantity) {
+        // 조건부 UPDATE 와 마찬가지로 샤드 차감을 트랜잭션의 마지막 작업으로 둔다.
+        ProductOrder savedOrder = productOrderRepository.saveAndFlush(new ProductOrder(inventoryId, quantity));
+        OrderMetrics.LockWait lockWait = orderMetrics.startLockWait(StockStrategy.SHARDED.name(), inventoryId);
+        shardedInventoryService.decrease(inventoryId, quantity);
+        lockWait.acquired();
+        return savedOrder.getId();
+    }
+
+    /**
+     * 장바구니 주문: 여러 상품의 재고를 한 트랜잭션에서 차감하고 줄마다 주문을 생성합니다.
+     * 한 줄이라도 실패하면 전체가 롤백되며, 실패한 상품 id 를 담은 OrderLineException 이 던져집니다.
+     *
+     * @return 요청한 줄 순서대로의 주문 id
+     */
+    public List<Long> createOrders(List<OrderLine> lines) {
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        for (OrderLine line : lines) {
+            if (line.quantity() < 1) {
+                throw new OrderLineException(INVALID_QUANTITY, line.inventoryId());
+            }
+        }
+        for (OrderLine line : lines) {
+            if (inventoryAdmission.rejectsAsSoldOut(line.inventoryId())) {
+                throw new OrderLineException(OUT_OF_STOCK, line.inventoryId());
+            }
+        }
+        try {
+            List<Long> orderIds = transactionTemplate.execute(status -> createOrdersWithOrderedLocks(lines));
+            // 줄마다 주문 INSERT 1행 + 상품마다 재고 UPDATE 1행
+            long inventories = lines.stream().map(OrderLine::inventoryId).distinct().count();
+            orderMetrics.recordRowsWritten(CREATE_ORDERS, lines.size() + (int) inventories);
+            return orderIds;
+        } catch (PracticeException e) {
+            orderMetrics.recordFailure(CREATE_ORDERS, e.getErrorCode());
+            throw e;
+        }
+    }
+
+    private List<Long> createOrdersWithOrderedLocks(List<OrderLine> lines) {
+        // 같은 상품의 줄은 합쳐서 한 번만 잠근다. TreeMap 이므로 잠금은 항상 재고 id 오름차순으로 잡힌다.
+        // 모든 트랜잭션이 같은 순서로 잠그면, 겹치는 장바구니끼리 서로의 잠금을 기다리는 순환이 생기지 않는다.
+        Map<Long, Long> quantities = new TreeMap<>();
+        for (OrderLine line : lines) {
+            quantities.merge(line.inventoryId(), (long) line.quantity(), Long::sum);
+        }
+
+        for (Map.Entry<Long, Long> entry : quantities.entrySet()) {
+            Long inventoryId = entry.getKey();
+            OrderMetrics.LockWait lockWait = orderMetrics.startLockWait(CREATE_ORDERS, inventoryId);
+            Inventory inventory = inventoryRepository.findByIdWithPessimisticLock(inventoryId)
+                    .orElseThrow(() -> new OrderLineException(INVENTORY_NOT_FOUND, inventoryId));
+            lockWait.acquired();
+            if (inventory.getStock() < entry.getValue()) {
+                stockDeltaBuffer.topUp(inventory);
+            }
+            markIfSoldOut(inventory);
+            if (inventory.getStock() < entry.getValue()) {
+                throw new OrderLineException(OUT_OF_STOCK, inventoryId);
+            }
+            inventory.decrease(entry.getValue());
+            inventoryCache.refreshAfterCommit(inventory);
+        }
+
+        // 주문 키가 시퀀스이므로 INSERT 는 hibernate.jdbc.batch_size 단위로 묶여 나간다.
+        List<ProductOrder> orders = lines.stream()
+                .map(line -> new ProductOrder(line.inventoryId(), line.quantity()))
+                .toList();
+        List<ProductOrder> savedOrders = productOrderRepository.saveAll(orders);
+        orderEventRecorder.ordersCreated(savedOrders);
+        inventorySalesRecorder.ordersCreated(savedOrders);
+        return savedOrders.stream()
+                .map(ProductOrder::getId)
+                .toList();
+    }
+
+    /**
+     * 그룹 커밋 예제: 같은 재고에 대한 동시 주문을 모아 한 트랜잭션, 한 번의 잠금으로 처리한다.
+     *
+     * @return 주문 id 로 완료되는 future. 재고가 부족하면 PracticeException(OUT_OF_STOCK) 으로 완료된다.
+     */
+    public CompletableFuture<Long> submitOrder(Long inventoryId, int quantity) {
+        if (quantity < 1) {
+            return CompletableFuture.failedFuture(new PracticeException(INVALID_QUANTITY));
+        }
+        if (inventoryAdmission.rejectsAsSoldOut(inventoryId)) {
+            return CompletableFuture.failedFuture(new PracticeException(OUT_OF_STOCK));
+        }
+        return orderGroupCommitter.submit(inventoryId, quantity);
+    }
+
+    /**
+     * 메모리 예약 원장 예제: DB 왕복 없이 재고를 예약하고, 주문은 백그라운드에서 묶음으로 저장한다.
+     * practice.order.ledger.enabled=true 일 때만 사용할 수 있습니다.
+     *
+     * @return 예약 순번 (주문 id 는 DB에 반영될 때 발급된다)
+     */
+    public long reserveOrder(Long inventoryId, int quantity) {
+        ReservationLedger ledger = reservationLedger.getIfAvailable();
+        if (ledger == null) {
+            throw new IllegalStateException("reservation ledger is disabled (practice.order.ledger.enabled=false)");
+        }
+        requirePositive(quantity);
+        return ledger.reserve(inventoryId, quantity);
+    }
+
     /**
      * 낙관적 락 예제: 주문 수정 시 동시성 문제 해결
+     * 설정된 재시도 정책(practice.order.retry)에 따라 충돌 시 서버에서 다시 시도합니다.
      */
-    @Transactional
     public void updateOrderQuantity(Long orderId, int newQuantity) {
+        updateOrderQuantity(orderId, newQuantity, orderProperties.retry());
+    }
+
+    /**
+     * 재시도 정책을 직접 지정하여 주문 수량을 수정합니다.
+     * 시도마다 새 트랜잭션에서 주문을 다시 읽으므로, 재시도는 항상 최신 버전을 기준으로 한다.
+     */
+    public void updateOrderQuantity(Long orderId, int newQuantity, RetryPolicy retryPolicy) {
+        try {
+            requirePositive(newQuantity);
+            withOptimisticRetry(retryPolicy, () -> {
+                transactionTemplate.executeWithoutResult(status -> applyQuantityUpdate(orderId, newQuantity));
+                return null;
+            });
+            orderMetrics.recordRowsWritten(UPDATE_QUANTITY, 1);
+        } catch (PracticeException e) {
+            orderMetrics.recordFailure(UPDATE_QUANTITY, e.getErrorCode());
+            throw e;
+        }
+    }
+
+    private void applyQuantityUpdate(Long orderId, int newQuantity) {
+        ProductOrder order = productOrderRepository.findById(orderId)
+                .orElseThrow(() -> new PracticeException(ORDER_NOT_FOUND));
+
+        int previousQuantity = order.getQuantity();
+        order.updateQuantity(newQuantity);
+
+        // saveAndFlush()를 호출하여 명시적으로 DB에 UPDATE 쿼리를 보내고,
+        // 버전 충돌 시 OptimisticLockException을 즉시 발생시킨다.
+        // 트랜잭션 커밋 시점에 확인해도 되지만, 빠른 예외 발생을 위해 명시적으로 호출.
+        // (리포지토리 프록시를 거치면 스프링의 OptimisticLockingFailureException 으로 변환되어 나올 수 있다.)
+        productOrderRepository.saveAndFlush(order);
+        orderEventRecorder.orderQuantityUpdated(order.getId(), order.getInventoryId(), newQuantity);
+        inventorySalesRecorder.orderQuantityUpdated(order.getInventoryId(), previousQuantity, newQuantity);
+    }
+
+    /**
+     * 주문을 취소하고 생성 때 차감한 수량만큼 재고를 돌려줍니다.
+     *
+     * 주문 행의 버전 검사로 취소를 한 번만 인정하고, 재고는 재고 행을 잠그지 않고 입고 버퍼로 돌려준다.
+     * 취소가 커밋된 뒤에만 버퍼에 더해지므로, 같은 주문을 동시에 취소해도 재고는 한 번만 늘어난다.
+     * 버퍼의 입고분은 반영 전에도 주문에 쓰이므로, 취소 직후의 주문도 돌려받은 재고를 살 수 있다.
+     *
+     * @throws PracticeException 주문이 없으면 ORDER_NOT_FOUND, 이미 취소되었으면 ORDER_ALREADY_CANCELLED
+     */
+    public void cancelOrder(Long orderId) {
         try {
-            ProductOrder order = productOrderRepository.findById(orderId)
-                    .orElseThrow(() -> new PracticeException(ORDER_NOT_FOUND));
+            withOptimisticRetry(orderProperties.retry(), () -> {
+                transactionTemplate.executeWithoutResult(status -> applyCancel(orderId));
+                return null;
+            });
+            orderMetrics.recordRowsWritten(CANCEL_ORDER, 1);
+        } catch (PracticeException e) {
+            orderMetrics.recordFailure(CANCEL_ORDER, e.getErrorCode());
+            throw e;
+        }
+    }
 
-            order.updateQuantity(newQuantity);
+    private void applyCancel(Long orderId) {
+        ProductOrder order = productOrderRepository.findById(orderId)
+                .orElseThrow(() -> new PracticeException(ORDER_NOT_FOUND));
 
-            // saveAndFlush()를 호출하여 명시적으로 DB에 UPDATE 쿼리를 보내고,
-            // 버전 충돌 시 OptimisticLockException을 즉시 발생시킨다.
-            // 트랜잭션 커밋 시점에 확인해도 되지만, 빠른 예외 발생을 위해 명시적으로 호출.
-            productOrderRepository.saveAndFlush(order);
+        order.cancel();
+        // 버전 충돌이면 다른 트랜잭션이 먼저 주문을 바꿨다. 재시도는 최신 상태를 다시 읽어 ORDER_ALREADY_CANCELLED 로 끝난다.
+        productOrderRepository.saveAndFlush(order);
+        // 수량 수정은 재고를 바꾸지 않으므로, 돌려줄 양은 생성 때 차감한 수량이다.
+        // 샤드로 나뉜 상품이면 버퍼의 반영과 재고가 모자란 샤드 주문의 topUp 이 돌려준 양을 샤드에 나눠 더한다.
+        stockDeltaBuffer.addAfterCommit(order.getInventoryId(), order.getReservedQuantity());
+        orderEventRecorder.orderCancelled(order.getId(), order.getInventoryId(), order.getQuantity());
+        inventorySalesRecorder.orderCancelled(order.getInventoryId(), order.getQuantity());
+    }
 
-        } catch (OptimisticLockException e) {
-            // 버전 충돌 발생 시, 사용자 정의 예외로 변환하여 던진다.
+    /**
+     * 0 이하의 수량은 재고 차감을 거꾸로 재고 증가로 바꾸므로 DB에 가기 전에 거절한다.
+     */
+    private static void requirePositive(int quantity) {
+        if (quantity < 1) {
+            throw new PracticeException(INVALID_QUANTITY);
+        }
+    }
+
+    /**
+     * future 를 기다리고, 실패했다면 원래 예외를 그대로 다시 던집니다.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (unwrap(e) instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    /**
+     * 낙관적 락 충돌이 나면 정책에 따라 기다렸다가 action 을 다시 실행합니다.
+     * action 은 시도마다 새 트랜잭션을 열어야 합니다.
+     */
+    private <T> T withOptimisticRetry(RetryPolicy retryPolicy, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            orderRetryMetrics.recordAttempt();
+            try {
+                return action.get();
+            } catch (OptimisticLockException | OptimisticLockingFailureException e) {
+                orderRetryMetrics.recordConflict();
+                if (attempt >= retryPolicy.maxAttempts()) {
+                    // 버전 충돌이 끝내 해소되지 않으면, 사용자 정의 예외로 변환하여 던진다.
+                    orderRetryMetrics.recordGiveUp();
+                    throw new PracticeException(OPTIMISTIC_LOCK_CONFLICT);
+                }
+                backoff(retryPolicy.backoffNanos(attempt));
+            }
+        }
+    }
+
+    private void backoff(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new PracticeException(OPTIMISTIC_LOCK_CONFLICT);
         }
     }
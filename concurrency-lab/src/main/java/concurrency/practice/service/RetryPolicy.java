@@ -0,0 +1,46 @@
+package concurrency.practice.service;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 낙관적 락 충돌 시 서버에서 재시도하는 정책 (지수 백오프 + 지터)
+ *
+ * @param maxAttempts    최초 시도를 포함한 최대 시도 횟수. 1이면 재시도하지 않는다.
+ * @param initialBackoff 첫 재시도 전 대기 시간
+ * @param maxBackoff     대기 시간 상한
+ * @param multiplier     재시도마다 대기 시간에 곱하는 값
+ * @param jitter         대기 시간에서 무작위로 깎아낼 비율 (0 ~ 1). 동시에 충돌한 요청들이 같은 순간에 다시 부딪히는 것을 막는다.
+ */
+public record RetryPolicy(
+        @DefaultValue("1") int maxAttempts,
+        @DefaultValue("5ms") Duration initialBackoff,
+        @DefaultValue("200ms") Duration maxBackoff,
+        @DefaultValue("2.0") double multiplier,
+        @DefaultValue("0.5") double jitter
+) {
+
+    public RetryPolicy {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("jitter must be between 0 and 1: " + jitter);
+        }
+    }
+
+    public static RetryPolicy noRetry() {
+        return new RetryPolicy(1, Duration.ZERO, Duration.ZERO, 1.0, 0.0);
+    }
+
+    /**
+     * attempt 번째 시도가 실패한 뒤 다음 시도까지 기다릴 시간
+     */
+    public long backoffNanos(int attempt) {
+        double exponential = initialBackoff.toNanos() * Math.pow(multiplier, attempt - 1);
+        double capped = Math.min(exponential, maxBackoff.toNanos());
+        return (long) (capped * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+}
@@ -0,0 +1,18 @@
+package concurrency.practice.service;
+
+/**
+ * 샤드 재고에서 차감을 처음 시도할 샤드를 고르는 방식
+ */
+public enum ShardSelection {
+
+    /**
+     * 매번 무작위로 고른다. 요청이 샤드에 고르게 퍼진다.
+     */
+    RANDOM,
+
+    /**
+     * 스레드 id로 고른다. 같은 스레드는 항상 같은 샤드부터 시도하므로
+     * 스레드 수가 샤드 수 이하이면 스레드 간 경합이 거의 사라진다.
+     */
+    THREAD_AFFINE
+}
@@ -0,0 +1,211 @@
+package concurrency.practice.service;
+
+import static concurrency.practice.exception.PracticeErrorCode.INVENTORY_NOT_FOUND;
+import static concurrency.practice.exception.PracticeErrorCode.INVENTORY_NOT_SHARDED;
+import static concurrency.practice.exception.PracticeErrorCode.OUT_OF_STOCK;
+
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.config.OrderProperties;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.domain.InventoryShard;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.InventoryShardRepository;
+import concurrency.practice.stock.StockDeltaBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 샤드(분할) 재고 관리
+ *
+ * 하나의 재고를 N개의 InventoryShard 행으로 나누어 두고, 주문은 그중 한 샤드에서만 차감한다.
+ * 전체 재고는 샤드 재고의 합이며, 샤드로 분할된 뒤 Inventory.stock 은 0으로 유지된다.
+ * 입고와 취소로 돌아온 재고는 입고 버퍼(StockDeltaBuffer)를 거쳐 샤드에 더해진다.
+ *
+ * 주문마다 샤드 수를 세지 않도록 재고별 샤드 수를 캐시한다. 캐시는 다음 경우에 지운다.
+ * - 샤드를 나누거나 다시 나누는 트랜잭션이 시작할 때와 끝날 때 (커밋, 롤백 모두)
+ * - 차감이 모든 샤드를 잠그고 읽었는데 캐시와 샤드 수가 다를 때 (서비스를 거치지 않고 샤드가 바뀐 경우)
+ */
+@Service
+@RequiredArgsConstructor
+public class ShardedInventoryService {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryShardRepository inventoryShardRepository;
+    private final OrderProperties orderProperties;
+    private final InventoryCache inventoryCache;
+    private final StockDeltaBuffer stockDeltaBuffer;
+
+    // 재고별 샤드 수. 매 주문마다 샤드 수를 조회하지 않기 위해 캐시한다.
+    private final Map<Long, Integer> shardCounts = new ConcurrentHashMap<>();
+    // 캐시를 지울 때마다 오른다. 지우기 전에 DB에서 읽은 샤드 수가 지운 뒤에 캐시에 들어가지 않게 한다.
+    private final AtomicLong shardCountGeneration = new AtomicLong();
+
+    /**
+     * 재고를 shardCount 개의 샤드로 나눕니다.
+     * 이미 분할된 재고라면 남은 재고를 모아 새 샤드 수로 다시 나눕니다.
+     */
+    @Transactional
+    public void shard(Long inventoryId, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        // 분할 도중 새 주문이 원본 재고를 차감하지 못하도록 원본 행과 모든 샤드를 잠근다.
+        Inventory inventory = inventoryRepository.findByIdWithPessimisticLock(inventoryId)
+                .orElseThrow(() -> new PracticeException(INVENTORY_NOT_FOUND));
+        List<InventoryShard> shards = inventoryShardRepository.findAllByInventoryIdWithPessimisticLock(inventoryId);
+
+        long total = inventory.takeAllStock() + shards.stream().mapToLong(InventoryShard::getStock).sum();
+        inventoryCache.refreshAfterCommit(inventory);
+        redistribute(inventoryId, shards, shardCount, total);
+    }
+
+    /**
+     * 샤드별 재고가 고르지 않게 소진되었을 때 남은 재고를 모든 샤드에 균등하게 다시 나눕니다.
+     */
+    @Transactional
+    public void rebalance(Long inventoryId) {
+        List<InventoryShard> shards = inventoryShardRepository.findAllByInventoryIdWithPessimisticLock(inventoryId);
+        if (shards.isEmpty()) {
+            throw notSharded(inventoryId);
+        }
+        long total = shards.stream().mapToLong(InventoryShard::getStock).sum();
+        redistribute(inventoryId, shards, shards.size(), total);
+    }
+
+    /**
+     * 샤드 재고에서 quantity 만큼 차감합니다. 호출자의 트랜잭션 안에서 실행되어야 합니다.
+     */
+    @Transactional
+    public void decrease(Long inventoryId, long quantity) {
+        int shardCount = shardCount(inventoryId);
+        int start = selectShard(shardCount);
+
+        // 1. 선택한 샤드부터 차례로 조건부 UPDATE 를 시도한다. 성공한 샤드 하나만 잠긴다.
+        for (int i = 0; i < shardCount; i++) {
+            int shardIndex = (start + i) % shardCount;
+            if (inventoryShardRepository.decreaseStock(inventoryId, shardIndex, quantity) == 1) {
+                return;
+            }
+        }
+
+        // 2. 어느 샤드도 혼자서는 수량을 채우지 못했다면, 모든 샤드를 순서대로 잠그고 여러 샤드에서 나눠 차감한다.
+        decreaseAcrossShards(inventoryId, quantity, shardCount);
+    }
+
+    /**
+     * 모든 샤드 재고의 합계를 반환합니다.
+     */
+    @Transactional(readOnly = true)
+    public long totalStock(Long inventoryId) {
+        return inventoryShardRepository.sumStockByInventoryId(inventoryId);
+    }
+
+    private void decreaseAcrossShards(Long inventoryId, long quantity, int cachedShardCount) {
+        List<InventoryShard> shards = inventoryShardRepository.findAllByInventoryIdWithPessimisticLock(inventoryId);
+        if (shards.size() != cachedShardCount) {
+            evictShardCount(inventoryId);
+        }
+        if (shards.isEmpty()) {
+            throw notSharded(inventoryId);
+        }
+        long total = shards.stream().mapToLong(InventoryShard::getStock).sum();
+        if (total < quantity) {
+            // 아직 반영되지 않은 입고분이 있으면 잠근 샤드들에 더해 쓴다. 롤백되면 버퍼로 돌아간다.
+            stockDeltaBuffer.topUp(inventoryId, shards);
+            total = shards.stream().mapToLong(InventoryShard::getStock).sum();
+        }
+        if (total < quantity) {
+            throw new PracticeException(OUT_OF_STOCK);
+        }
+
+        long remaining = quantity;
+        for (InventoryShard shard : shards) {
+            long taken = Math.min(shard.getStock(), remaining);
+            shard.decrease(taken);
+            remaining -= taken;
+            if (remaining == 0) {
+                return;
+            }
+        }
+    }
+
+    private void redistribute(Long inventoryId, List<InventoryShard> shards, int shardCount, long total) {
+        long base = total / shardCount;
+        long remainder = total % shardCount;
+
+        for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+            long stock = base + (shardIndex < remainder ? 1 : 0);
+            if (shardIndex < shards.size()) {
+                shards.get(shardIndex).reassign(stock);
+            } else {
+                inventoryShardRepository.save(new InventoryShard(inventoryId, shardIndex, stock));
+            }
+        }
+        if (shards.size() > shardCount) {
+            inventoryShardRepository.deleteAll(shards.subList(shardCount, shards.size()));
+        }
+        evictShardCountAfterCompletion(inventoryId);
+    }
+
+    /**
+     * 샤드 수 캐시를 지금 지우고, 트랜잭션이 끝난 뒤 한 번 더 지웁니다.
+     * 커밋 전에 다른 주문이 옛 샤드 수를 다시 읽어 넣었더라도, 커밋 후 첫 주문이 새 샤드 수를 읽는다.
+     */
+    private void evictShardCountAfterCompletion(Long inventoryId) {
+        evictShardCount(inventoryId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictShardCount(inventoryId);
+                }
+            });
+        }
+    }
+
+    private void evictShardCount(Long inventoryId) {
+        shardCounts.compute(inventoryId, (id, cached) -> {
+            shardCountGeneration.incrementAndGet();
+            return null;
+        });
+    }
+
+    private int shardCount(Long inventoryId) {
+        Integer cached = shardCounts.get(inventoryId);
+        if (cached != null) {
+            return cached;
+        }
+        // 세대는 반드시 DB를 읽기 전에 본다.
+        long generation = shardCountGeneration.get();
+        int shardCount = (int) inventoryShardRepository.countByInventoryId(inventoryId);
+        if (shardCount == 0) {
+            throw notSharded(inventoryId);
+        }
+        shardCounts.compute(inventoryId, (id, current) ->
+                shardCountGeneration.get() == generation ? Integer.valueOf(shardCount) : current);
+        return shardCount;
+    }
+
+    private PracticeException notSharded(Long inventoryId) {
+        if (!inventoryRepository.existsById(inventoryId)) {
+            return new PracticeException(INVENTORY_NOT_FOUND);
+        }
+        return new PracticeException(INVENTORY_NOT_SHARDED);
+    }
+
+    private int selectShard(int shardCount) {
+        return switch (orderProperties.sharding().selection()) {
+            case RANDOM -> ThreadLocalRandom.current().nextInt(shardCount);
+            case THREAD_AFFINE -> (int) (Thread.currentThread().threadId() % shardCount);
+        };
+    }
+}
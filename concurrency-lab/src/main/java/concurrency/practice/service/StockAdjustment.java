@@ -0,0 +1,7 @@
+package concurrency.practice.service;
+
+/**
+ * 재고 조정 한 건. delta 가 양수면 입고, 음수면 차감
+ */
+public record StockAdjustment(Long inventoryId, long delta) {
+}
@@ -0,0 +1,31 @@
+package concurrency.practice.service;
+
+/**
+ * 주문 생성 시 재고를 차감하는 방식
+ */
+public enum StockStrategy {
+
+    /**
+     * SELECT ... FOR UPDATE 로 재고 행을 잠근 뒤 엔티티를 수정한다.
+     * 잠금은 트랜잭션이 끝날 때까지 유지된다.
+     */
+    PESSIMISTIC_LOCK,
+
+    /**
+     * UPDATE ... WHERE stock >= ? 한 문장으로 재고를 차감한다.
+     * 영향받은 행이 0이면 재고 부족으로 판단한다.
+     */
+    CONDITIONAL_UPDATE,
+
+    /**
+     * 재고를 여러 샤드 행으로 나누고, 그중 하나에서 조건부 UPDATE 로 차감한다.
+     * 재고는 미리 ShardedInventoryService#shard 로 분할되어 있어야 한다.
+     */
+    SHARDED,
+
+    /**
+     * 잠금 없이 재고를 읽고, Inventory.version 으로 충돌을 확인한다.
+     * 충돌하면 practice.order.stock-retry 정책에 따라 새 트랜잭션으로 다시 시도한다.
+     */
+    OPTIMISTIC_VERSION
+}
@@ -0,0 +1,357 @@
+package concurrency.practice.stock;
+
+import concurrency.practice.admission.InventoryAdmission;
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.config.InventoryStockProperties;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.domain.InventoryShard;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.InventoryShardRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 입고 버퍼: 입고/반품처럼 재고를 늘리는 변경을 메모리에 모았다가 묶음으로 재고 행에 반영한다.
+ *
+ * - 입고는 상품별 칸(stripe)에 더하기만 하므로 잠금도 DB 왕복도 없다. 같은 상품에 동시에 입고해도 스레드마다 다른 칸에 쌓인다.
+ * - 백그라운드 flusher 가 flushInterval 마다 쌓인 양을 getAndSet(0) 으로 꺼내, 상품 id 오름차순으로 잠그고 한 트랜잭션에 반영한다.
+ *   꺼낼 것이 없는 상품의 칸은 맵에서 빼므로, 한 번이라도 입고된 상품이 칸을 계속 차지하지 않는다.
+ * - 주문이 재고 부족을 만나면 그 상품의 버퍼를 자기 트랜잭션에서 바로 꺼내 잠근 행에 더한다. 따라서 버퍼에 쌓인 입고분은 반영 전에도 주문할 수 있다.
+ *   주문 트랜잭션이 롤백되면 꺼낸 양은 버퍼로 돌아간다.
+ *
+ * 샤드로 나뉜 상품(ShardedInventoryService)은 재고 행이 아니라 샤드 재고를 판다. 그래서 반영할 때 입고분을 샤드들에 고르게 나눠 더하고,
+ * 샤드 주문이 재고 부족을 만나면 잠근 샤드들에 버퍼를 더한다.
+ * 입고분을 버퍼에 더하면 InventoryCache 의 재고 변경 리스너(예약 원장)에게 바로 알린다.
+ *
+ * 재고를 줄이는 조정은 음수가 될 수 없다는 조건을 지켜야 하므로 버퍼에 쌓지 않고 바로 조건부 UPDATE 로 반영한다.
+ * 존재하지 않는 상품에 쌓인 입고분은 반영할 때 경고를 남기고 버린다.
+ *
+ * 버퍼는 메모리에만 있다. 정상 종료 때는 남은 입고분을 모두 반영하지만, 프로세스가 죽으면 반영 전의 입고/취소분
+ * (최대 flushInterval 동안 쌓인 양)은 사라진다. 잃으면 안 되는 입고는 InventoryStockService 가 아니라 재고 행에 바로 반영해야 한다.
+ */
+@Slf4j
+@Component
+public class StockDeltaBuffer {
+
+    // 칸끼리 같은 캐시 라인을 나눠 쓰지 않도록 칸 사이를 long 8개(64 byte)만큼 띄운다.
+    private static final int PADDING = 8;
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryShardRepository inventoryShardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryCache inventoryCache;
+    private final InventoryAdmission inventoryAdmission;
+    private final int stripes;
+    private final int maxBatchSize;
+
+    private final Map<Long, AtomicLongArray> pending = new ConcurrentHashMap<>();
+    private final LongAdder flushedDeltas = new LongAdder();
+    private final LongAdder drainedByOrders = new LongAdder();
+    private final ScheduledExecutorService flusher;
+
+    public StockDeltaBuffer(InventoryRepository inventoryRepository,
+                            InventoryShardRepository inventoryShardRepository,
+                            TransactionTemplate transactionTemplate,
+                            InventoryCache inventoryCache,
+                            InventoryAdmission inventoryAdmission,
+                            InventoryStockProperties properties) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryShardRepository = inventoryShardRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.inventoryCache = inventoryCache;
+        this.inventoryAdmission = inventoryAdmission;
+        this.stripes = properties.stripes() <= 1 ? 1 : Integer.highestOneBit(properties.stripes() - 1) << 1;
+        this.maxBatchSize = properties.maxBatchSize();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-buffer-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.flushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushAllQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 입고분을 버퍼에 더합니다. 품절 표시는 바로 지워져 다음 주문부터 버퍼의 재고를 쓸 수 있습니다.
+     */
+    public void add(Long inventoryId, long quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("buffered quantity must be positive: " + quantity);
+        }
+        addToCells(inventoryId, quantity);
+        inventoryAdmission.clearSoldOut(inventoryId);
+        inventoryCache.notifyStockChanged(inventoryId);
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋되면 입고분을 버퍼에 더합니다. 롤백되면 아무것도 더하지 않습니다.
+     * 주문 취소처럼 다른 행의 변경과 함께 재고를 돌려줘야 할 때 사용합니다.
+     */
+    public void addAfterCommit(Long inventoryId, long quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(inventoryId, quantity);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(inventoryId, quantity);
+            }
+        });
+    }
+
+    /**
+     * 아직 재고 행에 반영되지 않은 입고분
+     */
+    public long pending(Long inventoryId) {
+        AtomicLongArray cells = pending.get(inventoryId);
+        if (cells == null) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * 재고가 모자란 주문이 잠근 재고 행에 버퍼의 입고분을 더합니다. 호출자의 트랜잭션 안에서 실행되어야 합니다.
+     */
+    public void topUp(Inventory inventory) {
+        long drained = drainForTransaction(inventory.getId());
+        if (drained > 0) {
+            inventory.increase(drained);
+            inventoryCache.refreshAfterCommit(inventory);
+        }
+    }
+
+    /**
+     * 재고가 모자란 샤드 주문이 잠근 샤드들에 버퍼의 입고분을 고르게 나눠 더합니다. 호출자의 트랜잭션 안에서 실행되어야 합니다.
+     *
+     * @param shards 호출자가 잠근, 한 상품의 모든 샤드
+     */
+    public void topUp(Long inventoryId, List<InventoryShard> shards) {
+        if (shards.isEmpty()) {
+            return;
+        }
+        long drained = drainForTransaction(inventoryId);
+        if (drained > 0) {
+            spread(shards, drained);
+        }
+    }
+
+    /**
+     * 조건부 UPDATE 로 재고를 차감하고, 모자라면 버퍼의 입고분을 같은 트랜잭션에서 행에 더한 뒤 한 번 더 차감합니다.
+     *
+     * @return 차감된 행의 수 (0 이면 버퍼를 더해도 모자라거나 상품이 없다)
+     */
+    public int decreaseStock(Long inventoryId, long quantity) {
+        if (inventoryRepository.decreaseStock(inventoryId, quantity) == 1) {
+            return 1;
+        }
+        long drained = drainForTransaction(inventoryId);
+        if (drained == 0) {
+            return 0;
+        }
+        inventoryRepository.increaseStock(inventoryId, drained);
+        return inventoryRepository.decreaseStock(inventoryId, quantity);
+    }
+
+    /**
+     * 쌓인 입고분을 최대 maxBatchSize 개 상품만큼 꺼내 한 트랜잭션으로 반영합니다.
+     *
+     * @return 반영한 상품 수
+     */
+    public int flush() {
+        // TreeMap 이므로 잠금은 항상 재고 id 오름차순으로 잡힌다.
+        Map<Long, Long> batch = new TreeMap<>();
+        for (Map.Entry<Long, AtomicLongArray> entry : pending.entrySet()) {
+            if (batch.size() >= maxBatchSize) {
+                break;
+            }
+            long drained = drain(entry.getValue());
+            if (drained > 0) {
+                batch.put(entry.getKey(), drained);
+            } else {
+                retire(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(batch));
+        } catch (RuntimeException e) {
+            // 트랜잭션이 통째로 롤백되었으므로 꺼낸 입고분을 모두 버퍼로 돌려 다음 주기에 다시 시도한다.
+            batch.forEach(this::add);
+            throw e;
+        }
+        batch.values().forEach(flushedDeltas::add);
+        return batch.size();
+    }
+
+    /**
+     * 버퍼가 빌 때까지 반영합니다.
+     */
+    public void flushAll() {
+        while (flush() > 0) {
+            // 반복
+        }
+    }
+
+    /**
+     * 칸을 가진 상품 수 (비어 있어도 다음 반영에서 빠지기 전까지는 센다)
+     */
+    public int bufferedInventoryCount() {
+        return pending.size();
+    }
+
+    /**
+     * flusher 가 버퍼에서 꺼내 처리한 입고량 (없는 상품이라 경고를 남기고 버린 양 포함)
+     */
+    public long flushedDeltas() {
+        return flushedDeltas.sum();
+    }
+
+    /**
+     * 재고가 모자란 주문이 반영 전에 가져다 쓴 입고량
+     */
+    public long drainedByOrders() {
+        return drainedByOrders.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAllQuietly();
+    }
+
+    /**
+     * batch 는 읽기만 한다. 실패하면 호출자가 batch 전체를 버퍼로 되돌리기 때문이다.
+     */
+    private void apply(Map<Long, Long> batch) {
+        // 재고 행을 먼저 잠근다. 샤드 분할(ShardedInventoryService.shard)도 재고 행, 샤드 순서로 잠그므로,
+        // 잠근 뒤 읽은 샤드 목록은 반영이 끝날 때까지 바뀌지 않는다.
+        List<Inventory> inventories = inventoryRepository.findAllByIdInWithPessimisticLock(batch.keySet());
+        Map<Long, List<InventoryShard>> shardsByInventory = new TreeMap<>();
+        for (InventoryShard shard : inventoryShardRepository.findAllByInventoryIdInWithPessimisticLock(batch.keySet())) {
+            shardsByInventory.computeIfAbsent(shard.getInventoryId(), id -> new ArrayList<>()).add(shard);
+        }
+        Set<Long> missing = new HashSet<>(batch.keySet());
+        for (Inventory inventory : inventories) {
+            // 엔티티를 고치면 hibernate.jdbc.batch_size 단위로 UPDATE 가 묶여 나간다.
+            List<InventoryShard> shards = shardsByInventory.get(inventory.getId());
+            if (shards == null) {
+                inventory.increase(batch.get(inventory.getId()));
+                inventoryCache.refreshAfterCommit(inventory);
+            } else {
+                spread(shards, batch.get(inventory.getId()));
+            }
+            missing.remove(inventory.getId());
+            inventoryAdmission.clearSoldOutAfterCommit(inventory.getId());
+        }
+        missing.forEach(inventoryId -> log.warn("dropping buffered stock for missing inventory: inventoryId={}, delta={}",
+                inventoryId, batch.get(inventoryId)));
+    }
+
+    /**
+     * 상품의 칸에 더합니다. 더한 뒤 칸이 맵에서 빠져 있으면(retire) 그 칸의 양을 꺼내 새 칸에 다시 더한다.
+     * retire 도 맵에서 뺀 뒤 칸을 한 번 더 비우므로, 어느 쪽이 먼저 꺼내든 getAndSet 덕분에 입고분은 한 번만 옮겨진다.
+     */
+    private void addToCells(Long inventoryId, long quantity) {
+        int stripe = (int) (Thread.currentThread().threadId() * 0x9E3779B9L >>> 16) & (stripes - 1);
+        while (quantity > 0) {
+            AtomicLongArray cells = pending.computeIfAbsent(inventoryId, id -> new AtomicLongArray(stripes * PADDING));
+            cells.addAndGet(stripe * PADDING, quantity);
+            if (pending.get(inventoryId) == cells) {
+                return;
+            }
+            quantity = drain(cells);
+        }
+    }
+
+    /**
+     * 비어 있던 상품의 칸을 맵에서 뺍니다. 빼기 직전에 더해진 양은 다시 꺼내 새 칸으로 옮긴다.
+     */
+    private void retire(Long inventoryId, AtomicLongArray cells) {
+        if (pending.remove(inventoryId, cells)) {
+            long late = drain(cells);
+            if (late > 0) {
+                addToCells(inventoryId, late);
+            }
+        }
+    }
+
+    /**
+     * 샤드들에 quantity 를 고르게 나눠 더합니다. 나머지는 앞 샤드부터 하나씩 더한다.
+     */
+    private static void spread(List<InventoryShard> shards, long quantity) {
+        long base = quantity / shards.size();
+        long remainder = quantity % shards.size();
+        for (int i = 0; i < shards.size(); i++) {
+            long share = base + (i < remainder ? 1 : 0);
+            if (share > 0) {
+                shards.get(i).increase(share);
+            }
+        }
+    }
+
+    private long drainForTransaction(Long inventoryId) {
+        AtomicLongArray cells = pending.get(inventoryId);
+        long drained = cells == null ? 0 : drain(cells);
+        if (drained == 0) {
+            return 0;
+        }
+        drainedByOrders.add(drained);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    // 주문이 롤백되어 행에 더한 입고분도 사라졌다. 버퍼로 되돌린다.
+                    drainedByOrders.add(-drained);
+                    add(inventoryId, drained);
+                }
+            }
+        });
+        return drained;
+    }
+
+    private long drain(AtomicLongArray cells) {
+        long drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += cells.getAndSet(i * PADDING, 0);
+        }
+        return drained;
+    }
+
+    private void flushAllQuietly() {
+        try {
+            flushAll();
+        } catch (RuntimeException e) {
+            log.warn("stock buffer flush failed, will retry", e);
+        }
+    }
+}
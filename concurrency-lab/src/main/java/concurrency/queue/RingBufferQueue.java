@@ -0,0 +1,290 @@
+package concurrency.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 미리 할당한 배열 위에서 동작하는 lock-free 다중 생산자 / 다중 소비자(MPMC) 링 버퍼
+ *
+ * - 요소마다 노드를 만드는 LinkedBlockingQueue 와 달리 넣고 뺄 때 객체를 할당하지 않는다.
+ * - 잠금 대신 슬롯마다 순번(sequence)을 두고, 생산자/소비자 위치를 CAS 로 차지한다. (Dmitry Vyukov 의 bounded MPMC queue)
+ * - 생산자 위치와 소비자 위치는 서로 다른 캐시 라인에 놓이도록 앞뒤를 채워(padding) 거짓 공유를 막는다.
+ * - 가득 차거나 비었을 때 블로킹 메서드(put/take)가 기다리는 방식은 WaitStrategy 로 고른다.
+ *
+ * 슬롯 i 의 순번이 뜻하는 것 (pos 는 i 번 슬롯을 가리키는 생산자/소비자 위치):
+ * - sequence == pos       : 비어 있어 위치 pos 의 생산자가 쓸 수 있다
+ * - sequence == pos + 1   : 위치 pos 의 값이 들어 있어 소비자가 꺼낼 수 있다
+ * - sequence == pos + cap : 꺼내졌으므로 한 바퀴 뒤(pos + cap)의 생산자가 쓸 수 있다
+ *
+ * iterator() 는 약한 일관성(weakly consistent)만 보장하며 remove 를 지원하지 않는다.
+ */
+public class RingBufferQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final WaitStrategy waitStrategy;
+
+    private final PaddedPosition enqueuePosition = new PaddedPosition();
+    private final PaddedPosition dequeuePosition = new PaddedPosition();
+
+    /**
+     * @param capacity 2의 거듭제곱으로 올림된다
+     */
+    public RingBufferQueue(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2: " + capacity);
+        }
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.buffer = new Object[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.waitStrategy = Objects.requireNonNull(waitStrategy);
+    }
+
+    // ===== Queue =====
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        long position = enqueuePosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    buffer[index] = e;
+                    // 값을 쓴 뒤 순번을 올려 소비자에게 공개한다. (release: 값 쓰기가 순번보다 먼저 보인다)
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                // 한 바퀴 전의 값이 아직 꺼내지지 않았다: 가득 참
+                return false;
+            } else {
+                // 다른 생산자가 이 위치를 먼저 가져갔다
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = dequeuePosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    E e = (E) buffer[index];
+                    buffer[index] = null;
+                    // 슬롯을 한 바퀴 뒤의 생산자에게 넘긴다.
+                    sequences.setRelease(index, position + capacity);
+                    return e;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                // 아직 값이 쓰이지 않았다: 비어 있음
+                return null;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        while (true) {
+            long position = dequeuePosition.get();
+            int index = (int) position & mask;
+            if (sequences.getAcquire(index) != position + 1) {
+                if (position == dequeuePosition.get()) {
+                    return null;
+                }
+                continue;
+            }
+            E e = (E) buffer[index];
+            // 읽는 사이에 다른 소비자가 꺼내 갔다면 다시 본다.
+            if (e != null && position == dequeuePosition.get()) {
+                return e;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        // 두 위치를 따로 읽으므로 동시 수정 중에는 근사값이다.
+        long size = enqueuePosition.get() - dequeuePosition.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        // 현재 꺼낼 수 있는 값들의 스냅샷을 순회한다.
+        List<E> snapshot = new ArrayList<>();
+        long from = dequeuePosition.get();
+        long to = enqueuePosition.get();
+        for (long position = from; position < to && position < from + capacity; position++) {
+            int index = (int) position & mask;
+            Object e = buffer[index];
+            if (sequences.getAcquire(index) == position + 1 && e != null) {
+                snapshot.add((E) e);
+            }
+        }
+        Iterator<E> delegate = snapshot.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return delegate.next();
+            }
+        };
+    }
+
+    // ===== BlockingQueue =====
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        for (int attempt = 0; !offer(e); attempt++) {
+            checkInterrupted();
+            waitStrategy.idle(attempt);
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; !offer(e); attempt++) {
+            checkInterrupted();
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            waitStrategy.idle(attempt);
+        }
+        return true;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E e;
+        for (int attempt = 0; (e = poll()) == null; attempt++) {
+            checkInterrupted();
+            waitStrategy.idle(attempt);
+        }
+        return e;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        E e;
+        for (int attempt = 0; (e = poll()) == null; attempt++) {
+            checkInterrupted();
+            if (System.nanoTime() - deadline >= 0) {
+                return null;
+            }
+            waitStrategy.idle(attempt);
+        }
+        return e;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException("cannot drain a queue into itself");
+        }
+        int drained = 0;
+        E e;
+        while (drained < maxElements && (e = poll()) != null) {
+            c.add(e);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    // ===== 캐시 라인 패딩 =====
+    // 필드 배치 순서는 JVM 이 정하지만, 상속 계층이 다른 필드는 부모 클래스 것부터 놓이므로
+    // 앞뒤 클래스의 long 7개(56바이트)가 value 를 다른 필드들과 서로 다른 64바이트 캐시 라인으로 떼어 놓는다.
+
+    @SuppressWarnings("unused")
+    private static class LeftPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    private static class PositionValue extends LeftPadding {
+        volatile long value;
+    }
+
+    @SuppressWarnings("unused")
+    private static class RightPadding extends PositionValue {
+        long p11, p12, p13, p14, p15, p16, p17;
+    }
+
+    private static final class PaddedPosition extends RightPadding {
+
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(PositionValue.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        long get() {
+            return value;
+        }
+
+        boolean compareAndSet(long expected, long next) {
+            return VALUE.compareAndSet(this, expected, next);
+        }
+    }
+}
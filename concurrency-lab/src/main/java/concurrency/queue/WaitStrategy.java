@@ -0,0 +1,62 @@
+package concurrency.queue;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 링 버퍼가 가득 차거나 비어 있을 때 생산자/소비자가 기다리는 방식
+ *
+ * 지연 시간과 CPU 사용량 사이의 선택이다. 스레드 수가 코어 수보다 많으면 BUSY_SPIN 은 오히려 느려진다.
+ */
+public enum WaitStrategy {
+
+    /**
+     * 코어를 놓지 않고 계속 다시 확인한다. 지연 시간은 가장 짧지만 기다리는 동안 코어 하나를 100% 쓴다.
+     */
+    BUSY_SPIN {
+        @Override
+        public void idle(int attempt) {
+            Thread.onSpinWait();
+        }
+    },
+
+    /**
+     * 잠깐 돌다가 다른 스레드에게 코어를 양보한다. (ConcurrencyTest 의 소비자가 쓰던 방식)
+     */
+    YIELD {
+        @Override
+        public void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+
+    /**
+     * 잠깐 돌고, 양보하고, 그래도 안 되면 짧게 잠든다. CPU 는 가장 적게 쓰지만 깨어나는 데 수십 us 가 걸린다.
+     */
+    PARK {
+        @Override
+        public void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 10;
+    private static final long PARK_NANOS = 50_000;
+
+    /**
+     * 한 번 기다립니다.
+     *
+     * @param attempt 이번 대기에서 지금까지 다시 확인한 횟수 (0부터)
+     */
+    public abstract void idle(int attempt);
+}
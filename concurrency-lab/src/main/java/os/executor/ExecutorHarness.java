@@ -0,0 +1,221 @@
+package os.executor;
+
+import concurrency.practice.PracticeApplication;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.service.OrderService;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * ContextSwitchTest 를 확장한 실행기 비교 하네스
+ *
+ * 같은 작업을 플랫폼 스레드(작업당 1개), 코어 수 고정 풀, ForkJoinPool, 가상 스레드(작업당 1개)로 실행하고
+ * 처리량, 지연 시간 분포(제출 ~ 완료), 최대 스레드 수, 최대 RSS 를 비교한다.
+ *
+ * 사용법: ExecutorHarness [cpu|sleep|order] [작업 수]
+ * - cpu   : ContextSwitchTest 와 같은 부동소수점 연산 10,000,000번을 작업 수만큼 나눠 수행
+ * - sleep : 작업마다 10ms 블로킹 (I/O 대기 흉내)
+ * - order : 작업마다 H2 위의 OrderService.createOrder 호출 (JDBC 블로킹)
+ *
+ * 예상 경향: cpu 는 코어 수 고정 풀이 가장 빠르고 작업당 플랫폼 스레드가 가장 느리다.
+ * sleep 은 가상 스레드가 고정 풀보다 작업 수 / 코어 수 배 가까이 빠르며, 플랫폼 스레드보다 RSS 가 훨씬 작다.
+ * order 는 커넥션 풀 크기가 상한이므로 가상 스레드도 풀 크기 이상으로는 빨라지지 않는다.
+ */
+public class ExecutorHarness {
+
+    private static final long CPU_TOTAL_ITERATIONS = 10_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        String workloadName = args.length > 0 ? args[0] : "cpu";
+        int taskCount = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+
+        ConfigurableApplicationContext context = null;
+        Workload workload;
+        switch (workloadName) {
+            case "cpu" -> workload = Workload.cpuBound(CPU_TOTAL_ITERATIONS, taskCount);
+            case "sleep" -> workload = Workload.blockingSleep(10);
+            case "order" -> {
+                context = new SpringApplicationBuilder(PracticeApplication.class)
+                        .web(WebApplicationType.NONE)
+                        .run();
+                OrderService orderService = context.getBean(OrderService.class);
+                Long inventoryId = context.getBean(InventoryRepository.class)
+                        .save(new Inventory("Harness Product", Long.MAX_VALUE / 2))
+                        .getId();
+                workload = taskIndex -> orderService.createOrder(inventoryId, 1);
+            }
+            default -> throw new IllegalArgumentException("unknown workload: " + workloadName);
+        }
+
+        System.out.println(workloadName + " 작업 " + taskCount + "개 실행 결과");
+        try {
+            for (ExecutorType executorType : ExecutorType.values()) {
+                System.out.println(run(executorType, workload, taskCount));
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * executorType 으로 taskCount 개의 작업을 실행하고 결과를 측정합니다.
+     */
+    public static HarnessResult run(ExecutorType executorType, Workload workload, int taskCount)
+            throws InterruptedException {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        threadMXBean.resetPeakThreadCount();
+        System.gc();
+
+        long[] latencies = new long[taskCount];
+        AtomicInteger failures = new AtomicInteger();
+        RssSampler rssSampler = RssSampler.start();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = executorType.create()) {
+            List<Future<?>> futures = new ArrayList<>(taskCount);
+            for (int i = 0; i < taskCount; i++) {
+                int taskIndex = i;
+                long submittedAt = System.nanoTime();
+                try {
+                    futures.add(executor.submit(() -> {
+                        try {
+                            workload.run(taskIndex);
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        } finally {
+                            latencies[taskIndex] = System.nanoTime() - submittedAt;
+                        }
+                    }));
+                } catch (OutOfMemoryError e) {
+                    // 작업당 플랫폼 스레드는 OS 스레드 한도에 걸려 스레드를 더 만들지 못할 수 있다.
+                    failures.addAndGet(taskCount - i);
+                    break;
+                }
+            }
+            // ExecutorService#close 가 모든 작업이 끝날 때까지 기다린다.
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        long peakRssKb = rssSampler.stop();
+        Arrays.sort(latencies);
+        return new HarnessResult(
+                executorType,
+                taskCount,
+                failures.get(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                taskCount * 1_000_000_000.0 / elapsedNanos,
+                percentileMicros(latencies, 0.50),
+                percentileMicros(latencies, 0.99),
+                percentileMicros(latencies, 0.999),
+                TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length - 1]),
+                threadMXBean.getPeakThreadCount(),
+                peakRssKb);
+    }
+
+    private static long percentileMicros(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(sortedNanos.length * percentile) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sortedNanos[Math.max(0, index)]);
+    }
+
+    /**
+     * 측정 결과 한 줄
+     */
+    public record HarnessResult(
+            ExecutorType executorType,
+            int taskCount,
+            int failures,
+            long elapsedMillis,
+            double tasksPerSecond,
+            long p50Micros,
+            long p99Micros,
+            long p999Micros,
+            long maxMicros,
+            int peakThreads,
+            long peakRssKb
+    ) {
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%-18s 소요 %6dms | %,10.0f tasks/s | p50 %,9dus p99 %,9dus p99.9 %,9dus max %,9dus"
+                            + " | 최대 스레드 %,6d | 최대 RSS %,8dKB | 실패 %d",
+                    executorType, elapsedMillis, tasksPerSecond, p50Micros, p99Micros, p999Micros, maxMicros,
+                    peakThreads, peakRssKb, failures);
+        }
+    }
+
+    /**
+     * 측정하는 동안 /proc/self/status 의 VmRSS 를 주기적으로 읽어 최댓값을 기록한다.
+     * /proc 이 없는 환경(macOS 등)에서는 힙 사용량으로 대신한다.
+     */
+    private static final class RssSampler implements Runnable {
+
+        private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+        private final AtomicLong peakKb = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private RssSampler() {
+            this.thread = Thread.ofPlatform().daemon().name("rss-sampler").unstarted(this);
+        }
+
+        static RssSampler start() {
+            RssSampler sampler = new RssSampler();
+            sampler.thread.start();
+            return sampler;
+        }
+
+        long stop() throws InterruptedException {
+            running = false;
+            thread.join();
+            return peakKb.get();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                peakKb.accumulateAndGet(currentRssKb(), Math::max);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            peakKb.accumulateAndGet(currentRssKb(), Math::max);
+        }
+
+        private static long currentRssKb() {
+            if (Files.isReadable(PROC_STATUS)) {
+                try {
+                    for (String line : Files.readAllLines(PROC_STATUS)) {
+                        if (line.startsWith("VmRSS:")) {
+                            return Long.parseLong(line.replaceAll("\\D", ""));
+                        }
+                    }
+                } catch (IOException | NumberFormatException e) {
+                    // 아래의 힙 사용량으로 대신한다.
+                }
+            }
+            Runtime runtime = Runtime.getRuntime();
+            return (runtime.totalMemory() - runtime.freeMemory()) / 1024;
+        }
+    }
+}
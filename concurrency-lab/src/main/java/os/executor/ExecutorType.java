@@ -0,0 +1,53 @@
+package os.executor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 하네스에서 비교하는 실행기 종류
+ */
+public enum ExecutorType {
+
+    /**
+     * 작업마다 플랫폼(OS) 스레드를 새로 만든다. ContextSwitchTest 의 50,000개 스레드 실험과 같은 방식.
+     */
+    PLATFORM_PER_TASK {
+        @Override
+        public ExecutorService create() {
+            return Executors.newThreadPerTaskExecutor(Thread.ofPlatform().name("platform-", 0).factory());
+        }
+    },
+
+    /**
+     * 코어 수만큼의 플랫폼 스레드를 재사용한다.
+     */
+    FIXED_POOL {
+        @Override
+        public ExecutorService create() {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    },
+
+    /**
+     * 코어 수만큼의 work-stealing 스레드를 재사용한다.
+     */
+    FORK_JOIN_POOL {
+        @Override
+        public ExecutorService create() {
+            return new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+    },
+
+    /**
+     * 작업마다 가상 스레드를 만든다. 블로킹되면 캐리어(플랫폼) 스레드를 놓아주므로 I/O 대기가 많은 작업에 유리하다.
+     */
+    VIRTUAL_PER_TASK {
+        @Override
+        public ExecutorService create() {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+    };
+
+    public abstract ExecutorService create();
+}
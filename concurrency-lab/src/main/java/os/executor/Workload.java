@@ -0,0 +1,37 @@
+package os.executor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 하네스가 작업마다 실행하는 일
+ */
+@FunctionalInterface
+public interface Workload {
+
+    void run(int taskIndex) throws Exception;
+
+    /**
+     * ContextSwitchTest 와 같은 부동소수점 연산을 totalIterations / taskCount 번 수행한다.
+     */
+    static Workload cpuBound(long totalIterations, int taskCount) {
+        long iterationsPerTask = totalIterations / taskCount;
+        return taskIndex -> {
+            long localSum = 0;
+            for (long j = 0; j < iterationsPerTask; j++) {
+                double val = Math.sin(j) * Math.cos(j) + Math.sqrt(j);
+                localSum += (long) val;
+            }
+            // JIT 최적화 방지용 (계산 결과를 무의미하지 않게 만듦)
+            if (localSum == -1) {
+                System.out.println(localSum);
+            }
+        };
+    }
+
+    /**
+     * 블로킹 I/O 를 흉내 내어 지정한 시간 동안 잠든다.
+     */
+    static Workload blockingSleep(long millis) {
+        return taskIndex -> TimeUnit.MILLISECONDS.sleep(millis);
+    }
+}
@@ -0,0 +1,81 @@
+package os.matrix;
+
+import java.util.Arrays;
+
+/**
+ * 1차원 배열 하나에 행 우선(row-major)으로 저장한 int 행렬
+ *
+ * int[][] 는 행마다 별도의 배열 객체라서, 행을 넘어갈 때마다 참조를 따라가야 하고(pointer chasing)
+ * 행들이 힙 곳곳에 흩어질 수 있다. 한 배열에 이어 붙이면 [i][j] 는 data[i * cols + j] 로 바로 계산되고,
+ * 다음 행의 시작도 이전 행의 끝 바로 뒤에 있으므로 하드웨어 프리페처가 끊기지 않는다.
+ */
+public final class IntMatrix {
+
+    private final int rows;
+    private final int cols;
+    private final int[] data;
+
+    public IntMatrix(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("matrix size must be positive: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.data = new int[Math.multiplyExact(rows, cols)];
+    }
+
+    public static IntMatrix from(int[][] source) {
+        IntMatrix matrix = new IntMatrix(source.length, source[0].length);
+        for (int i = 0; i < matrix.rows; i++) {
+            System.arraycopy(source[i], 0, matrix.data, i * matrix.cols, matrix.cols);
+        }
+        return matrix;
+    }
+
+    public int[][] toArray() {
+        int[][] result = new int[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(data, i * cols, result[i], 0, cols);
+        }
+        return result;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int get(int row, int col) {
+        return data[row * cols + col];
+    }
+
+    public void set(int row, int col, int value) {
+        data[row * cols + col] = value;
+    }
+
+    /**
+     * 커널에서 경계 검사와 메서드 호출 없이 직접 접근하기 위한 내부 배열
+     */
+    int[] data() {
+        return data;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntMatrix other)) {
+            return false;
+        }
+        return rows == other.rows && cols == other.cols && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * rows + cols) + Arrays.hashCode(data);
+    }
+}
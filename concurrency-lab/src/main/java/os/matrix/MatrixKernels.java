@@ -0,0 +1,254 @@
+package os.matrix;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 캐시를 고려한 행렬 커널 모음 (MatrixTest 의 행 우선 / 열 우선 실험을 실제 연산으로 옮긴 것)
+ *
+ * 1. naive  : int[][] 위에서 교과서 순서 그대로 계산한다. 곱셈의 안쪽 루프가 B 를 열 방향으로 훑어 매번 캐시 미스가 난다.
+ * 2. flat   : IntMatrix 위에서 루프 순서를 i-k-j 로 바꿔 안쪽 루프가 항상 연속된 메모리를 훑게 한다.
+ * 3. tiled  : tile x tile 블록 단위로 나눠, 블록 세 개(A, B, C)가 L1/L2 에 함께 들어가는 동안 재사용한다.
+ * 4. parallel tiled : 결과 행렬의 행 블록을 ForkJoin 작업으로 나눠 코어마다 다른 블록을 계산한다.
+ *
+ * tile 크기는 (tile * tile * 4바이트 * 3) 이 L1(보통 32~48KB) 또는 L2 에 들어가도록 고른다. 32 ~ 64 가 무난하다.
+ * 행렬 값은 int 이며, 곱셈 결과가 int 범위를 넘으면 자바의 int 연산과 같이 넘쳐서 돈다.
+ */
+public final class MatrixKernels {
+
+    public static final int DEFAULT_TILE = 64;
+
+    // 이보다 작은 행 블록 묶음은 더 나누지 않고 한 작업에서 처리한다.
+    private static final int PARALLEL_THRESHOLD_TILES = 1;
+
+    private MatrixKernels() {
+    }
+
+    // ===== 전치 (transpose) =====
+
+    /**
+     * int[][] 전치. 읽기는 행 방향이지만 쓰기가 열 방향이라 행마다 다른 배열로 건너뛴다.
+     */
+    public static int[][] naiveTranspose(int[][] source) {
+        int rows = source.length;
+        int cols = source[0].length;
+        int[][] result = new int[cols][rows];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                result[j][i] = source[i][j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 평탄한 배열 위의 전치. pointer chasing 은 없지만 쓰기는 여전히 cols 간격으로 건너뛴다.
+     */
+    public static IntMatrix transpose(IntMatrix source) {
+        int rows = source.rows();
+        int cols = source.cols();
+        int[] a = source.data();
+        IntMatrix result = new IntMatrix(cols, rows);
+        int[] t = result.data();
+        for (int i = 0; i < rows; i++) {
+            int rowOffset = i * cols;
+            for (int j = 0; j < cols; j++) {
+                t[j * rows + i] = a[rowOffset + j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 블록 단위 전치. tile x tile 블록 안에서는 읽는 줄과 쓰는 줄이 모두 캐시에 머문다.
+     */
+    public static IntMatrix tiledTranspose(IntMatrix source, int tile) {
+        checkTile(tile);
+        IntMatrix result = new IntMatrix(source.cols(), source.rows());
+        transposeRowTiles(source, result, tile, 0, source.rows());
+        return result;
+    }
+
+    /**
+     * 블록 단위 전치를 행 블록별로 나눠 병렬로 수행한다.
+     */
+    public static IntMatrix parallelTiledTranspose(IntMatrix source, int tile, ForkJoinPool pool) {
+        checkTile(tile);
+        IntMatrix result = new IntMatrix(source.cols(), source.rows());
+        pool.invoke(new RowTileTask(source.rows(), tile,
+                (from, to) -> transposeRowTiles(source, result, tile, from, to)));
+        return result;
+    }
+
+    // ===== 곱셈 (multiply) =====
+
+    /**
+     * int[][] 곱셈 (i-j-k). 안쪽 루프의 b[k][j] 가 매번 다른 행 배열로 건너뛴다.
+     */
+    public static int[][] naiveMultiply(int[][] a, int[][] b) {
+        int n = a.length;
+        int m = a[0].length;
+        int p = b[0].length;
+        checkMultipliable(m, b.length);
+        int[][] c = new int[n][p];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < p; j++) {
+                int sum = 0;
+                for (int k = 0; k < m; k++) {
+                    sum += a[i][k] * b[k][j];
+                }
+                c[i][j] = sum;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * 평탄한 배열 위의 곱셈 (i-k-j). 안쪽 루프가 B 와 C 의 한 행을 연속으로 훑는다.
+     */
+    public static IntMatrix multiply(IntMatrix a, IntMatrix b) {
+        checkMultipliable(a.cols(), b.rows());
+        IntMatrix c = new IntMatrix(a.rows(), b.cols());
+        int n = a.rows();
+        int m = a.cols();
+        int p = b.cols();
+        int[] ad = a.data();
+        int[] bd = b.data();
+        int[] cd = c.data();
+        for (int i = 0; i < n; i++) {
+            int cRow = i * p;
+            for (int k = 0; k < m; k++) {
+                int aik = ad[i * m + k];
+                int bRow = k * p;
+                for (int j = 0; j < p; j++) {
+                    cd[cRow + j] += aik * bd[bRow + j];
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * 블록 단위 곱셈. A, B, C 의 tile x tile 블록이 캐시에 머무는 동안 최대한 재사용한다.
+     */
+    public static IntMatrix tiledMultiply(IntMatrix a, IntMatrix b, int tile) {
+        checkTile(tile);
+        checkMultipliable(a.cols(), b.rows());
+        IntMatrix c = new IntMatrix(a.rows(), b.cols());
+        multiplyRowTiles(a, b, c, tile, 0, a.rows());
+        return c;
+    }
+
+    /**
+     * 블록 단위 곱셈을 결과 행렬의 행 블록별로 나눠 병렬로 수행한다.
+     * 각 작업은 서로 다른 C 의 행에만 쓰므로 동기화가 필요 없다.
+     */
+    public static IntMatrix parallelTiledMultiply(IntMatrix a, IntMatrix b, int tile, ForkJoinPool pool) {
+        checkTile(tile);
+        checkMultipliable(a.cols(), b.rows());
+        IntMatrix c = new IntMatrix(a.rows(), b.cols());
+        pool.invoke(new RowTileTask(a.rows(), tile,
+                (from, to) -> multiplyRowTiles(a, b, c, tile, from, to)));
+        return c;
+    }
+
+    // ===== 내부 구현 =====
+
+    private static void transposeRowTiles(IntMatrix source, IntMatrix result, int tile, int rowFrom, int rowTo) {
+        int rows = source.rows();
+        int cols = source.cols();
+        int[] a = source.data();
+        int[] t = result.data();
+        for (int ii = rowFrom; ii < rowTo; ii += tile) {
+            int iMax = Math.min(ii + tile, rowTo);
+            for (int jj = 0; jj < cols; jj += tile) {
+                int jMax = Math.min(jj + tile, cols);
+                for (int i = ii; i < iMax; i++) {
+                    int rowOffset = i * cols;
+                    for (int j = jj; j < jMax; j++) {
+                        t[j * rows + i] = a[rowOffset + j];
+                    }
+                }
+            }
+        }
+    }
+
+    private static void multiplyRowTiles(IntMatrix a, IntMatrix b, IntMatrix c, int tile, int rowFrom, int rowTo) {
+        int m = a.cols();
+        int p = b.cols();
+        int[] ad = a.data();
+        int[] bd = b.data();
+        int[] cd = c.data();
+        for (int ii = rowFrom; ii < rowTo; ii += tile) {
+            int iMax = Math.min(ii + tile, rowTo);
+            for (int kk = 0; kk < m; kk += tile) {
+                int kMax = Math.min(kk + tile, m);
+                for (int jj = 0; jj < p; jj += tile) {
+                    int jMax = Math.min(jj + tile, p);
+                    // 블록 안에서는 flat 곱셈과 같은 i-k-j 순서로 연속된 메모리를 훑는다.
+                    for (int i = ii; i < iMax; i++) {
+                        int cRow = i * p;
+                        for (int k = kk; k < kMax; k++) {
+                            int aik = ad[i * m + k];
+                            int bRow = k * p;
+                            for (int j = jj; j < jMax; j++) {
+                                cd[cRow + j] += aik * bd[bRow + j];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void checkTile(int tile) {
+        if (tile <= 0) {
+            throw new IllegalArgumentException("tile must be positive: " + tile);
+        }
+    }
+
+    private static void checkMultipliable(int leftCols, int rightRows) {
+        if (leftCols != rightRows) {
+            throw new IllegalArgumentException("cannot multiply: left cols " + leftCols + " != right rows " + rightRows);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowRangeKernel {
+        void compute(int rowFrom, int rowTo);
+    }
+
+    /**
+     * [rowFrom, rowTo) 행 구간을 tile 경계에 맞춰 반으로 나누며 ForkJoin 으로 분배한다.
+     */
+    private static final class RowTileTask extends RecursiveAction {
+
+        private final int rowFrom;
+        private final int rowTo;
+        private final int tile;
+        private final RowRangeKernel kernel;
+
+        RowTileTask(int rows, int tile, RowRangeKernel kernel) {
+            this(0, rows, tile, kernel);
+        }
+
+        private RowTileTask(int rowFrom, int rowTo, int tile, RowRangeKernel kernel) {
+            this.rowFrom = rowFrom;
+            this.rowTo = rowTo;
+            this.tile = tile;
+            this.kernel = kernel;
+        }
+
+        @Override
+        protected void compute() {
+            int tiles = (rowTo - rowFrom + tile - 1) / tile;
+            if (tiles <= PARALLEL_THRESHOLD_TILES) {
+                kernel.compute(rowFrom, rowTo);
+                return;
+            }
+            int middle = rowFrom + (tiles / 2) * tile;
+            invokeAll(new RowTileTask(rowFrom, middle, tile, kernel),
+                    new RowTileTask(middle, rowTo, tile, kernel));
+        }
+    }
+}
@@ -2,6 +2,8 @@ package concurrency;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import concurrency.queue.RingBufferQueue;
+import concurrency.queue.WaitStrategy;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
@@ -12,6 +14,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -46,6 +49,62 @@ public class ConcurrencyTest {
         assertEquals(count, result, "BlockingQueue는 어떤 상황에서도 데이터 유실이 없어야 합니다.");
     }
 
+    @Test
+    @DisplayName("RingBufferQueue는 LinkedBlockingQueue 자리에 그대로 넣어도 100% 정합성을 보장한다")
+    void ringBufferSuccessTest() throws InterruptedException {
+        // given
+        Queue<Object> queue = new RingBufferQueue<>(1024, WaitStrategy.YIELD);
+        int count = 10000;
+
+        // when
+        int result = runConcurrencyExperiment(queue, count);
+
+        // then
+        System.out.println("ringBuffer 결과: " + result + "/" + count);
+        assertEquals(count, result, "RingBufferQueue는 어떤 상황에서도 데이터 유실이 없어야 합니다.");
+    }
+
+    @Test
+    @DisplayName("RingBufferQueue는 4:4 경합에서도 모든 값을 정확히 한 번씩 전달한다")
+    void ringBufferMultiProducerMultiConsumerTest() throws InterruptedException {
+        // given: 용량보다 훨씬 많은 값을 넣어 가득 참 / 비어 있음 경계를 계속 오가게 한다
+        BlockingQueue<Integer> queue = new RingBufferQueue<>(64, WaitStrategy.PARK);
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 50000;
+        AtomicLong sum = new AtomicLong();
+        AtomicInteger received = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+
+        // when: 생산자 p 는 p * perProducer + 1 ~ (p + 1) * perProducer 를 넣는다
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                for (int i = 1; i <= perProducer; i++) {
+                    queue.put(base + i);
+                }
+                return null;
+            });
+        }
+        for (int c = 0; c < consumers; c++) {
+            executor.submit(() -> {
+                for (int i = 0; i < producers * perProducer / consumers; i++) {
+                    sum.addAndGet(queue.take());
+                    received.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+
+        // then: 1 ~ N 의 합과 같으면 빠지거나 두 번 전달된 값이 없다
+        long total = (long) producers * perProducer;
+        assertEquals(total, received.get());
+        assertEquals(total * (total + 1) / 2, sum.get());
+        assertEquals(0, queue.size());
+    }
+
     private int runConcurrencyExperiment(Queue<Object> queue, int count) throws InterruptedException {
         // 여러 스레드가 동시에 숫자를 올릴 때 데이터가 꼬이지 않도록 보장
         AtomicInteger processedCount = new AtomicInteger(0);
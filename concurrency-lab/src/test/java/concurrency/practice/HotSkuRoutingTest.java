@@ -0,0 +1,195 @@
+package concurrency.practice;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.hotsku.HotSkuDetector;
+import concurrency.practice.hotsku.HotSkuLanes;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.service.OrderService;
+import concurrency.practice.service.StockStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "practice.order.hot-sku.enabled=true",
+        "practice.order.hot-sku.lanes=2"
+})
+public class HotSkuRoutingTest {
+
+    private static final int HOT_THREADS = 48;
+    private static final int HOT_ORDERS_PER_THREAD = 100;
+    private static final int COLD_THREADS = 4;
+    private static final int COLD_ORDERS_PER_THREAD = 50;
+    private static final int COLD_SKUS = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private HotSkuDetector hotSkuDetector;
+
+    @Autowired
+    private HotSkuLanes hotSkuLanes;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        hotSkuDetector.setEnabled(true);
+        productOrderRepository.deleteAllInBatch();
+        inventoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("hot SKU 레인: 한 상품에 주문이 몰려도 레인으로 보내면 커넥션 풀을 독점하지 않고, 재고는 정확히 차감되어야 한다")
+    void hot_sku_routing_mixed_workload_test() throws InterruptedException, SQLException {
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+
+        // Given: 주문이 몰릴 상품 하나와 드문드문 주문이 들어오는 상품 100개
+        int hotStock = HOT_THREADS * HOT_ORDERS_PER_THREAD * 2;
+        Long hotWithoutLane = inventoryRepository.save(new Inventory("Flash Sale A", hotStock)).getId();
+        Long hotWithLane = inventoryRepository.save(new Inventory("Flash Sale B", hotStock)).getId();
+        Long[] coldIds = new Long[COLD_SKUS];
+        for (int i = 0; i < COLD_SKUS; i++) {
+            coldIds[i] = inventoryRepository.save(new Inventory("Regular " + i, 10_000)).getId();
+        }
+
+        // When: 같은 부하를 레인 없이 한 번, 레인을 켜고 한 번 돌린다.
+        hotSkuDetector.setEnabled(false);
+        MixedWorkloadResult withoutLane = runMixedWorkload(hotWithoutLane, coldIds, pool, false);
+
+        hotSkuDetector.setEnabled(true);
+        long laneOrdersBefore = hotSkuLanes.executed();
+        MixedWorkloadResult withLane = runMixedWorkload(hotWithLane, coldIds, pool, true);
+
+        // Then: 레인을 켜면 hot SKU 가 쓰는 커넥션은 레인 수로 묶이고, 나머지는 일반 주문 스레드 몫이다.
+        assertThat(hotSkuDetector.promotions()).isPositive();
+        assertThat(hotSkuLanes.executed() - laneOrdersBefore).isPositive();
+        assertThat(withLane.peakActiveConnections()).isLessThanOrEqualTo(hotSkuLanes.laneCount() + COLD_THREADS);
+        assertThat(withLane.peakActiveConnections()).isLessThan(withoutLane.peakActiveConnections());
+
+        // 진입 제한(INVENTORY_BUSY)으로 거절된 주문이 있을 수 있으므로, 성공과 거절을 합쳐 모든 요청을 설명하고
+        // 어느 경로로 처리되었든 성공한 주문만큼만 정확히 차감되었는지 확인한다.
+        int hotOrders = HOT_THREADS * HOT_ORDERS_PER_THREAD;
+        int coldOrders = COLD_THREADS * COLD_ORDERS_PER_THREAD;
+        for (MixedWorkloadResult result : List.of(withoutLane, withLane)) {
+            assertThat(result.hotSuccessCount() + result.hotRejectedCount()).isEqualTo(hotOrders);
+            assertThat(result.coldSuccessCount() + result.coldRejectedCount()).isEqualTo(coldOrders);
+            assertThat(result.hotSuccessCount()).isPositive();
+        }
+        assertThat(inventoryRepository.findById(hotWithoutLane).orElseThrow().getStock())
+                .isEqualTo(hotStock - withoutLane.hotSuccessCount());
+        assertThat(inventoryRepository.findById(hotWithLane).orElseThrow().getStock())
+                .isEqualTo(hotStock - withLane.hotSuccessCount());
+        long coldRemaining = Arrays.stream(coldIds)
+                .mapToLong(id -> inventoryRepository.findById(id).orElseThrow().getStock())
+                .sum();
+        assertThat(coldRemaining).isEqualTo(COLD_SKUS * 10_000L
+                - withoutLane.coldSuccessCount() - withLane.coldSuccessCount());
+        assertThat(productOrderRepository.count()).isEqualTo((long) withoutLane.hotSuccessCount()
+                + withLane.hotSuccessCount() + withoutLane.coldSuccessCount() + withLane.coldSuccessCount());
+    }
+
+    /**
+     * hot SKU 에 HOT_THREADS 개 스레드로 주문을 쏟아붓는 동안, COLD_THREADS 개 스레드가 다른 상품을 주문한다.
+     * 커넥션 사용량은 일반 주문이 도는 동안 1ms 마다 표본을 뜬다.
+     *
+     * @param awaitPromotion true 면 hot SKU 가 레인으로 승격되고 잠시 뒤부터 일반 주문과 측정을 시작한다
+     */
+    private MixedWorkloadResult runMixedWorkload(Long hotId, Long[] coldIds, HikariPoolMXBean pool,
+                                                 boolean awaitPromotion) throws InterruptedException {
+        ExecutorService hotExecutor = Executors.newFixedThreadPool(HOT_THREADS);
+        CountDownLatch hotDone = new CountDownLatch(HOT_THREADS);
+        AtomicInteger hotSuccess = new AtomicInteger();
+        AtomicInteger hotRejected = new AtomicInteger();
+        for (int i = 0; i < HOT_THREADS; i++) {
+            hotExecutor.submit(() -> {
+                try {
+                    for (int j = 0; j < HOT_ORDERS_PER_THREAD; j++) {
+                        try {
+                            orderService.createOrder(hotId, 1, StockStrategy.PESSIMISTIC_LOCK);
+                            hotSuccess.incrementAndGet();
+                        } catch (PracticeException e) {
+                            hotRejected.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    hotDone.countDown();
+                }
+            });
+        }
+
+        if (awaitPromotion) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!hotSkuDetector.isHot(hotId) && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+            assertThat(hotSkuDetector.isHot(hotId)).isTrue();
+            // 승격 직전에 일반 경로로 들어간 주문들이 커넥션을 돌려줄 때까지 기다린다.
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+
+        ExecutorService coldExecutor = Executors.newFixedThreadPool(COLD_THREADS);
+        CountDownLatch coldDone = new CountDownLatch(COLD_THREADS);
+        AtomicInteger coldSuccess = new AtomicInteger();
+        AtomicInteger coldRejected = new AtomicInteger();
+        for (int i = 0; i < COLD_THREADS; i++) {
+            coldExecutor.submit(() -> {
+                try {
+                    for (int j = 0; j < COLD_ORDERS_PER_THREAD; j++) {
+                        Long coldId = coldIds[ThreadLocalRandom.current().nextInt(coldIds.length)];
+                        try {
+                            orderService.createOrder(coldId, 1, StockStrategy.PESSIMISTIC_LOCK);
+                            coldSuccess.incrementAndGet();
+                        } catch (PracticeException e) {
+                            coldRejected.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    coldDone.countDown();
+                }
+            });
+        }
+
+        int peakActive = 0;
+        while (!coldDone.await(1, TimeUnit.MILLISECONDS)) {
+            peakActive = Math.max(peakActive, pool.getActiveConnections());
+        }
+        hotDone.await();
+        hotExecutor.shutdown();
+        coldExecutor.shutdown();
+
+        return new MixedWorkloadResult(hotSuccess.get(), hotRejected.get(), coldSuccess.get(), coldRejected.get(),
+                peakActive);
+    }
+
+    private record MixedWorkloadResult(int hotSuccessCount, int hotRejectedCount,
+                                       int coldSuccessCount, int coldRejectedCount, int peakActiveConnections) {
+    }
+}
@@ -0,0 +1,163 @@
+package concurrency.practice;
+
+import concurrency.practice.admission.InventoryAdmission;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.exception.PracticeErrorCode;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.service.InventoryStockService;
+import concurrency.practice.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "practice.order.admission.enabled=true",
+        "practice.order.admission.sold-out-recheck=1h",
+        // 정리는 테스트가 직접 부른다.
+        "practice.order.admission.limiter-sweep-interval=1h"
+})
+public class InventoryAdmissionTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryStockService inventoryStockService;
+
+    @Autowired
+    private InventoryAdmission inventoryAdmission;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        productOrderRepository.deleteAllInBatch();
+        inventoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("품절 표시: 재고가 바닥난 뒤의 주문 폭주는 DB에 거의 닿지 않고 거절되며, 재입고가 커밋되면 다시 주문을 받는다")
+    void sold_out_orders_skip_database_until_restock() throws InterruptedException {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Given: 재고가 100개인 상품에 주문 폭주로 재고를 모두 소진한다.
+        Long inventoryId = inventoryRepository.save(new Inventory("Sold Out Product", 100)).getId();
+        OrderBurst sellOut = runOrderBurst(inventoryId, 32, 500);
+        assertThat(sellOut.successCount()).isEqualTo(100);
+        assertThat(inventoryAdmission.isSoldOut(inventoryId)).isTrue();
+
+        // When: 품절된 상품에 다시 주문 2000건이 몰린다.
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long transactionsBefore = statistics.getTransactionCount();
+        long rejectionsBefore = inventoryAdmission.soldOutRejections();
+        double failuresBefore = admissionFailures(PracticeErrorCode.OUT_OF_STOCK);
+        OrderBurst afterSellOut = runOrderBurst(inventoryId, 32, 2000);
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        long transactions = statistics.getTransactionCount() - transactionsBefore;
+
+        System.out.printf("품절 전: 주문 500건 -> 성공 %d, 품절 후: 주문 2000건 -> SQL %d건, 트랜잭션 %d개%n",
+                sellOut.successCount(), statements, transactions);
+
+        // Then: 모든 주문이 OUT_OF_STOCK 으로 끝나고, SQL 도 트랜잭션도 실행되지 않는다.
+        assertThat(afterSellOut.successCount()).isZero();
+        assertThat(afterSellOut.outOfStockCount()).isEqualTo(2000);
+        assertThat(inventoryAdmission.soldOutRejections() - rejectionsBefore).isEqualTo(2000);
+        assertThat(admissionFailures(PracticeErrorCode.OUT_OF_STOCK) - failuresBefore).isEqualTo(2000);
+        assertThat(statements).isZero();
+        assertThat(transactions).isZero();
+
+        // 재입고하면 입고분이 버퍼에 쌓이는 즉시 표시가 지워지고, 반영을 기다리지 않고 다시 주문할 수 있다.
+        inventoryStockService.restock(inventoryId, 10);
+        assertThat(inventoryAdmission.isSoldOut(inventoryId)).isFalse();
+        OrderBurst afterRestock = runOrderBurst(inventoryId, 8, 20);
+        assertThat(afterRestock.successCount()).isEqualTo(10);
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isZero();
+        assertThat(productOrderRepository.count()).isEqualTo(110);
+    }
+
+    @Test
+    @DisplayName("진입 제한: 주문이 끝난 상품의 허가증은 정리되고, 정리된 뒤 들어온 주문은 새 허가증으로 처리된다")
+    void idle_limiters_are_evicted() throws InterruptedException {
+        // Given: 상품 50개에 주문이 한 번씩 들어와 상품마다 허가증이 생겼다.
+        Long[] inventoryIds = new Long[50];
+        for (int i = 0; i < inventoryIds.length; i++) {
+            inventoryIds[i] = inventoryRepository.save(new Inventory("Limited " + i, 10)).getId();
+            orderService.createOrder(inventoryIds[i], 1);
+        }
+        assertThat(inventoryAdmission.limiterCount()).isGreaterThanOrEqualTo(inventoryIds.length);
+        long evictedBefore = inventoryAdmission.evictedLimiters();
+
+        // When: 쥐고 있는 주문이 없을 때 정리한다.
+        inventoryAdmission.sweepIdleLimiters();
+
+        // Then: 허가증이 모두 지워지고, 이후 주문은 허가증을 새로 만들어 정상 처리된다.
+        assertThat(inventoryAdmission.limiterCount()).isZero();
+        assertThat(inventoryAdmission.evictedLimiters() - evictedBefore).isGreaterThanOrEqualTo(inventoryIds.length);
+        OrderBurst afterSweep = runOrderBurst(inventoryIds[0], 8, 9);
+        assertThat(afterSweep.successCount()).isEqualTo(9);
+        assertThat(inventoryRepository.findById(inventoryIds[0]).orElseThrow().getStock()).isZero();
+    }
+
+    private double admissionFailures(PracticeErrorCode errorCode) {
+        Counter counter = meterRegistry.find("practice.order.failures")
+                .tag("operation", "ADMISSION")
+                .tag("code", errorCode.name())
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private OrderBurst runOrderBurst(Long inventoryId, int threadCount, int orderCount) throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(orderCount);
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger outOfStockCount = new AtomicInteger();
+
+        for (int i = 0; i < orderCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    orderService.createOrder(inventoryId, 1);
+                    successCount.incrementAndGet();
+                } catch (PracticeException e) {
+                    if (e.getErrorCode() == PracticeErrorCode.OUT_OF_STOCK) {
+                        outOfStockCount.incrementAndGet();
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+        return new OrderBurst(successCount.get(), outOfStockCount.get());
+    }
+
+    private record OrderBurst(int successCount, int outOfStockCount) {
+    }
+}
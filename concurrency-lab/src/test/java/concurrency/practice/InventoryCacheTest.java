@@ -0,0 +1,124 @@
+package concurrency.practice;
+
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.cache.InventoryCacheStats;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.service.InventoryQueryService;
+import concurrency.practice.service.OrderService;
+import concurrency.practice.service.StockStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "practice.inventory.cache.ttl=1h")
+public class InventoryCacheTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryQueryService inventoryQueryService;
+
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @AfterEach
+    void tearDown() {
+        productOrderRepository.deleteAllInBatch();
+        inventoryRepository.deleteAllInBatch();
+        inventoryCache.invalidateAll();
+    }
+
+    @Test
+    @DisplayName("재고 캐시: 주문이 커밋되면 ttl 을 기다리지 않고 바로 줄어든 재고가 조회되어야 한다")
+    void order_commit_refreshes_cache() {
+        // Given: 재고가 10개인 상품을 한 번 조회해 캐시에 올려 둔다 (ttl 은 1시간)
+        Long inventoryId = inventoryRepository.save(new Inventory("Cached Product", 10)).getId();
+        assertThat(inventoryQueryService.getStock(inventoryId)).isEqualTo(10);
+
+        // When: 엔티티로 차감하는 전략과 벌크 UPDATE 로 차감하는 전략으로 각각 주문한다.
+        orderService.createOrder(inventoryId, 3, StockStrategy.PESSIMISTIC_LOCK);
+        long afterPessimistic = inventoryQueryService.getStock(inventoryId);
+        orderService.createOrder(inventoryId, 2, StockStrategy.CONDITIONAL_UPDATE);
+        long afterConditional = inventoryQueryService.getStock(inventoryId);
+
+        // Then: 두 경우 모두 커밋 직후의 조회가 DB 값과 같다.
+        assertThat(afterPessimistic).isEqualTo(7);
+        assertThat(afterConditional).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("재고 캐시: 주문과 조회가 동시에 몰려도 주문이 끝난 직후 캐시는 DB 재고와 같고 조회 대부분은 캐시에서 처리되어야 한다")
+    void concurrent_reads_and_orders_converge() throws InterruptedException {
+        // Given: 재고가 200개인 상품
+        Long inventoryId = inventoryRepository.save(new Inventory("Hot Product", 200)).getId();
+        InventoryCacheStats before = inventoryCache.stats();
+
+        int orderThreads = 8;
+        int readThreads = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(orderThreads + readThreads);
+        CountDownLatch ordersDone = new CountDownLatch(orderThreads);
+        CountDownLatch readersDone = new CountDownLatch(readThreads);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+
+        // When: 8개 스레드가 25건씩 주문하는 동안 8개 스레드가 쉬지 않고 재고를 조회한다.
+        for (int i = 0; i < orderThreads; i++) {
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < 25; j++) {
+                        orderService.createOrder(inventoryId, 1);
+                    }
+                } finally {
+                    ordersDone.countDown();
+                }
+            });
+        }
+        for (int i = 0; i < readThreads; i++) {
+            executorService.submit(() -> {
+                try {
+                    while (running.get()) {
+                        inventoryQueryService.getStock(inventoryId);
+                        reads.incrementAndGet();
+                    }
+                } finally {
+                    readersDone.countDown();
+                }
+            });
+        }
+        ordersDone.await();
+        running.set(false);
+        readersDone.await();
+        executorService.shutdown();
+
+        // Then: 커밋 훅이 모든 주문을 반영했으므로 ttl(1시간)과 무관하게 캐시 값이 DB 값과 같다.
+        long committed = inventoryRepository.findById(inventoryId).orElseThrow().getStock();
+        assertThat(committed).isZero();
+        assertThat(inventoryQueryService.getStock(inventoryId)).isEqualTo(committed);
+
+        InventoryCacheStats after = inventoryCache.stats();
+        long hits = after.hits() - before.hits();
+        long misses = after.misses() - before.misses();
+        System.out.println("조회 " + reads.get() + "건, 캐시 적중 " + hits + "건, DB 조회 " + misses + "건, "
+                + "버린 조회 결과 " + (after.staleLoads() - before.staleLoads()) + "건");
+        assertThat(hits).isGreaterThan(misses);
+    }
+}
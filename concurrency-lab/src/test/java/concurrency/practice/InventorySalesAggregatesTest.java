@@ -0,0 +1,198 @@
+package concurrency.practice;
+
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.domain.ProductOrder;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.sales.InventorySales;
+import concurrency.practice.sales.InventorySalesAggregates;
+import concurrency.practice.service.OrderLine;
+import concurrency.practice.service.OrderService;
+import concurrency.practice.service.StockStrategy;
+import concurrency.practice.stock.StockDeltaBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        // 구간과 초기 크기를 작게 잡아 실행 도중 테이블이 늘어나게 한다.
+        "practice.inventory.sales.segments=2",
+        "practice.inventory.sales.expected-skus=2"
+})
+public class InventorySalesAggregatesTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 150;
+    private static final int SKUS = 12;
+    private static final long INITIAL_STOCK = 1_000_000;
+
+    @Autowired
+    private InventorySalesAggregates inventorySalesAggregates;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockDeltaBuffer stockDeltaBuffer;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @BeforeEach
+    void setUp() {
+        // 같은 컨텍스트를 쓰는 다른 테스트가 주문을 직접 지웠을 수 있으므로 빈 테이블에서 다시 시작한다.
+        inventorySalesAggregates.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockDeltaBuffer.flushAll();
+        productOrderRepository.deleteAllInBatch();
+        inventoryRepository.deleteAllInBatch();
+        inventorySalesAggregates.rebuild();
+    }
+
+    @Test
+    @DisplayName("판매 집계: 주문 생성/수량 수정/취소가 재구성과 동시에 섞여도, 집계는 주문 테이블의 GROUP BY 와 정확히 같아야 한다")
+    void aggregates_match_group_by_under_concurrent_changes_and_rebuilds() throws Exception {
+        // Given
+        Long[] inventoryIds = new Long[SKUS];
+        for (int i = 0; i < SKUS; i++) {
+            inventoryIds[i] = inventoryRepository.save(new Inventory("Aggregated " + i, INITIAL_STOCK)).getId();
+        }
+
+        // When: 주문 스레드들이 생성(전략/장바구니/그룹 커밋), 수정, 취소를 섞는 동안 한 스레드가 계속 재구성한다.
+        List<Long> createdOrders = new ArrayList<>();
+        AtomicInteger rebuilds = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch workersDone = new CountDownLatch(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executorService.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        runRandomOperation(inventoryIds, createdOrders);
+                    }
+                    return null;
+                } finally {
+                    workersDone.countDown();
+                }
+            }));
+        }
+        Future<?> rebuilder = executorService.submit(() -> {
+            start.await();
+            while (workersDone.getCount() > 0) {
+                inventorySalesAggregates.rebuild();
+                rebuilds.incrementAndGet();
+                Thread.sleep(5);
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        rebuilder.get();
+        executorService.shutdown();
+
+        // Then: 재구성이 여러 번 끼어들었어도 두 번 세거나 빠뜨린 변경이 없다.
+        System.out.printf("주문 %d건, 재구성 %d회%n", createdOrders.size(), rebuilds.get());
+        assertThat(rebuilds.get()).isPositive();
+        List<InventorySales> expected = productOrderRepository.sumSalesByInventory();
+        assertThat(inventorySalesAggregates.all()).containsExactlyInAnyOrderElementsOf(expected);
+        for (InventorySales sales : expected) {
+            assertThat(inventorySalesAggregates.get(sales.inventoryId())).isEqualTo(sales);
+        }
+    }
+
+    @Test
+    @DisplayName("판매 집계 재구성: 커밋 훅을 거치지 않고 저장된 주문으로 어긋난 집계를 GROUP BY 로 다시 맞춘다")
+    void rebuild_recovers_changes_that_bypassed_commit_hooks() {
+        // Given: 서비스를 거친 주문 3건과 리포지토리로 바로 넣은 주문 5건
+        Long inventoryId = inventoryRepository.save(new Inventory("Recovered Product", INITIAL_STOCK)).getId();
+        for (int i = 0; i < 3; i++) {
+            orderService.createOrder(inventoryId, 2);
+        }
+        productOrderRepository.saveAll(IntStream.range(0, 5)
+                .mapToObj(i -> new ProductOrder(inventoryId, 1))
+                .toList());
+        assertThat(inventorySalesAggregates.get(inventoryId)).isEqualTo(new InventorySales(inventoryId, 6L, 3L));
+
+        // When
+        int skus = inventorySalesAggregates.rebuild();
+
+        // Then
+        assertThat(skus).isEqualTo(1);
+        assertThat(inventorySalesAggregates.get(inventoryId)).isEqualTo(new InventorySales(inventoryId, 11L, 8L));
+        assertThat(inventorySalesAggregates.all()).containsExactly(new InventorySales(inventoryId, 11L, 8L));
+    }
+
+    /**
+     * 단건 생성 40%, 장바구니 10%, 그룹 커밋 10%, 수량 수정 25%, 취소 15%
+     * 수정과 취소는 다른 스레드가 만든 주문도 고르므로, 이미 취소되었거나 버전이 충돌한 요청은 실패로 끝난다.
+     */
+    private void runRandomOperation(Long[] inventoryIds, List<Long> createdOrders) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int dice = random.nextInt(100);
+        int sku = random.nextInt(inventoryIds.length);
+        int quantity = 1 + random.nextInt(3);
+        try {
+            if (dice < 40) {
+                StockStrategy strategy = List.of(StockStrategy.PESSIMISTIC_LOCK, StockStrategy.CONDITIONAL_UPDATE,
+                        StockStrategy.OPTIMISTIC_VERSION).get(random.nextInt(3));
+                remember(createdOrders, List.of(orderService.createOrder(inventoryIds[sku], quantity, strategy)));
+            } else if (dice < 50) {
+                remember(createdOrders, orderService.createOrders(List.of(
+                        new OrderLine(inventoryIds[sku], quantity),
+                        new OrderLine(inventoryIds[(sku + 1) % inventoryIds.length], quantity))));
+            } else if (dice < 60) {
+                remember(createdOrders, List.of(orderService.submitOrder(inventoryIds[sku], quantity).join()));
+            } else {
+                Long orderId = pickOrder(random, createdOrders);
+                if (orderId == null) {
+                    return;
+                }
+                if (dice < 85) {
+                    orderService.updateOrderQuantity(orderId, 1 + random.nextInt(5));
+                } else {
+                    orderService.cancelOrder(orderId);
+                }
+            }
+        } catch (PracticeException e) {
+            // 이미 취소된 주문, 버전 충돌: 커밋되지 않았으니 집계도 바뀌지 않아야 한다.
+        }
+    }
+
+    private void remember(List<Long> createdOrders, List<Long> orderIds) {
+        synchronized (createdOrders) {
+            createdOrders.addAll(orderIds);
+        }
+    }
+
+    private Long pickOrder(ThreadLocalRandom random, List<Long> createdOrders) {
+        synchronized (createdOrders) {
+            return createdOrders.isEmpty() ? null : createdOrders.get(random.nextInt(createdOrders.size()));
+        }
+    }
+}
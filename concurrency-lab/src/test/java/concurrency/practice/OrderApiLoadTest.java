@@ -0,0 +1,129 @@
+package concurrency.practice;
+
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 주문 API 부하 테스트: 기본 Tomcat 플랫폼 스레드 풀과 가상 스레드 + 커넥션 가드를 같은 부하로 비교한다.
+ * 두 설정은 서로 다른 스프링 컨텍스트(서로 다른 H2 메모리 DB)에서 차례로 실행된다.
+ */
+public class OrderApiLoadTest {
+
+    private static final int REQUEST_COUNT = 4000;
+    private static final int CONCURRENCY = 1000;
+
+    @Test
+    @DisplayName("가상 스레드 + 커넥션 가드: 동시 요청 1000개에서도 성공한 주문 수만큼만 재고가 줄고 모든 요청이 201 또는 503 으로 끝난다")
+    void virtual_threads_vs_platform_threads() throws Exception {
+        LoadResult platform = runLoad("플랫폼 스레드",
+                "spring.threads.virtual.enabled=false");
+        LoadResult virtual = runLoad("가상 스레드 + 커넥션 가드",
+                "spring.threads.virtual.enabled=true",
+                "practice.web.connection-guard.enabled=true");
+
+        System.out.println(platform);
+        System.out.println(virtual);
+    }
+
+    private LoadResult runLoad(String name, String... properties) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PracticeApplication.class)
+                .properties("server.port=0", "server.tomcat.accept-count=" + CONCURRENCY)
+                .properties(properties)
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Long inventoryId = context.getBean(InventoryRepository.class)
+                    .save(new Inventory("Api Product", REQUEST_COUNT))
+                    .getId();
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/orders"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(60))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"inventoryId\":" + inventoryId + ",\"quantity\":1}"))
+                    .build();
+
+            long[] latencies = new long[REQUEST_COUNT];
+            AtomicInteger created = new AtomicInteger();
+            AtomicInteger busy = new AtomicInteger();
+            AtomicInteger other = new AtomicInteger();
+            Semaphore inFlight = new Semaphore(CONCURRENCY);
+            CountDownLatch done = new CountDownLatch(REQUEST_COUNT);
+
+            long start = System.nanoTime();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < REQUEST_COUNT; i++) {
+                    int index = i;
+                    inFlight.acquire();
+                    clients.submit(() -> {
+                        long begin = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            switch (status) {
+                                case 201 -> created.incrementAndGet();
+                                case 503 -> busy.incrementAndGet();
+                                default -> other.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            other.incrementAndGet();
+                        } finally {
+                            latencies[index] = System.nanoTime() - begin;
+                            inFlight.release();
+                            done.countDown();
+                        }
+                    });
+                }
+                done.await();
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            // 어떤 실행 방식이든 성공한 주문 수만큼만 재고가 줄어야 한다.
+            long remaining = context.getBean(InventoryRepository.class).findById(inventoryId).orElseThrow().getStock();
+            assertThat(other.get()).isZero();
+            assertThat(created.get() + busy.get()).isEqualTo(REQUEST_COUNT);
+            assertThat(remaining).isEqualTo(REQUEST_COUNT - created.get());
+            assertThat(context.getBean(ProductOrderRepository.class).count()).isEqualTo(created.get());
+
+            Arrays.sort(latencies);
+            return new LoadResult(name, created.get(), busy.get(),
+                    REQUEST_COUNT * 1_000_000_000.0 / elapsedNanos,
+                    TimeUnit.NANOSECONDS.toMillis(latencies[REQUEST_COUNT / 2]),
+                    TimeUnit.NANOSECONDS.toMillis(latencies[(int) (REQUEST_COUNT * 0.99)]),
+                    TimeUnit.NANOSECONDS.toMillis(latencies[REQUEST_COUNT - 1]));
+        }
+    }
+
+    private record LoadResult(String name, int created, int busy, double requestsPerSecond,
+                              long p50Millis, long p99Millis, long maxMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.0f req/s, p50 %dms, p99 %dms, max %dms (201: %d, 503: %d)",
+                    name, requestsPerSecond, p50Millis, p99Millis, maxMillis, created, busy);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package concurrency.practice;
+
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.domain.OrderStatus;
+import concurrency.practice.domain.ProductOrder;
+import concurrency.practice.exception.PracticeErrorCode;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.InventoryShardRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.service.OrderService;
+import concurrency.practice.service.ShardedInventoryService;
+import concurrency.practice.service.StockStrategy;
+import concurrency.practice.stock.StockDeltaBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+public class OrderCancellationTest {
+
+    private static final int ORDER_THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 100;
+    private static final int CANCEL_THREADS = 4;
+    private static final long INITIAL_STOCK = 1_000_000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockDeltaBuffer stockDeltaBuffer;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private ShardedInventoryService shardedInventoryService;
+
+    @Autowired
+    private InventoryShardRepository inventoryShardRepository;
+
+    @AfterEach
+    void tearDown() {
+        stockDeltaBuffer.flushAll();
+        productOrderRepository.deleteAllInBatch();
+        inventoryShardRepository.deleteAllInBatch();
+        inventoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("주문 취소: 같은 상품에 주문과 중복 취소가 섞여도 취소는 한 번씩만 인정되고, 재고는 정확히 돌아와야 한다")
+    void cancel_returns_stock_exactly_once_without_blocking_orders() throws InterruptedException {
+        // Given: 한 상품에 먼저 주문을 쌓으며 취소가 없을 때의 주문 지연을 잰다.
+        Long inventoryId = inventoryRepository.save(new Inventory("Cancellable Product", INITIAL_STOCK)).getId();
+        AtomicLong orderedQuantity = new AtomicLong();
+        Queue<Long> createdOrderIds = new ConcurrentLinkedQueue<>();
+        long baselineP99 = runOrders(inventoryId, orderedQuantity, createdOrderIds, null);
+
+        // 앞에서 만든 주문의 절반을 취소 대상으로 고르고, 주문마다 취소 요청을 두 번씩 섞어 보낸다.
+        List<Long> targets = new ArrayList<>(createdOrderIds).subList(0, createdOrderIds.size() / 2);
+        List<Long> cancelRequests = new ArrayList<>(targets);
+        cancelRequests.addAll(targets);
+        Collections.shuffle(cancelRequests);
+        Queue<Long> pendingCancels = new ConcurrentLinkedQueue<>(cancelRequests);
+
+        // When: 같은 상품에 주문을 계속 넣는 동안 취소 스레드들이 취소 요청을 처리한다.
+        AtomicInteger cancelSuccess = new AtomicInteger();
+        AtomicInteger duplicateRejected = new AtomicInteger();
+        ExecutorService cancelExecutor = Executors.newFixedThreadPool(CANCEL_THREADS);
+        CountDownLatch cancelDone = new CountDownLatch(CANCEL_THREADS);
+        for (int i = 0; i < CANCEL_THREADS; i++) {
+            cancelExecutor.submit(() -> {
+                try {
+                    Long orderId;
+                    while ((orderId = pendingCancels.poll()) != null) {
+                        try {
+                            orderService.cancelOrder(orderId);
+                            cancelSuccess.incrementAndGet();
+                        } catch (PracticeException e) {
+                            // 먼저 취소한 트랜잭션이 있으면 이미 취소됨 또는 버전 충돌로 끝난다.
+                            if (e.getErrorCode() == PracticeErrorCode.ORDER_ALREADY_CANCELLED
+                                    || e.getErrorCode() == PracticeErrorCode.OPTIMISTIC_LOCK_CONFLICT) {
+                                duplicateRejected.incrementAndGet();
+                            }
+                        }
+                    }
+                } finally {
+                    cancelDone.countDown();
+                }
+            });
+        }
+        // 주문 지연은 벽시계 시간이라 CI 부하에 따라 흔들리므로 단언하지 않고 출력만 한다.
+        long withCancelsP99 = runOrders(inventoryId, orderedQuantity, createdOrderIds, cancelDone);
+        cancelDone.await();
+        cancelExecutor.shutdown();
+        stockDeltaBuffer.flushAll();
+
+        System.out.printf("주문 p99: 취소 없음 %dus, 취소와 함께 %dus / 취소 성공 %d건, 중복 거절 %d건%n",
+                baselineP99, withCancelsP99, cancelSuccess.get(), duplicateRejected.get());
+
+        // Then: 주문마다 취소는 정확히 한 번만 인정된다.
+        assertThat(cancelSuccess.get()).isEqualTo(targets.size());
+        assertThat(duplicateRejected.get()).isEqualTo(targets.size());
+        List<ProductOrder> cancelled = productOrderRepository.findAll().stream()
+                .filter(order -> order.getStatus() == OrderStatus.CANCELLED)
+                .toList();
+        assertThat(cancelled).extracting(ProductOrder::getId).containsExactlyInAnyOrderElementsOf(targets);
+
+        // 재고 = 초기 재고 - 주문한 수량 + 취소된 주문의 수량
+        long cancelledQuantity = cancelled.stream().mapToLong(ProductOrder::getQuantity).sum();
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock())
+                .isEqualTo(INITIAL_STOCK - orderedQuantity.get() + cancelledQuantity);
+    }
+
+    @Test
+    @DisplayName("주문 취소: 샤드로 나뉜 상품의 주문을 취소하면 돌려준 재고가 샤드로 돌아와 다시 팔 수 있어야 한다")
+    void cancel_returns_stock_to_shards() throws InterruptedException {
+        // Given: 재고 20개를 4개 샤드로 나누고 모두 판다.
+        Long inventoryId = inventoryRepository.save(new Inventory("Sharded Cancellable", 20)).getId();
+        shardedInventoryService.shard(inventoryId, 4);
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            orderIds.add(orderService.createOrder(inventoryId, 1, StockStrategy.SHARDED));
+        }
+        assertThat(shardedInventoryService.totalStock(inventoryId)).isZero();
+
+        // When: 10건의 주문에 취소 요청을 두 번씩 동시에 보낸다.
+        List<Long> cancelRequests = new ArrayList<>(orderIds.subList(0, 10));
+        cancelRequests.addAll(orderIds.subList(0, 10));
+        Collections.shuffle(cancelRequests);
+        AtomicInteger cancelSuccess = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(CANCEL_THREADS);
+        CountDownLatch latch = new CountDownLatch(cancelRequests.size());
+        for (Long orderId : cancelRequests) {
+            executorService.submit(() -> {
+                try {
+                    orderService.cancelOrder(orderId);
+                    cancelSuccess.incrementAndGet();
+                } catch (PracticeException e) {
+                    // 중복 취소
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Then: 취소는 한 번씩만 인정되고, 반영 전이라도 샤드 주문이 돌려받은 10개를 모두 팔 수 있다.
+        assertThat(cancelSuccess.get()).isEqualTo(10);
+        assertThat(stockDeltaBuffer.pending(inventoryId)).isEqualTo(10);
+        for (int i = 0; i < 10; i++) {
+            orderService.createOrder(inventoryId, 1, StockStrategy.SHARDED);
+        }
+        assertThatThrownBy(() -> orderService.createOrder(inventoryId, 1, StockStrategy.SHARDED))
+                .isInstanceOf(PracticeException.class)
+                .extracting("errorCode").isEqualTo(PracticeErrorCode.OUT_OF_STOCK);
+
+        // 반영을 거친 취소분도 원본 행이 아니라 샤드에 쌓인다.
+        for (Long orderId : orderIds.subList(10, 15)) {
+            orderService.cancelOrder(orderId);
+        }
+        stockDeltaBuffer.flushAll();
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isZero();
+        assertThat(shardedInventoryService.totalStock(inventoryId)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("주문 취소: 수량을 수정한 주문을 취소해도 생성 때 차감한 수량만 돌려주어 재고가 늘어나지 않아야 한다")
+    void cancel_after_quantity_update_returns_only_reserved_stock() {
+        // Given: 재고 10개에서 1개를 주문하고, 주문 수량을 100개로 고친다. (수량 수정은 재고를 건드리지 않는다)
+        Long inventoryId = inventoryRepository.save(new Inventory("Updated Then Cancelled", 10)).getId();
+        Long orderId = orderService.createOrder(inventoryId, 1);
+        orderService.updateOrderQuantity(orderId, 100);
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isEqualTo(9);
+
+        // When
+        orderService.cancelOrder(orderId);
+        stockDeltaBuffer.flushAll();
+
+        // Then: 차감했던 1개만 돌아온다.
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isEqualTo(10);
+        ProductOrder cancelled = productOrderRepository.findById(orderId).orElseThrow();
+        assertThat(cancelled.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(cancelled.getReservedQuantity()).isEqualTo(1);
+    }
+
+    /**
+     * ORDER_THREADS 개 스레드가 주문을 넣고 주문 지연의 p99 (마이크로초)를 반환합니다.
+     * cancelDone 이 주어지면 취소가 모두 끝날 때까지 주문을 계속 넣는다.
+     */
+    private long runOrders(Long inventoryId, AtomicLong orderedQuantity, Queue<Long> createdOrderIds,
+                           CountDownLatch cancelDone) throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(ORDER_THREADS);
+        CountDownLatch latch = new CountDownLatch(ORDER_THREADS);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < ORDER_THREADS; i++) {
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < ORDERS_PER_THREAD || (cancelDone != null && cancelDone.getCount() > 0); j++) {
+                        int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+                        long startedAt = System.nanoTime();
+                        Long orderId = orderService.createOrder(inventoryId, quantity);
+                        latencies.add(System.nanoTime() - startedAt);
+                        orderedQuantity.addAndGet(quantity);
+                        createdOrderIds.add(orderId);
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return TimeUnit.NANOSECONDS.toMicros(sorted[(int) Math.ceil(sorted.length * 0.99) - 1]);
+    }
+}
@@ -0,0 +1,140 @@
+package concurrency.practice;
+
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.domain.ProductOrder;
+import concurrency.practice.export.ExportFormat;
+import concurrency.practice.export.OrderExportService;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.service.OrderService;
+import concurrency.practice.stock.StockDeltaBuffer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // 페이지 경계와 버퍼 비우기가 여러 번 일어나도록 작게 잡는다.
+        "practice.order.export.page-size=100",
+        "practice.order.export.buffer-size=256"
+})
+public class OrderExportTest {
+
+    private static final int ORDER_COUNT = 2345;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockDeltaBuffer stockDeltaBuffer;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @TempDir
+    private Path exportDir;
+
+    @AfterEach
+    void tearDown() {
+        stockDeltaBuffer.flushAll();
+        productOrderRepository.deleteAllInBatch();
+        inventoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("주문 내보내기: id 커서로 페이지를 넘기며 모든 주문을 한 번씩 id 순서로 쓰고, 엔티티는 하나도 읽지 않아야 한다")
+    void export_streams_every_order_once_in_id_order() throws IOException {
+        // Given: 주문 2345건, 그중 하나는 취소
+        Long inventoryId = inventoryRepository.save(new Inventory("Exported Product", 0)).getId();
+        List<ProductOrder> orders = productOrderRepository.saveAll(IntStream.range(0, ORDER_COUNT)
+                .mapToObj(i -> new ProductOrder(inventoryId, 1 + i % 5))
+                .toList());
+        Long cancelledId = orders.get(7).getId();
+        orderService.cancelOrder(cancelledId);
+        // 취소로 돌려받은 재고를 미리 반영해, 내보내는 동안 flusher 의 SQL 이 섞이지 않게 한다.
+        stockDeltaBuffer.flushAll();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long entityLoadsBefore = statistics.getEntityLoadCount();
+
+        // When
+        Path csv = exportDir.resolve("orders.csv");
+        Path ndjson = exportDir.resolve("orders.ndjson");
+        long csvRows = orderExportService.export(csv, ExportFormat.CSV);
+        long ndjsonRows = orderExportService.export(ndjson, ExportFormat.NDJSON);
+
+        // Then: 형식마다 페이지 24개(100 x 23 + 45)를 한 번씩 읽고, 영속성 컨텍스트에는 아무것도 올리지 않는다.
+        assertThat(csvRows).isEqualTo(ORDER_COUNT);
+        assertThat(ndjsonRows).isEqualTo(ORDER_COUNT);
+        assertThat(statistics.getPrepareStatementCount() - statementsBefore).isEqualTo(2 * 24);
+        assertThat(statistics.getEntityLoadCount() - entityLoadsBefore).isZero();
+        assertThat(exportDir.resolve("orders.csv.part")).doesNotExist();
+
+        // CSV: 머리줄 + 주문마다 한 줄, id 는 빠짐없이 오름차순
+        List<String> csvLines = Files.readAllLines(csv);
+        assertThat(csvLines).hasSize(ORDER_COUNT + 1);
+        assertThat(csvLines.get(0)).isEqualTo("id,inventory_id,quantity,status");
+        List<Long> exportedIds = new ArrayList<>();
+        for (String line : csvLines.subList(1, csvLines.size())) {
+            exportedIds.add(Long.parseLong(line.substring(0, line.indexOf(','))));
+        }
+        assertThat(exportedIds).isSorted().doesNotHaveDuplicates()
+                .containsExactlyElementsOf(orders.stream().map(ProductOrder::getId).sorted().toList());
+        assertThat(csvLines).contains(cancelledId + "," + inventoryId + "," + orders.get(7).getQuantity() + ",CANCELLED");
+
+        // NDJSON: 주문마다 JSON 한 줄
+        List<String> jsonLines = Files.readAllLines(ndjson);
+        assertThat(jsonLines).hasSize(ORDER_COUNT);
+        ProductOrder first = orders.get(0);
+        assertThat(jsonLines.get(0)).isEqualTo("{\"id\":" + first.getId() + ",\"inventoryId\":" + inventoryId
+                + ",\"quantity\":" + first.getQuantity() + ",\"status\":\"CREATED\"}");
+    }
+
+    @Test
+    @DisplayName("주문 내보내기: 파일을 끝까지 쓰지 못하고 실패하면 예외를 던지고 임시 파일(.part)을 남기지 않는다")
+    void failed_export_removes_partial_file() throws IOException {
+        // Given: 주문 몇 건과, 내보낼 이름을 이미 차지한 비어 있지 않은 디렉터리
+        Long inventoryId = inventoryRepository.save(new Inventory("Exported Product", 0)).getId();
+        productOrderRepository.saveAll(IntStream.range(0, 10)
+                .mapToObj(i -> new ProductOrder(inventoryId, 1))
+                .toList());
+        Path target = exportDir.resolve("orders.csv");
+        Files.createDirectories(target);
+        Files.writeString(target.resolve("keep.txt"), "occupied");
+
+        // When: 임시 파일은 다 썼지만 이름 바꾸기에서 실패한다
+        assertThatThrownBy(() -> orderExportService.export(target, ExportFormat.CSV))
+                .isInstanceOf(UncheckedIOException.class);
+
+        // Then
+        assertThat(exportDir.resolve("orders.csv.part")).doesNotExist();
+        assertThat(target.resolve("keep.txt")).exists();
+    }
+}
@@ -0,0 +1,297 @@
+package concurrency.practice;
+
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.hotsku.HotSkuDetector;
+import concurrency.practice.hotsku.HotSkuLanes;
+import concurrency.practice.ledger.ReservationJournal;
+import concurrency.practice.ledger.ReservationLedger;
+import concurrency.practice.linearizability.History;
+import concurrency.practice.linearizability.LinearizabilityChecker;
+import concurrency.practice.linearizability.Operation;
+import concurrency.practice.linearizability.OrderDomainModel;
+import concurrency.practice.linearizability.OrderDomainModel.ObjectKey;
+import concurrency.practice.linearizability.StressScheduler;
+import concurrency.practice.outbox.OrderEventRecorder;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.InventoryShardRepository;
+import concurrency.practice.repository.LedgerCheckpointRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.sales.InventorySalesRecorder;
+import concurrency.practice.service.OrderService;
+import concurrency.practice.service.ShardedInventoryService;
+import concurrency.practice.service.StockStrategy;
+import concurrency.practice.stock.StockDeltaBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 주문 경로마다 재고를 차감하는 곳과 재고를 읽는 곳이 다르므로, 경로별로 "그 경로가 약속하는 재고"를 READ_STOCK 으로 읽는다.
+ *
+ * - PESSIMISTIC_LOCK, CONDITIONAL_UPDATE, OPTIMISTIC_VERSION, GROUP_COMMIT, HOT_SKU_LANES: 재고 행
+ * - SHARDED: 샤드 재고의 합 (SUM 한 문장이라 한 시점의 값이다)
+ * - LEDGER: 원장의 메모리 카운터 available(). 행은 writer 가 나중에 따라오므로 검사 뒤에 카운터와 맞는지만 본다.
+ *   reserveOrder 는 주문 id 대신 예약 순번을 돌려주므로, 이 경로에서는 주문 수정/주문 읽기를 섞지 않고 주문 생성으로 대신한다.
+ *
+ * hot SKU 레인은 감지기가 경합을 보고 상품을 승격해야 쓰이므로, 승격 문턱을 낮춰 실행 도중 일반 경로와 레인을 오가게 한다.
+ * (감지기는 HOT_SKU_LANES 를 검사할 때만 켠다)
+ */
+@SpringBootTest(properties = {
+        "practice.order.hot-sku.promote-threshold=4",
+        "practice.order.hot-sku.demote-threshold=1"
+})
+public class OrderLinearizabilityTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 600;
+    private static final int SKUS = 8;
+    // 주문 수요(스레드당 약 300건 x 평균 2개)가 재고보다 많아 실행 도중에 품절 경계를 지나게 한다.
+    private static final long INITIAL_STOCK = 800;
+    private static final int SHARDS_PER_SKU = 4;
+
+    /**
+     * 검사할 주문 경로
+     */
+    enum OrderPath {
+        PESSIMISTIC_LOCK, CONDITIONAL_UPDATE, OPTIMISTIC_VERSION, SHARDED, GROUP_COMMIT, HOT_SKU_LANES, LEDGER
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private InventoryShardRepository inventoryShardRepository;
+
+    @Autowired
+    private ShardedInventoryService shardedInventoryService;
+
+    @Autowired
+    private HotSkuDetector hotSkuDetector;
+
+    @Autowired
+    private HotSkuLanes hotSkuLanes;
+
+    @Autowired
+    private LedgerCheckpointRepository ledgerCheckpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    @Autowired
+    private OrderEventRecorder orderEventRecorder;
+
+    @Autowired
+    private InventorySalesRecorder inventorySalesRecorder;
+
+    @Autowired
+    private StockDeltaBuffer stockDeltaBuffer;
+
+    @TempDir
+    Path tempDir;
+
+    private ReservationLedger ledger;
+
+    @AfterEach
+    void tearDown() {
+        hotSkuDetector.setEnabled(false);
+        if (ledger != null) {
+            ledger.stop();
+            ledger = null;
+        }
+        productOrderRepository.deleteAllInBatch();
+        inventoryShardRepository.deleteAllInBatch();
+        inventoryRepository.deleteAllInBatch();
+        ledgerCheckpointRepository.deleteAllInBatch();
+    }
+
+    @ParameterizedTest
+    @EnumSource(OrderPath.class)
+    @DisplayName("선형화 검사: 주문 생성, 수량 수정, 재고/주문 읽기를 섞은 히스토리는 주문 경로와 상관없이 선형화 가능해야 한다")
+    void order_history_is_linearizable(OrderPath path) throws Exception {
+        // Given: 시드로 재현 가능한 스케줄과 상품 8개
+        StressScheduler scheduler = StressScheduler.fromSystemProperty();
+        Map<Long, Long> initialStocks = new HashMap<>();
+        Long[] inventoryIds = new Long[SKUS];
+        for (int i = 0; i < SKUS; i++) {
+            inventoryIds[i] = inventoryRepository.save(new Inventory("Linearizable " + i, INITIAL_STOCK)).getId();
+            initialStocks.put(inventoryIds[i], INITIAL_STOCK);
+            if (path == OrderPath.SHARDED) {
+                shardedInventoryService.shard(inventoryIds[i], SHARDS_PER_SKU);
+            }
+        }
+        if (path == OrderPath.HOT_SKU_LANES) {
+            hotSkuDetector.setEnabled(true);
+        } else if (path == OrderPath.LEDGER) {
+            ledger = new ReservationLedger(inventoryRepository, productOrderRepository, ledgerCheckpointRepository,
+                    transactionTemplate, inventoryCache, orderEventRecorder, inventorySalesRecorder, stockDeltaBuffer,
+                    new ReservationJournal(tempDir.resolve("reservations.journal"), false), 100);
+            // writer 가 검사 도중에도 예약을 DB에 반영하게 둔다.
+            ledger.start(Duration.ofMillis(10));
+        }
+        long laneOrdersBefore = hotSkuLanes.executed();
+
+        // When: 스레드마다 자기 Random 으로 연산을 골라 실행하고 호출/반환을 기록한다.
+        History history = new History();
+        List<Long> createdOrders = new ArrayList<>();
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(executorService.submit(() -> {
+                Random random = scheduler.random(thread);
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    scheduler.perturb(random);
+                    runRandomOperation(thread, random, path, inventoryIds, createdOrders, history);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executorService.shutdown();
+        long runMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        // Then: 재고 하나, 주문 하나씩 나눠 검사한다.
+        List<Operation> operations = history.operations();
+        OrderDomainModel model = new OrderDomainModel(initialStocks, operations);
+        long checkStartedAt = System.nanoTime();
+        Optional<LinearizabilityChecker.Violation> violation = LinearizabilityChecker.check(
+                OrderDomainModel.effective(operations), ObjectKey::of, model::initialState, model);
+        long checkMillis = (System.nanoTime() - checkStartedAt) / 1_000_000;
+
+        System.out.printf("%s: seed=%d, 연산 %d건 실행 %dms, 검사 %dms%n",
+                path, scheduler.seed(), operations.size(), runMillis, checkMillis);
+        assertThat(operations).hasSize(THREADS * OPERATIONS_PER_THREAD);
+        assertThat(violation)
+                .as("-Dstress.seed=%d 로 재현: %s", scheduler.seed(), violation.map(Object::toString).orElse(""))
+                .isEmpty();
+
+        if (path == OrderPath.HOT_SKU_LANES) {
+            // 레인을 한 번도 거치지 않았다면 일반 경로만 검사한 것이다.
+            assertThat(hotSkuLanes.executed()).isGreaterThan(laneOrdersBefore);
+        } else if (path == OrderPath.LEDGER) {
+            // writer 가 모든 예약을 반영하면 행은 카운터와 같아진다.
+            ledger.flushAll();
+            assertThat(ledger.rejectedReservations()).isZero();
+            for (Long inventoryId : inventoryIds) {
+                assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock())
+                        .isEqualTo(ledger.available(inventoryId));
+            }
+        }
+    }
+
+    /**
+     * 주문 생성 50%, 재고 읽기 20%, 수량 수정 20%, 주문 읽기 10%
+     * 수정과 주문 읽기는 다른 스레드가 만든 주문도 고르므로 같은 주문을 두고 경합한다.
+     */
+    private void runRandomOperation(int thread, Random random, OrderPath path, Long[] inventoryIds,
+                                    List<Long> createdOrders, History history) {
+        int dice = random.nextInt(100);
+        Long orderId = dice >= 70 ? pickOrder(random, createdOrders) : null;
+        if (dice < 50 || (dice >= 70 && orderId == null)) {
+            Long inventoryId = inventoryIds[random.nextInt(inventoryIds.length)];
+            int quantity = 1 + random.nextInt(3);
+            Operation.Outcome outcome = history.record(thread, Operation.Kind.CREATE_ORDER, inventoryId, quantity,
+                    () -> createOrder(path, inventoryId, quantity));
+            // 원장은 예약 순번을 돌려주므로 주문 수정/주문 읽기 대상에 넣지 않는다.
+            if (outcome.ok() && path != OrderPath.LEDGER) {
+                synchronized (createdOrders) {
+                    createdOrders.add(outcome.value());
+                }
+            }
+        } else if (dice < 70) {
+            Long inventoryId = inventoryIds[random.nextInt(inventoryIds.length)];
+            history.record(thread, Operation.Kind.READ_STOCK, inventoryId, 0, () -> readStock(path, inventoryId));
+        } else if (dice < 90) {
+            int quantity = 1 + random.nextInt(5);
+            history.record(thread, Operation.Kind.UPDATE_QUANTITY, orderId, quantity, () -> {
+                orderService.updateOrderQuantity(orderId, quantity);
+                return 0;
+            });
+        } else {
+            history.record(thread, Operation.Kind.READ_ORDER, orderId, 0,
+                    () -> productOrderRepository.findById(orderId).orElseThrow().getQuantity());
+        }
+    }
+
+    private long createOrder(OrderPath path, Long inventoryId, int quantity) {
+        return switch (path) {
+            case PESSIMISTIC_LOCK -> orderService.createOrder(inventoryId, quantity, StockStrategy.PESSIMISTIC_LOCK);
+            case CONDITIONAL_UPDATE -> orderService.createOrder(inventoryId, quantity, StockStrategy.CONDITIONAL_UPDATE);
+            case OPTIMISTIC_VERSION -> orderService.createOrder(inventoryId, quantity, StockStrategy.OPTIMISTIC_VERSION);
+            case SHARDED -> orderService.createOrder(inventoryId, quantity, StockStrategy.SHARDED);
+            case GROUP_COMMIT -> join(orderService.submitOrder(inventoryId, quantity));
+            // 승격되지 않은 상품은 일반 경로(비관적 락), 승격된 상품은 레인(조건부 UPDATE)으로 간다.
+            case HOT_SKU_LANES -> orderService.createOrder(inventoryId, quantity, StockStrategy.PESSIMISTIC_LOCK);
+            case LEDGER -> ledger.reserve(inventoryId, quantity);
+        };
+    }
+
+    private long readStock(OrderPath path, Long inventoryId) {
+        return switch (path) {
+            case SHARDED -> shardedInventoryService.totalStock(inventoryId);
+            case LEDGER -> ledger.available(inventoryId);
+            default -> inventoryRepository.findById(inventoryId).orElseThrow().getStock();
+        };
+    }
+
+    /**
+     * future 를 기다리고, PracticeException 으로 끝났다면 History 가 실패로 기록하도록 그대로 던집니다.
+     */
+    private static long join(CompletableFuture<Long> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof PracticeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Long pickOrder(Random random, List<Long> createdOrders) {
+        // 주문이 몇 개 만들어졌든 난수를 하나만 쓴다. 그래야 같은 시드에서 이후 연산 순서가 흐트러지지 않는다.
+        int pick = random.nextInt(Integer.MAX_VALUE);
+        synchronized (createdOrders) {
+            return createdOrders.isEmpty() ? null : createdOrders.get(pick % createdOrders.size());
+        }
+    }
+}
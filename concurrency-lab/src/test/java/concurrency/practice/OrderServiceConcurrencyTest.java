@@ -1,24 +1,48 @@
 package concurrency.practice;
 
 
+import concurrency.practice.admission.InventoryAdmission;
 import concurrency.practice.domain.Inventory;
 import concurrency.practice.domain.ProductOrder;
+import concurrency.practice.exception.OrderLineException;
+import concurrency.practice.exception.PracticeErrorCode;
 import concurrency.practice.exception.PracticeException;
 import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.InventoryShardRepository;
+import concurrency.practice.repository.OrderIdempotencyKeyRepository;
 import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.service.IdempotencyRegistry;
+import concurrency.practice.service.OrderGroupCommitter;
+import concurrency.practice.service.OrderLine;
+import concurrency.practice.service.OrderRetryMetrics;
 import concurrency.practice.service.OrderService;
+import concurrency.practice.service.RetryPolicy;
+import concurrency.practice.service.ShardedInventoryService;
+import concurrency.practice.service.StockStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 public class OrderServiceConcurrencyTest {
@@ -32,10 +56,36 @@ public class OrderServiceConcurrencyTest {
     @Autowired
     private ProductOrderRepository productOrderRepository;
 
+    @Autowired
+    private ShardedInventoryService shardedInventoryService;
+
+    @Autowired
+    private InventoryShardRepository inventoryShardRepository;
+
+    @Autowired
+    private OrderRetryMetrics orderRetryMetrics;
+
+    @Autowired
+    private IdempotencyRegistry idempotencyRegistry;
+
+    @Autowired
+    private OrderIdempotencyKeyRepository orderIdempotencyKeyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private InventoryAdmission inventoryAdmission;
+
+    @Autowired
+    private OrderGroupCommitter orderGroupCommitter;
+
     @AfterEach
     void tearDown() {
         // 각 테스트 후 데이터베이스 정리
         productOrderRepository.deleteAllInBatch();
+        orderIdempotencyKeyRepository.deleteAllInBatch();
+        inventoryShardRepository.deleteAllInBatch();
         inventoryRepository.deleteAllInBatch();
     }
 
@@ -155,4 +205,582 @@ public class OrderServiceConcurrencyTest {
         // 버전은 1 증가해야 한다 (기본 0 -> 1)
         assertThat(finalOrder.getVersion()).isEqualTo(1);
     }
+
+
+    @Test
+    @DisplayName("조건부 UPDATE: 100개의 재고를 가진 상품에 동시에 100개의 주문을 넣으면 재고가 0이 되어야 한다")
+    void conditional_update_test_for_inventory() throws InterruptedException {
+        // Given: 재고가 100개인 상품 생성
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Test Product", 100));
+
+        // When: 100개의 스레드가 동시에 1개씩 주문 생성 시도
+        OrderBurstResult result = runOrderBurst(savedInventory.getId(), 100, 100, StockStrategy.CONDITIONAL_UPDATE);
+
+        // Then: 모든 주문이 성공하고, 재고는 0개가 되어야 한다.
+        Inventory finalInventory = inventoryRepository.findById(savedInventory.getId()).orElseThrow();
+
+        assertThat(result.successCount()).isEqualTo(100);
+        assertThat(finalInventory.getStock()).isZero();
+        assertThat(productOrderRepository.count()).isEqualTo(100);
+    }
+
+
+    @Test
+    @DisplayName("조건부 UPDATE: 1개의 재고를 가진 상품에 동시에 2개의 주문을 넣으면 하나는 실패하고 실패한 주문은 남지 않는다")
+    void conditional_update_fail_test_for_inventory() throws InterruptedException {
+        // Given: 재고가 1개인 상품 생성
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Limited Product", 1));
+
+        // When: 2개의 스레드가 동시에 1개씩 주문 생성 시도
+        OrderBurstResult result = runOrderBurst(savedInventory.getId(), 2, 2, StockStrategy.CONDITIONAL_UPDATE);
+
+        // Then: 하나만 성공하고, 재고 부족으로 실패한 주문의 INSERT 는 롤백되어야 한다.
+        Inventory finalInventory = inventoryRepository.findById(savedInventory.getId()).orElseThrow();
+
+        assertThat(result.successCount()).isEqualTo(1);
+        assertThat(result.outOfStockCount()).isEqualTo(1);
+        assertThat(finalInventory.getStock()).isZero();
+        assertThat(productOrderRepository.count()).isEqualTo(1);
+    }
+
+
+    @Test
+    @DisplayName("처리량 비교: 같은 상품에 대한 주문 폭주를 재고 차감 전략별로 각각 처리한다")
+    void stock_strategy_throughput_comparison() throws InterruptedException {
+        int threadCount = 32;
+        int orderCount = 2000;
+
+        for (StockStrategy strategy : StockStrategy.values()) {
+            // Given: 주문 수의 절반만큼 재고를 가진 상품 (절반은 재고 부족으로 실패해야 한다)
+            Inventory savedInventory = inventoryRepository.save(new Inventory("Hot Product", orderCount / 2));
+            if (strategy == StockStrategy.SHARDED) {
+                shardedInventoryService.shard(savedInventory.getId(), 8);
+            }
+
+            // When
+            OrderBurstResult result = runOrderBurst(savedInventory.getId(), threadCount, orderCount, strategy);
+
+            // Then: 전략과 관계없이 재고는 음수가 되지 않고, 성공한 주문만 저장되어야 한다.
+            Inventory finalInventory = inventoryRepository.findById(savedInventory.getId()).orElseThrow();
+            assertThat(result.successCount()).isEqualTo(orderCount / 2);
+            assertThat(result.outOfStockCount()).isEqualTo(orderCount / 2);
+            assertThat(finalInventory.getStock()).isZero();
+            assertThat(shardedInventoryService.totalStock(savedInventory.getId())).isZero();
+            assertThat(productOrderRepository.count()).isEqualTo(orderCount / 2);
+
+            System.out.printf("%s: %d건 / %dms (%.0f orders/s)%n",
+                    strategy, orderCount, result.elapsedMillis(),
+                    orderCount * 1000.0 / Math.max(1, result.elapsedMillis()));
+
+            productOrderRepository.deleteAllInBatch();
+            inventoryShardRepository.deleteAllInBatch();
+            inventoryRepository.deleteAllInBatch();
+        }
+    }
+
+    @Test
+    @DisplayName("샤드 재고: 4개 샤드로 나눈 100개의 재고에 동시에 150개의 주문을 넣으면 100개만 성공하고 합계는 0이 되어야 한다")
+    void sharded_stock_test_for_inventory() throws InterruptedException {
+        // Given: 재고가 100개인 상품을 4개의 샤드로 분할
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Sharded Product", 100));
+        shardedInventoryService.shard(savedInventory.getId(), 4);
+
+        // When: 샤드가 하나씩 바닥나면서 다른 샤드로 넘어가도록 재고보다 많은 주문을 넣는다
+        OrderBurstResult result = runOrderBurst(savedInventory.getId(), 16, 150, StockStrategy.SHARDED);
+
+        // Then: 어떤 샤드도 음수가 되지 않고, 성공한 주문 수만큼만 재고가 줄어야 한다.
+        assertThat(result.successCount()).isEqualTo(100);
+        assertThat(result.outOfStockCount()).isEqualTo(50);
+        assertThat(shardedInventoryService.totalStock(savedInventory.getId())).isZero();
+        assertThat(inventoryShardRepository.findAll()).allSatisfy(shard -> assertThat(shard.getStock()).isNotNegative());
+        assertThat(productOrderRepository.count()).isEqualTo(100);
+    }
+
+
+    @Test
+    @DisplayName("샤드 재고: 샤드보다 큰 수량은 여러 샤드에서 나눠 차감하고, 재분배 후에는 샤드 재고가 균등해진다")
+    void sharded_stock_rebalance_test() {
+        // Given: 10개의 재고를 4개의 샤드로 분할 (3, 3, 2, 2)
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Uneven Product", 10));
+        shardedInventoryService.shard(savedInventory.getId(), 4);
+
+        // When: 어느 한 샤드로도 채울 수 없는 수량을 주문하고 재분배
+        orderService.createOrder(savedInventory.getId(), 5, StockStrategy.SHARDED);
+        shardedInventoryService.rebalance(savedInventory.getId());
+
+        // Then: 남은 5개가 (2, 1, 1, 1)로 다시 나뉜다.
+        assertThat(shardedInventoryService.totalStock(savedInventory.getId())).isEqualTo(5);
+        assertThat(inventoryShardRepository.findAll())
+                .extracting(shard -> shard.getStock())
+                .containsExactlyInAnyOrder(2L, 1L, 1L, 1L);
+        assertThat(inventoryRepository.findById(savedInventory.getId()).orElseThrow().getStock()).isZero();
+    }
+
+    @Test
+    @DisplayName("샤드 재고: 샤드 수를 바꾸거나 샤드가 지워지면, 주문은 캐시된 옛 샤드 수가 아니라 바뀐 샤드를 기준으로 처리된다")
+    void sharded_stock_follows_shard_changes() {
+        // Given: 4개 샤드로 나누고, 주문 한 건으로 샤드 수를 캐시에 올린다
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Resharded Product", 8));
+        Long inventoryId = savedInventory.getId();
+        shardedInventoryService.shard(inventoryId, 4);
+        orderService.createOrder(inventoryId, 1, StockStrategy.SHARDED);
+
+        // When: 남은 7개를 2개 샤드(4, 3)로 다시 나눈 뒤 주문
+        shardedInventoryService.shard(inventoryId, 2);
+        orderService.createOrder(inventoryId, 4, StockStrategy.SHARDED);
+
+        // Then
+        assertThat(inventoryShardRepository.findAll()).hasSize(2);
+        assertThat(shardedInventoryService.totalStock(inventoryId)).isEqualTo(3);
+
+        // 서비스를 거치지 않고 샤드를 지우면 재고 부족이 아니라 분할되지 않은 재고로 거절된다
+        inventoryShardRepository.deleteAllInBatch();
+        assertThatThrownBy(() -> orderService.createOrder(inventoryId, 1, StockStrategy.SHARDED))
+                .isInstanceOfSatisfying(PracticeException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(PracticeErrorCode.INVENTORY_NOT_SHARDED));
+    }
+
+    @Test
+    @DisplayName("낙관적 락: 100개의 재고를 가진 상품에 동시에 100개의 주문을 넣으면 충돌을 재시도하여 재고가 0이 되어야 한다")
+    void optimistic_version_test_for_inventory() throws InterruptedException {
+        // Given: 재고가 100개인 상품 생성
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Test Product", 100));
+
+        // When: 100개의 스레드가 동시에 1개씩 주문 생성 시도 (잠금 없이 버전 충돌 시 재시도)
+        OrderBurstResult result = runOrderBurst(savedInventory.getId(), 100, 100, StockStrategy.OPTIMISTIC_VERSION);
+
+        // Then: 모든 주문이 성공하고, 성공한 주문 수만큼 버전이 올라가야 한다.
+        Inventory finalInventory = inventoryRepository.findById(savedInventory.getId()).orElseThrow();
+
+        assertThat(result.successCount()).isEqualTo(100);
+        assertThat(finalInventory.getStock()).isZero();
+        assertThat(finalInventory.getVersion()).isEqualTo(100);
+        assertThat(productOrderRepository.count()).isEqualTo(100);
+    }
+
+
+    @Test
+    @DisplayName("그룹 커밋: 50개의 재고를 가진 상품에 동시에 100개의 주문을 넣으면 50개만 성공하고 재고가 0이 되어야 한다")
+    void group_commit_test_for_inventory() throws InterruptedException {
+        // Given: 재고가 50개인 상품 생성
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Test Product", 50));
+
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger successCount = new AtomicInteger(0);
+        AtomicInteger outOfStockCount = new AtomicInteger(0);
+
+        // When: 100개의 스레드가 동시에 1개씩 주문을 제출하고 결과를 기다린다
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    orderService.submitOrder(savedInventory.getId(), 1).join();
+                    successCount.incrementAndGet();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof PracticeException practiceException
+                            && practiceException.getErrorCode().name().equals("OUT_OF_STOCK")) {
+                        outOfStockCount.incrementAndGet();
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Then: 성공한 주문만 저장되고 재고는 정확히 0이 되어야 한다.
+        Inventory finalInventory = inventoryRepository.findById(savedInventory.getId()).orElseThrow();
+
+        assertThat(successCount.get()).isEqualTo(50);
+        assertThat(outOfStockCount.get()).isEqualTo(50);
+        assertThat(finalInventory.getStock()).isZero();
+        assertThat(productOrderRepository.count()).isEqualTo(50);
+    }
+
+
+    @Test
+    @DisplayName("그룹 커밋: 묶음 안의 주문은 도착 순서대로 재고를 배정받는다")
+    void group_commit_admits_in_arrival_order() {
+        // Given: 재고가 5개인 상품 생성
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Ordered Product", 5));
+
+        // When: 3개, 3개, 2개 순서로 주문을 제출 (두 번째 주문은 남은 재고 2개로 채울 수 없다)
+        List<CompletableFuture<Long>> futures = List.of(
+                orderService.submitOrder(savedInventory.getId(), 3),
+                orderService.submitOrder(savedInventory.getId(), 3),
+                orderService.submitOrder(savedInventory.getId(), 2));
+
+        // Then: 첫 번째와 세 번째 주문만 성공한다.
+        assertThat(futures.get(0).join()).isNotNull();
+        assertThatThrownBy(() -> futures.get(1).join()).hasCauseInstanceOf(PracticeException.class);
+        assertThat(futures.get(2).join()).isNotNull();
+        assertThat(inventoryRepository.findById(savedInventory.getId()).orElseThrow().getStock()).isZero();
+        assertThat(productOrderRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("그룹 커밋: 여러 상품의 묶음이 모두 커밋되면 빈 레인은 정리되어 남지 않는다")
+    void group_commit_removes_idle_lanes() throws InterruptedException {
+        // Given: 상품 200개
+        List<Long> inventoryIds = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            inventoryIds.add(inventoryRepository.save(new Inventory("Lane Product " + i, 10)).getId());
+        }
+
+        // When: 상품마다 주문 3개씩 제출하고 모두 끝나기를 기다린다.
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            for (Long inventoryId : inventoryIds) {
+                futures.add(orderService.submitOrder(inventoryId, 1));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        // Then: 모든 주문이 저장되고, 레인은 마지막 묶음을 커밋한 직후 지워진다.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (orderGroupCommitter.laneCount() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(orderGroupCommitter.laneCount()).isZero();
+        assertThat(productOrderRepository.count()).isEqualTo(600);
+    }
+
+    @Test
+    @DisplayName("장바구니 주문: 상품 구성이 겹치는 장바구니 60개를 섞인 순서로 동시에 주문해도 교착 없이 모두 성공해야 한다")
+    void batch_order_overlapping_carts_without_deadlock() throws InterruptedException {
+        // Given: 재고가 100개인 상품 4개
+        List<Long> inventoryIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            inventoryIds.add(inventoryRepository.save(new Inventory("Cart Product " + i, 100)).getId());
+        }
+
+        int threadCount = 60;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger successCount = new AtomicInteger(0);
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+
+        // When: 장바구니마다 상품 3개를 무작위 순서로 담아 동시에 주문한다.
+        // 줄 순서대로 잠갔다면 A→B 와 B→A 로 잠그는 장바구니끼리 교착이 생긴다.
+        for (int i = 0; i < threadCount; i++) {
+            List<Long> shuffled = new ArrayList<>(inventoryIds);
+            Collections.shuffle(shuffled);
+            List<OrderLine> cart = shuffled.subList(0, 3).stream()
+                    .map(inventoryId -> new OrderLine(inventoryId, 1))
+                    .toList();
+            executorService.submit(() -> {
+                try {
+                    orderService.createOrders(cart);
+                    successCount.incrementAndGet();
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Then: 모든 장바구니가 성공하고, 차감된 재고 합계가 주문 줄 수와 같다.
+        assertThat(failures).isEmpty();
+        assertThat(successCount.get()).isEqualTo(threadCount);
+        long remaining = inventoryRepository.findAllById(inventoryIds).stream().mapToLong(Inventory::getStock).sum();
+        assertThat(remaining).isEqualTo(400 - threadCount * 3);
+        assertThat(productOrderRepository.count()).isEqualTo(threadCount * 3);
+    }
+
+    @Test
+    @DisplayName("장바구니 주문: 한 상품이라도 재고가 부족하면 전체가 롤백되고 실패한 상품 id 를 알려준다")
+    void batch_order_rolls_back_whole_cart() {
+        // Given: 재고가 충분한 상품과 1개뿐인 상품
+        Long plentyId = inventoryRepository.save(new Inventory("Plenty Product", 10)).getId();
+        Long scarceId = inventoryRepository.save(new Inventory("Scarce Product", 1)).getId();
+
+        // When: 두 번째 줄이 재고를 넘는 장바구니를 주문한다.
+        List<OrderLine> cart = List.of(new OrderLine(plentyId, 2), new OrderLine(scarceId, 2));
+
+        // Then: OUT_OF_STOCK 과 함께 부족한 상품이 지목되고, 아무것도 차감되거나 저장되지 않는다.
+        assertThatThrownBy(() -> orderService.createOrders(cart))
+                .isInstanceOfSatisfying(OrderLineException.class, e -> {
+                    assertThat(e.getErrorCode()).isEqualTo(PracticeErrorCode.OUT_OF_STOCK);
+                    assertThat(e.getInventoryId()).isEqualTo(scarceId);
+                });
+        assertThat(inventoryRepository.findById(plentyId).orElseThrow().getStock()).isEqualTo(10);
+        assertThat(inventoryRepository.findById(scarceId).orElseThrow().getStock()).isEqualTo(1);
+        assertThat(productOrderRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("수량 검증: 0 이하의 수량은 전략과 상관없이 INVALID_QUANTITY 로 거절되고 재고가 늘어나지 않는다")
+    void non_positive_quantity_is_rejected() {
+        // Given
+        Long inventoryId = inventoryRepository.save(new Inventory("Validated Product", 10)).getId();
+        Long orderId = orderService.createOrder(inventoryId, 1);
+
+        // When & Then
+        for (StockStrategy strategy : StockStrategy.values()) {
+            assertThatThrownBy(() -> orderService.createOrder(inventoryId, -5, strategy))
+                    .isInstanceOf(PracticeException.class)
+                    .extracting("errorCode").isEqualTo(PracticeErrorCode.INVALID_QUANTITY);
+        }
+        assertThatThrownBy(() -> orderService.createOrders(List.of(new OrderLine(inventoryId, 0))))
+                .isInstanceOfSatisfying(OrderLineException.class, e -> {
+                    assertThat(e.getErrorCode()).isEqualTo(PracticeErrorCode.INVALID_QUANTITY);
+                    assertThat(e.getInventoryId()).isEqualTo(inventoryId);
+                });
+        assertThatThrownBy(() -> orderService.submitOrder(inventoryId, 0).join())
+                .hasCauseInstanceOf(PracticeException.class);
+        assertThatThrownBy(() -> orderService.updateOrderQuantity(orderId, 0))
+                .isInstanceOf(PracticeException.class)
+                .extracting("errorCode").isEqualTo(PracticeErrorCode.INVALID_QUANTITY);
+
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isEqualTo(9);
+        assertThat(productOrderRepository.findById(orderId).orElseThrow().getQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("멱등 키: 같은 키로 100개의 스레드가 동시에 주문해도 재고는 한 번만 차감되고 모두 같은 주문 id 를 받는다")
+    void idempotent_order_test() throws InterruptedException {
+        // Given: 재고가 100개인 상품과 클라이언트가 재시도마다 다시 보내는 하나의 멱등 키
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Retried Product", 100));
+        String idempotencyKey = "order-" + System.nanoTime();
+        long executionsBefore = idempotencyRegistry.executions();
+
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        List<Long> orderIds = Collections.synchronizedList(new ArrayList<>());
+
+        // When: 100개의 스레드가 같은 키로 동시에 주문
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    orderIds.add(orderService.createOrder(savedInventory.getId(), 3, idempotencyKey));
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Then: 주문은 하나, 차감도 한 번이며 모든 호출이 같은 주문 id 를 받는다.
+        assertThat(orderIds).hasSize(threadCount);
+        assertThat(orderIds.stream().distinct().toList()).hasSize(1);
+        assertThat(idempotencyRegistry.executions() - executionsBefore).isEqualTo(1);
+        assertThat(inventoryRepository.findById(savedInventory.getId()).orElseThrow().getStock()).isEqualTo(97);
+        assertThat(productOrderRepository.count()).isEqualTo(1);
+
+        // 메모리 창이 지난 뒤의 재시도(다른 인스턴스로 간 재시도와 같다)는 DB의 키 기록으로 같은 주문 id 를 받는다.
+        idempotencyRegistry.forget(idempotencyKey);
+        assertThat(orderService.createOrder(savedInventory.getId(), 3, idempotencyKey)).isEqualTo(orderIds.get(0));
+        assertThat(inventoryRepository.findById(savedInventory.getId()).orElseThrow().getStock()).isEqualTo(97);
+    }
+
+    @Test
+    @DisplayName("멱등 키: 처리 중 Error 가 나도 같은 키로 기다리던 호출은 깨어나고, 키는 재시도할 수 있게 풀려야 한다")
+    void idempotency_error_releases_waiters_test() throws Exception {
+        // Given: 첫 호출이 action 안에서 멈춰 있는 동안 같은 키로 두 번째 호출이 기다린다.
+        String idempotencyKey = "error-" + System.nanoTime();
+        long duplicatesBefore = idempotencyRegistry.duplicates();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> idempotencyRegistry.execute(idempotencyKey,
+                () -> {
+                    running.countDown();
+                    awaitUninterruptibly(fail);
+                    throw new StackOverflowError("simulated");
+                }), executorService);
+        running.await();
+        CompletableFuture<Object> duplicate = CompletableFuture.supplyAsync(
+                () -> idempotencyRegistry.execute(idempotencyKey, () -> "unexpected"), executorService);
+        while (idempotencyRegistry.duplicates() == duplicatesBefore) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        fail.countDown();
+
+        // Then: 두 호출 모두 같은 Error 로 끝나고, 다음 호출은 action 을 새로 실행한다.
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(idempotencyRegistry.execute(idempotencyKey, () -> "retried")).isEqualTo("retried");
+        executorService.shutdown();
+    }
+
+    @Test
+    @DisplayName("주문 계측: 재고보다 많은 주문이 몰리면 잠금 대기/보유 시간은 DB까지 간 주문마다, 재고 부족은 실패한 주문마다 기록되어야 한다")
+    void order_metrics_test() throws InterruptedException {
+        // Given: 재고가 50개인 상품
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Measured Product", 50));
+        String operation = StockStrategy.PESSIMISTIC_LOCK.name();
+        long waitsBefore = timerCount("practice.order.lock.wait", operation);
+        long holdsBefore = timerCount("practice.order.lock.hold", operation);
+        double outOfStockBefore = failureCount(operation, PracticeErrorCode.OUT_OF_STOCK);
+        long soldOutRejectionsBefore = inventoryAdmission.soldOutRejections();
+
+        int threadCount = 80;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        // When: 80개의 스레드가 동시에 1개씩 비관적 락으로 주문
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    orderService.createOrder(savedInventory.getId(), 1, StockStrategy.PESSIMISTIC_LOCK);
+                } catch (PracticeException ignored) {
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Then: 30번은 OUT_OF_STOCK 으로 끝났다. 품절 표시가 남은 뒤의 주문은 DB에 가지 않고 거절되므로,
+        // 잠금은 성공한 50번과 DB에서 재고 부족을 확인한 주문만큼만 잡혔다.
+        long failedAtDatabase = (long) (failureCount(operation, PracticeErrorCode.OUT_OF_STOCK) - outOfStockBefore);
+        long rejectedBeforeDatabase = inventoryAdmission.soldOutRejections() - soldOutRejectionsBefore;
+        assertThat(failedAtDatabase).isPositive();
+        assertThat(failedAtDatabase + rejectedBeforeDatabase).isEqualTo(30);
+        assertThat(timerCount("practice.order.lock.wait", operation) - waitsBefore).isEqualTo(50 + failedAtDatabase);
+        assertThat(timerCount("practice.order.lock.hold", operation) - holdsBefore).isEqualTo(50 + failedAtDatabase);
+        assertThat(productOrderRepository.count()).isEqualTo(50);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long timerCount(String name, String operation) {
+        return meterRegistry.find(name).tag("operation", operation).timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    private double failureCount(String operation, PracticeErrorCode errorCode) {
+        Counter counter = meterRegistry.find("practice.order.failures")
+                .tag("operation", operation)
+                .tag("code", errorCode.name())
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    @DisplayName("낙관적 락 재시도: 200개의 스레드가 같은 주문을 수정할 때 재시도하면 성공률이 올라가고, 성공한 수정마다 버전이 1씩 증가한다")
+    void optimistic_lock_retry_contention_test() throws InterruptedException {
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Some Product", 10));
+        RetryPolicy withRetry = new RetryPolicy(20, Duration.ofMillis(2), Duration.ofMillis(100), 2.0, 0.5);
+
+        UpdateContentionResult withoutRetries = runUpdateContention(savedInventory.getId(), RetryPolicy.noRetry());
+        UpdateContentionResult withRetries = runUpdateContention(savedInventory.getId(), withRetry);
+
+        System.out.println("재시도 없음: " + withoutRetries);
+        System.out.println("재시도 있음: " + withRetries);
+
+        assertThat(withRetries.successCount()).isGreaterThan(withoutRetries.successCount());
+        assertThat(withRetries.giveUps()).isLessThan(withoutRetries.giveUps());
+    }
+
+    private UpdateContentionResult runUpdateContention(Long inventoryId, RetryPolicy retryPolicy)
+            throws InterruptedException {
+        ProductOrder savedOrder = productOrderRepository.save(new ProductOrder(inventoryId, 1));
+
+        int threadCount = 200;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch ready = new CountDownLatch(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threadCount);
+        AtomicInteger successCount = new AtomicInteger(0);
+        long[] latencies = new long[threadCount];
+        long attemptsBefore = orderRetryMetrics.attempts();
+        long giveUpsBefore = orderRetryMetrics.giveUps();
+
+        for (int i = 0; i < threadCount; i++) {
+            int index = i;
+            executorService.submit(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                    long begin = System.nanoTime();
+                    try {
+                        orderService.updateOrderQuantity(savedOrder.getId(), index + 2, retryPolicy);
+                        successCount.incrementAndGet();
+                    } catch (PracticeException e) {
+                        // OPTIMISTIC_LOCK_CONFLICT: 재시도 횟수를 모두 사용함
+                    } finally {
+                        latencies[index] = System.nanoTime() - begin;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        ready.await();
+        start.countDown();
+        done.await();
+        executorService.shutdown();
+
+        // 성공한 수정마다 버전이 정확히 1씩 증가해야 한다. (잃어버린 갱신이 없다)
+        ProductOrder finalOrder = productOrderRepository.findById(savedOrder.getId()).orElseThrow();
+        assertThat(finalOrder.getVersion()).isEqualTo(successCount.get());
+
+        Arrays.sort(latencies);
+        long p99Millis = TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.ceil(threadCount * 0.99) - 1]);
+        return new UpdateContentionResult(successCount.get(), threadCount, p99Millis,
+                orderRetryMetrics.attempts() - attemptsBefore, orderRetryMetrics.giveUps() - giveUpsBefore);
+    }
+
+    private OrderBurstResult runOrderBurst(Long inventoryId, int threadCount, int orderCount,
+                                           StockStrategy strategy) throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(orderCount);
+        AtomicInteger successCount = new AtomicInteger(0);
+        AtomicInteger outOfStockCount = new AtomicInteger(0);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < orderCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    orderService.createOrder(inventoryId, 1, strategy);
+                    successCount.incrementAndGet();
+                } catch (PracticeException e) {
+                    if (e.getErrorCode().name().equals("OUT_OF_STOCK")) {
+                        outOfStockCount.incrementAndGet();
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        long elapsedMillis = System.currentTimeMillis() - start;
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+
+        return new OrderBurstResult(successCount.get(), outOfStockCount.get(), elapsedMillis);
+    }
+
+    private record OrderBurstResult(int successCount, int outOfStockCount, long elapsedMillis) {
+    }
+
+    private record UpdateContentionResult(int successCount, int requestCount, long p99Millis,
+                                          long attempts, long giveUps) {
+
+        @Override
+        public String toString() {
+            return String.format("성공률 %.1f%% (%d/%d), p99 %dms, 시도 %d회, 포기 %d회",
+                    successCount * 100.0 / requestCount, successCount, requestCount, p99Millis, attempts, giveUps);
+        }
+    }
 }
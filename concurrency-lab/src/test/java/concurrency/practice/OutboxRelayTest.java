@@ -0,0 +1,139 @@
+package concurrency.practice;
+
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.domain.OrderEventType;
+import concurrency.practice.outbox.InMemoryOrderEventSink;
+import concurrency.practice.outbox.OrderEvent;
+import concurrency.practice.outbox.OrderEventSink;
+import concurrency.practice.outbox.OutboxRelay;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.OrderOutboxEventRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "practice.outbox.enabled=true",
+        "practice.outbox.workers=4",
+        "practice.outbox.batch-size=50",
+        "practice.outbox.sink=memory"
+})
+public class OutboxRelayTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderEventSink orderEventSink;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private OrderOutboxEventRepository orderOutboxEventRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        outboxRelay.start();
+        productOrderRepository.deleteAllInBatch();
+        orderOutboxEventRepository.deleteAllInBatch();
+        inventoryRepository.deleteAllInBatch();
+        ((InMemoryOrderEventSink) orderEventSink).clear();
+    }
+
+    @Test
+    @DisplayName("아웃박스: 주문이 몰리는 도중 릴레이를 멈췄다 다시 띄워도 모든 주문 이벤트가 빠짐없이 한 번씩 발행되어야 한다")
+    void relay_restart_without_lost_or_duplicated_events() throws InterruptedException {
+        // Given: 재고가 충분한 상품
+        Long inventoryId = inventoryRepository.save(new Inventory("Outbox Product", 10_000)).getId();
+
+        int threadCount = 16;
+        int ordersPerThread = 25;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch halfDone = new CountDownLatch(threadCount * ordersPerThread / 2);
+        CountDownLatch allDone = new CountDownLatch(threadCount);
+        List<Long> orderIds = Collections.synchronizedList(new ArrayList<>());
+
+        // When: 16개 스레드가 주문을 만들고 바로 수량을 고치는 동안, 절반쯤에서 릴레이를 멈춘다.
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < ordersPerThread; j++) {
+                        Long orderId = orderService.createOrder(inventoryId, 1);
+                        orderService.updateOrderQuantity(orderId, 2);
+                        orderIds.add(orderId);
+                        halfDone.countDown();
+                    }
+                } finally {
+                    allDone.countDown();
+                }
+            });
+        }
+        halfDone.await();
+        outboxRelay.stop();
+        allDone.await();
+        executorService.shutdown();
+
+        // 릴레이가 멈춰 있는 동안의 이벤트는 아웃박스에 남아 있어야 한다.
+        assertThat(outboxRelay.backlog()).isPositive();
+
+        // 다시 띄운 릴레이가 남은 이벤트를 모두 비울 때까지 기다린다.
+        outboxRelay.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (outboxRelay.backlog() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+
+        // Then: 주문마다 생성/수정 이벤트가 정확히 하나씩 발행되었다.
+        List<OrderEvent> published = ((InMemoryOrderEventSink) orderEventSink).published();
+        Set<Long> eventIds = new HashSet<>();
+        published.forEach(event -> eventIds.add(event.eventId()));
+
+        assertThat(orderIds).hasSize(threadCount * ordersPerThread);
+        assertThat(outboxRelay.backlog()).isZero();
+        assertThat(published).hasSize(orderIds.size() * 2);
+        assertThat(eventIds).hasSize(published.size());
+        assertThat(published.stream()
+                .filter(event -> event.eventType() == OrderEventType.ORDER_CREATED)
+                .map(OrderEvent::orderId))
+                .containsExactlyInAnyOrderElementsOf(orderIds);
+        assertThat(published.stream()
+                .filter(event -> event.eventType() == OrderEventType.ORDER_QUANTITY_UPDATED)
+                .map(OrderEvent::orderId))
+                .containsExactlyInAnyOrderElementsOf(orderIds);
+
+        // 릴레이 계측은 Micrometer 로도 같은 값을 내보낸다.
+        assertThat(meterRegistry.get("practice.outbox.published.events").functionCounter().count())
+                .isEqualTo((double) outboxRelay.publishedEvents());
+        assertThat(meterRegistry.get("practice.outbox.published.batches").functionCounter().count())
+                .isEqualTo((double) outboxRelay.publishedBatches());
+        assertThat(meterRegistry.get("practice.outbox.lag").tag("stat", "max").gauge().value())
+                .isEqualTo((double) outboxRelay.maxLagMillis());
+    }
+}
@@ -0,0 +1,273 @@
+package concurrency.practice;
+
+import concurrency.practice.cache.InventoryCache;
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.ledger.ReservationJournal;
+import concurrency.practice.ledger.ReservationLedger;
+import concurrency.practice.outbox.OrderEventRecorder;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.LedgerCheckpointRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.sales.InventorySalesRecorder;
+import concurrency.practice.service.InventoryStockService;
+import concurrency.practice.service.OrderService;
+import concurrency.practice.service.StockStrategy;
+import concurrency.practice.stock.StockDeltaBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+public class ReservationLedgerTest {
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private LedgerCheckpointRepository ledgerCheckpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    @Autowired
+    private OrderEventRecorder orderEventRecorder;
+
+    @Autowired
+    private InventorySalesRecorder inventorySalesRecorder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InventoryStockService inventoryStockService;
+
+    @Autowired
+    private StockDeltaBuffer stockDeltaBuffer;
+
+    @Autowired
+    private OrderService orderService;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        productOrderRepository.deleteAllInBatch();
+        inventoryRepository.deleteAllInBatch();
+        ledgerCheckpointRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("예약 원장: 일부만 DB에 반영된 상태에서 프로세스가 죽어도 재시작 후 초과 판매가 없어야 한다")
+    void crash_restart_without_oversell() throws InterruptedException {
+        // Given: 재고가 100개인 상품과 한 번에 30건씩 반영하는 원장
+        Inventory savedInventory = inventoryRepository.save(new Inventory("Hot Product", 100));
+        Long inventoryId = savedInventory.getId();
+        Path journalPath = tempDir.resolve("reservations.journal");
+
+        ReservationJournal firstJournal = new ReservationJournal(journalPath, false);
+        ReservationLedger first = newLedger(firstJournal);
+        first.recover();
+
+        // When: 20개의 스레드가 10건씩, 재고보다 많은 200건을 예약한다
+        int threadCount = 20;
+        int reservationsPerThread = 10;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger successCount = new AtomicInteger(0);
+        AtomicInteger failCount = new AtomicInteger(0);
+        AtomicLong reserveNanos = new AtomicLong(0);
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < reservationsPerThread; j++) {
+                        long start = System.nanoTime();
+                        try {
+                            first.reserve(inventoryId, 1);
+                            successCount.incrementAndGet();
+                        } catch (PracticeException e) {
+                            failCount.incrementAndGet();
+                        } finally {
+                            reserveNanos.addAndGet(System.nanoTime() - start);
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+        System.out.printf("예약 평균 소요시간: %.1fus%n",
+                reserveNanos.get() / 1000.0 / (threadCount * reservationsPerThread));
+
+        // 한 묶음(30건)만 DB에 반영한 뒤 stop() 없이 원장을 버린다 (프로세스 장애)
+        assertThat(first.flush()).isEqualTo(30);
+        firstJournal.close();
+
+        // Then: 같은 저널로 다시 띄운 원장은 반영되지 않은 70건을 기억하고 있어야 한다.
+        ReservationLedger second = newLedger(new ReservationJournal(journalPath, false));
+        second.recover();
+
+        assertThat(successCount.get()).isEqualTo(100);
+        assertThat(failCount.get()).isEqualTo(100);
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isEqualTo(70);
+        assertThat(second.pendingCount()).isEqualTo(70);
+        assertThat(second.available(inventoryId)).isZero();
+        assertThatThrownBy(() -> second.reserve(inventoryId, 1)).isInstanceOf(PracticeException.class);
+
+        // 남은 예약을 모두 반영하면 DB 재고와 주문 수가 예약 결과와 정확히 일치해야 한다.
+        second.stop();
+
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isZero();
+        assertThat(productOrderRepository.count()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("예약 원장: 원장 밖에서 입고되면, 입고 버퍼의 양을 더하고 반영되지 않은 예약을 빼서 카운터를 다시 맞춘다")
+    void restock_reseeds_counter() {
+        // Given: 재고 10개를 모두 예약했고, 그중 4건만 DB에 반영된 원장
+        Long inventoryId = inventoryRepository.save(new Inventory("Restocked Product", 10)).getId();
+        ReservationLedger ledger = newLedger(new ReservationJournal(tempDir.resolve("restock.journal"), false), 4);
+        ledger.recover();
+        Consumer<Long> listener = ledger::stockChanged;
+        inventoryCache.addStockChangeListener(listener);
+        try {
+            for (int i = 0; i < 10; i++) {
+                ledger.reserve(inventoryId, 1);
+            }
+            assertThat(ledger.flush()).isEqualTo(4);
+            assertThatThrownBy(() -> ledger.reserve(inventoryId, 1)).isInstanceOf(PracticeException.class);
+
+            // When: 입고 5개가 입고 버퍼에 쌓인다
+            inventoryStockService.restock(inventoryId, 5);
+
+            // Then: 버퍼에 쌓인 입고분은 재고 행에 반영되기 전에도 예약할 수 있다.
+            // 카운터 = DB 재고(6) + 버퍼(5) - 반영되지 않은 예약(6), 버퍼가 행에 반영되어도 그대로다.
+            assertThat(ledger.available(inventoryId)).isEqualTo(5);
+            stockDeltaBuffer.flushAll();
+            assertThat(ledger.available(inventoryId)).isEqualTo(5);
+            for (int i = 0; i < 5; i++) {
+                ledger.reserve(inventoryId, 1);
+            }
+            assertThatThrownBy(() -> ledger.reserve(inventoryId, 1)).isInstanceOf(PracticeException.class);
+
+            ledger.stop();
+            assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isZero();
+            assertThat(productOrderRepository.count()).isEqualTo(15);
+        } finally {
+            inventoryCache.removeStockChangeListener(listener);
+        }
+    }
+
+    @Test
+    @DisplayName("예약 원장: 원장 예약과 직접 주문이 같은 상품을 차감해도, 재고를 넘는 예약만 거절되고 writer 는 계속 반영한다")
+    void direct_orders_between_reservations_do_not_block_the_writer() {
+        // Given: 재고 10개를 원장이 모두 예약했다. 아직 DB에는 반영되지 않았다.
+        Long inventoryId = inventoryRepository.save(new Inventory("Shared Product", 10)).getId();
+        ReservationLedger ledger = newLedger(new ReservationJournal(tempDir.resolve("mixed.journal"), false));
+        ledger.recover();
+        Consumer<Long> listener = ledger::stockChanged;
+        inventoryCache.addStockChangeListener(listener);
+        try {
+            for (int i = 0; i < 5; i++) {
+                ledger.reserve(inventoryId, 2);
+            }
+
+            // When: 원장을 거치지 않은 주문 두 건(3개)이 먼저 커밋된다
+            orderService.createOrder(inventoryId, 2, StockStrategy.CONDITIONAL_UPDATE);
+            orderService.createOrder(inventoryId, 1, StockStrategy.PESSIMISTIC_LOCK);
+
+            // Then: 남은 7개에 들어가는 예약 3건(6개)만 저장되고, 나머지 2건은 거절된다. 반영은 막히지 않는다.
+            assertThat(ledger.flush()).isEqualTo(5);
+            assertThat(ledger.pendingCount()).isZero();
+            assertThat(ledger.rejectedReservations()).isEqualTo(2);
+            assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isEqualTo(1);
+            assertThat(productOrderRepository.count()).isEqualTo(2 + 3);
+
+            // 카운터는 DB 재고로 다시 맞춰져, 남은 1개까지만 예약되고 다음 반영도 정상이다.
+            assertThat(ledger.available(inventoryId)).isEqualTo(1);
+            ledger.reserve(inventoryId, 1);
+            assertThatThrownBy(() -> ledger.reserve(inventoryId, 1)).isInstanceOf(PracticeException.class);
+            assertThat(ledger.flush()).isEqualTo(1);
+            assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isZero();
+            assertThat(productOrderRepository.count()).isEqualTo(6);
+            ledger.stop();
+        } finally {
+            inventoryCache.removeStockChangeListener(listener);
+        }
+    }
+
+    @Test
+    @DisplayName("예약 원장: 커밋은 되었지만 응답을 못 받아 다시 반영한 묶음은 주문을 두 번 저장하지 않는다")
+    void retry_after_unknown_commit_outcome_does_not_duplicate() {
+        // Given: 첫 커밋은 성공하지만 호출자에게는 실패로 보이는 트랜잭션
+        Long inventoryId = inventoryRepository.save(new Inventory("Retried Product", 10)).getId();
+        AtomicBoolean loseAcknowledgement = new AtomicBoolean(true);
+        TransactionTemplate flakyTemplate = new TransactionTemplate(transactionManager) {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                T result = super.execute(action);
+                if (loseAcknowledgement.getAndSet(false)) {
+                    throw new TransactionSystemException("commit acknowledgement lost");
+                }
+                return result;
+            }
+        };
+        ReservationLedger ledger = new ReservationLedger(inventoryRepository, productOrderRepository,
+                ledgerCheckpointRepository, flakyTemplate, inventoryCache, orderEventRecorder, inventorySalesRecorder,
+                stockDeltaBuffer, new ReservationJournal(tempDir.resolve("retry.journal"), false), 30);
+        ledger.recover();
+        for (int i = 0; i < 3; i++) {
+            ledger.reserve(inventoryId, 2);
+        }
+
+        // When: 첫 반영은 실패로 보이고, 같은 묶음을 다시 반영한다
+        assertThatThrownBy(ledger::flush).isInstanceOf(TransactionSystemException.class);
+        assertThat(ledger.pendingCount()).isEqualTo(3);
+        assertThat(ledger.flush()).isEqualTo(3);
+
+        // Then: 주문과 재고 차감은 한 번만 반영된다
+        assertThat(ledger.pendingCount()).isZero();
+        assertThat(productOrderRepository.count()).isEqualTo(3);
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isEqualTo(4);
+        ledger.stop();
+    }
+
+    private ReservationLedger newLedger(ReservationJournal journal) {
+        return newLedger(journal, 30);
+    }
+
+    private ReservationLedger newLedger(ReservationJournal journal, int batchSize) {
+        return new ReservationLedger(inventoryRepository, productOrderRepository, ledgerCheckpointRepository,
+                transactionTemplate, inventoryCache, orderEventRecorder, inventorySalesRecorder, stockDeltaBuffer,
+                journal, batchSize);
+    }
+}
@@ -0,0 +1,277 @@
+package concurrency.practice;
+
+import concurrency.practice.domain.Inventory;
+import concurrency.practice.exception.PracticeErrorCode;
+import concurrency.practice.exception.PracticeException;
+import concurrency.practice.repository.InventoryRepository;
+import concurrency.practice.repository.InventoryShardRepository;
+import concurrency.practice.repository.ProductOrderRepository;
+import concurrency.practice.service.InventoryStockService;
+import concurrency.practice.service.OrderService;
+import concurrency.practice.service.ShardedInventoryService;
+import concurrency.practice.service.StockAdjustment;
+import concurrency.practice.service.StockStrategy;
+import concurrency.practice.stock.StockDeltaBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 반영 시점을 테스트가 정하도록 주기 반영은 사실상 끈다.
+@SpringBootTest(properties = "practice.inventory.stock-buffer.flush-interval=1h")
+public class StockDeltaBufferTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryStockService inventoryStockService;
+
+    @Autowired
+    private StockDeltaBuffer stockDeltaBuffer;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardedInventoryService shardedInventoryService;
+
+    @Autowired
+    private InventoryShardRepository inventoryShardRepository;
+
+    @AfterEach
+    void tearDown() {
+        stockDeltaBuffer.flushAll();
+        productOrderRepository.deleteAllInBatch();
+        inventoryShardRepository.deleteAllInBatch();
+        inventoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("입고 버퍼: 반영 전의 입고분으로도 주문할 수 있고, 주문이 롤백되면 가져간 입고분은 버퍼로 돌아온다")
+    void buffered_restock_is_available_before_flush() {
+        // Given: 재고가 0 인 상품에 5개를 입고한다. 아직 재고 행에는 반영되지 않았다.
+        Long inventoryId = inventoryRepository.save(new Inventory("Buffered Product", 0)).getId();
+        inventoryStockService.restock(inventoryId, 5);
+        assertThat(stockDeltaBuffer.pending(inventoryId)).isEqualTo(5);
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isZero();
+
+        // When & Then: 전략과 상관없이 입고분 5개까지 주문되고 6번째는 재고 부족이다.
+        orderService.createOrder(inventoryId, 2, StockStrategy.PESSIMISTIC_LOCK);
+        orderService.createOrder(inventoryId, 1, StockStrategy.CONDITIONAL_UPDATE);
+        orderService.createOrder(inventoryId, 2, StockStrategy.OPTIMISTIC_VERSION);
+        assertThatThrownBy(() -> orderService.createOrder(inventoryId, 1, StockStrategy.PESSIMISTIC_LOCK))
+                .isInstanceOf(PracticeException.class)
+                .extracting("errorCode").isEqualTo(PracticeErrorCode.OUT_OF_STOCK);
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isZero();
+
+        // 모자란 주문은 가져간 입고분을 롤백과 함께 돌려준다.
+        inventoryStockService.restock(inventoryId, 2);
+        assertThatThrownBy(() -> orderService.createOrder(inventoryId, 3, StockStrategy.PESSIMISTIC_LOCK))
+                .isInstanceOf(PracticeException.class);
+        assertThatThrownBy(() -> orderService.createOrder(inventoryId, 3, StockStrategy.CONDITIONAL_UPDATE))
+                .isInstanceOf(PracticeException.class);
+        assertThat(stockDeltaBuffer.pending(inventoryId)).isEqualTo(2);
+
+        // 묶음 조정은 같은 상품끼리 합쳐 반영하고, 차감이 실패하면 아무것도 반영하지 않는다.
+        assertThatThrownBy(() -> inventoryStockService.adjustAll(List.of(
+                new StockAdjustment(inventoryId, 10),
+                new StockAdjustment(inventoryId, -20))))
+                .isInstanceOf(PracticeException.class)
+                .extracting("errorCode").isEqualTo(PracticeErrorCode.OUT_OF_STOCK);
+        assertThat(stockDeltaBuffer.pending(inventoryId)).isEqualTo(2);
+
+        stockDeltaBuffer.flushAll();
+        assertThat(stockDeltaBuffer.pending(inventoryId)).isZero();
+        assertThat(inventoryRepository.findById(inventoryId).orElseThrow().getStock()).isEqualTo(2);
+        assertThat(productOrderRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("입고 버퍼: 반영이 끝나 비어 있는 상품의 칸은 버퍼에서 빠지고, 다시 입고하면 새 칸에 쌓인다")
+    void drained_inventories_are_removed_from_the_buffer() {
+        // Given: 50개 상품에 한 번씩 입고
+        List<Long> inventoryIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Long inventoryId = inventoryRepository.save(new Inventory("Idle " + i, 0)).getId();
+            inventoryStockService.restock(inventoryId, 1);
+            inventoryIds.add(inventoryId);
+        }
+        assertThat(stockDeltaBuffer.bufferedInventoryCount()).isGreaterThanOrEqualTo(50);
+
+        // When: 버퍼가 빌 때까지 반영한다 (마지막 반영이 빈 칸을 뺀다)
+        stockDeltaBuffer.flushAll();
+
+        // Then
+        assertThat(stockDeltaBuffer.bufferedInventoryCount()).isZero();
+        assertThat(inventoryRepository.findAllById(inventoryIds)).allSatisfy(inventory ->
+                assertThat(inventory.getStock()).isEqualTo(1));
+
+        // 빠진 뒤에 다시 입고해도 잃어버리지 않는다.
+        inventoryStockService.restock(inventoryIds.get(0), 3);
+        assertThat(stockDeltaBuffer.pending(inventoryIds.get(0))).isEqualTo(3);
+        stockDeltaBuffer.flushAll();
+        assertThat(inventoryRepository.findById(inventoryIds.get(0)).orElseThrow().getStock()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("입고 버퍼: 반영 트랜잭션이 실패하면 묶음의 입고분이 모두 버퍼로 돌아오고, 다음 반영에서 빠짐없이 재고가 된다")
+    void failed_flush_returns_the_whole_batch() {
+        // Given: id 순서로 먼저 잠기는 상품 A 와, 입고분을 더하면 long 이 넘치는 상품 B
+        Long first = inventoryRepository.save(new Inventory("Flushed First", 10)).getId();
+        Long overflowing = inventoryRepository.save(new Inventory("Overflowing", Long.MAX_VALUE - 2)).getId();
+        inventoryStockService.restock(first, 5);
+        inventoryStockService.restock(overflowing, 5);
+        long flushedBefore = stockDeltaBuffer.flushedDeltas();
+
+        // When: A 를 엔티티에 더한 뒤 B 에서 넘쳐 트랜잭션이 통째로 롤백된다.
+        assertThatThrownBy(() -> stockDeltaBuffer.flush()).isInstanceOf(ArithmeticException.class);
+
+        // Then: 이미 더했던 A 의 입고분도 버퍼로 돌아오고, 반영량으로 세지 않는다.
+        assertThat(stockDeltaBuffer.pending(first)).isEqualTo(5);
+        assertThat(stockDeltaBuffer.pending(overflowing)).isEqualTo(5);
+        assertThat(stockDeltaBuffer.flushedDeltas()).isEqualTo(flushedBefore);
+        assertThat(inventoryRepository.findById(first).orElseThrow().getStock()).isEqualTo(10);
+
+        // 넘치지 않게 B 를 줄이면 다음 반영에서 두 상품 모두 입고분이 정확히 한 번 더해진다.
+        transactionTemplate.executeWithoutResult(status ->
+                inventoryRepository.decreaseStock(overflowing, Long.MAX_VALUE - 102));
+        stockDeltaBuffer.flushAll();
+        assertThat(inventoryRepository.findById(first).orElseThrow().getStock()).isEqualTo(15);
+        assertThat(inventoryRepository.findById(overflowing).orElseThrow().getStock()).isEqualTo(105);
+        assertThat(stockDeltaBuffer.flushedDeltas()).isEqualTo(flushedBefore + 10);
+    }
+
+    @Test
+    @DisplayName("입고 버퍼: 입고, 차감 조정, 주문, 반영이 뒤섞여도 최종 재고는 초기 재고 + 입고 - 차감 - 주문과 같아야 한다")
+    void interleaved_restocks_and_orders_keep_stock_consistent() throws InterruptedException {
+        // Given: 재고가 적은 상품 4개와, 샤드 4개로 나눈 상품 2개 (뒤쪽 2개)
+        int rowSkuCount = 4;
+        int skuCount = rowSkuCount + 2;
+        long initialStock = 50;
+        Long[] inventoryIds = new Long[skuCount];
+        for (int i = 0; i < skuCount; i++) {
+            inventoryIds[i] = inventoryRepository.save(new Inventory("Interleaved " + i, initialStock)).getId();
+        }
+        for (int i = rowSkuCount; i < skuCount; i++) {
+            shardedInventoryService.shard(inventoryIds[i], 4);
+        }
+        AtomicLong[] restocked = new AtomicLong[skuCount];
+        AtomicLong[] withdrawn = new AtomicLong[skuCount];
+        AtomicLong[] ordered = new AtomicLong[skuCount];
+        for (int i = 0; i < skuCount; i++) {
+            restocked[i] = new AtomicLong();
+            withdrawn[i] = new AtomicLong();
+            ordered[i] = new AtomicLong();
+        }
+
+        // When: 주문 스레드 16개, 입고/차감 조정 스레드 4개가 동시에 돌고, 그 사이 반영 스레드가 계속 버퍼를 비운다.
+        // SHARDED 스레드는 샤드 상품만, 나머지는 재고 행 상품만 주문한다. 입고는 모든 상품에, 차감 조정은 재고 행 상품에만 한다.
+        int orderThreads = 16;
+        int ordersPerThread = 100;
+        int restockThreads = 4;
+        int restocksPerThread = 100;
+        StockStrategy[] strategies = {StockStrategy.PESSIMISTIC_LOCK, StockStrategy.CONDITIONAL_UPDATE,
+                StockStrategy.OPTIMISTIC_VERSION, StockStrategy.SHARDED};
+        ExecutorService executorService = Executors.newFixedThreadPool(orderThreads + restockThreads + 1);
+        CountDownLatch latch = new CountDownLatch(orderThreads + restockThreads);
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        executorService.submit(() -> {
+            while (running.get()) {
+                stockDeltaBuffer.flush();
+                TimeUnit.MILLISECONDS.sleep(2);
+            }
+            return null;
+        });
+        for (int t = 0; t < orderThreads; t++) {
+            StockStrategy strategy = strategies[t % strategies.length];
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < ordersPerThread; j++) {
+                        int sku = strategy == StockStrategy.SHARDED
+                                ? ThreadLocalRandom.current().nextInt(rowSkuCount, skuCount)
+                                : ThreadLocalRandom.current().nextInt(rowSkuCount);
+                        int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+                        try {
+                            orderService.createOrder(inventoryIds[sku], quantity, strategy);
+                            ordered[sku].addAndGet(quantity);
+                            successCount.incrementAndGet();
+                        } catch (PracticeException e) {
+                            // 재고 부족, 버전 충돌 재시도 소진, 진입 거절은 실패로 센다.
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        for (int t = 0; t < restockThreads; t++) {
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < restocksPerThread; j++) {
+                        int sku = ThreadLocalRandom.current().nextInt(skuCount);
+                        long quantity = ThreadLocalRandom.current().nextInt(1, 6);
+                        if (j % 5 == 4 && sku < rowSkuCount) {
+                            try {
+                                inventoryStockService.adjust(inventoryIds[sku], -quantity);
+                                withdrawn[sku].addAndGet(quantity);
+                            } catch (PracticeException e) {
+                                // 차감할 재고가 모자라면 아무것도 바뀌지 않는다.
+                            }
+                        } else {
+                            inventoryStockService.restock(inventoryIds[sku], quantity);
+                            restocked[sku].addAndGet(quantity);
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        running.set(false);
+        executorService.shutdown();
+        executorService.awaitTermination(10, TimeUnit.SECONDS);
+        stockDeltaBuffer.flushAll();
+
+        // Then: 버퍼가 비었고, 상품마다 재고 = 초기 + 입고 - 차감 - 주문, 주문 행 수 = 성공한 주문 수
+        // 샤드 상품의 입고분은 재고 행이 아니라 샤드에 더해져, 재고 행은 0 이고 샤드 합계가 기대값이다.
+        System.out.printf("주문 성공 %d건, 반영 스레드가 반영한 입고 %d개, 주문이 가져다 쓴 입고 %d개%n",
+                successCount.get(), stockDeltaBuffer.flushedDeltas(), stockDeltaBuffer.drainedByOrders());
+        for (int i = 0; i < skuCount; i++) {
+            long expected = initialStock + restocked[i].get() - withdrawn[i].get() - ordered[i].get();
+            assertThat(stockDeltaBuffer.pending(inventoryIds[i])).isZero();
+            if (i < rowSkuCount) {
+                assertThat(inventoryRepository.findById(inventoryIds[i]).orElseThrow().getStock()).isEqualTo(expected);
+            } else {
+                assertThat(inventoryRepository.findById(inventoryIds[i]).orElseThrow().getStock()).isZero();
+                assertThat(shardedInventoryService.totalStock(inventoryIds[i])).isEqualTo(expected);
+            }
+        }
+        assertThat(productOrderRepository.count()).isEqualTo(successCount.get());
+    }
+}
@@ -0,0 +1,41 @@
+package concurrency.practice.linearizability;
+
+import concurrency.practice.exception.PracticeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 여러 스레드가 실행한 연산의 호출/반환을 기록한다.
+ *
+ * 시각은 System.nanoTime 대신 하나의 AtomicLong 논리 시계에서 받는다. 호출 시각은 연산 직전에, 반환 시각은 직후에 받으므로
+ * "A 의 반환 시각 < B 의 호출 시각" 이면 실제로도 A 가 B 보다 먼저 끝났다. 코어마다 nanoTime 이 어긋나도 순서가 뒤집히지 않는다.
+ */
+public class History {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrentLinkedQueue<Operation> operations = new ConcurrentLinkedQueue<>();
+
+    /**
+     * action 을 실행하고 호출/반환을 기록합니다. PracticeException 은 실패 결과로 기록하고, 그 밖의 예외는 그대로 던집니다.
+     */
+    public Operation.Outcome record(int thread, Operation.Kind kind, long key, long argument, LongSupplier action) {
+        long invokedAt = clock.incrementAndGet();
+        Operation.Outcome outcome;
+        try {
+            outcome = Operation.Outcome.ok(action.getAsLong());
+        } catch (PracticeException e) {
+            outcome = Operation.Outcome.failed(e.getErrorCode());
+        }
+        long returnedAt = clock.incrementAndGet();
+        operations.add(new Operation(thread, kind, key, argument, outcome, invokedAt, returnedAt));
+        return outcome;
+    }
+
+    public List<Operation> operations() {
+        return new ArrayList<>(operations);
+    }
+}
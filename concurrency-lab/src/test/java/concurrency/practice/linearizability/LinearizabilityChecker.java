@@ -0,0 +1,195 @@
+package concurrency.practice.linearizability;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * 히스토리가 순차 명세(SequentialModel)에 대해 선형화 가능한지 검사한다.
+ *
+ * 1. 객체별로 나눈다. 선형화 가능성은 객체마다 따로 성립하면 전체로도 성립하므로(locality),
+ *    재고 하나, 주문 하나씩 작은 히스토리로 나눠 병렬로 검사한다.
+ * 2. 객체마다 Wing & Gong 탐색을 한다. 아직 선형화하지 않은 연산 중 호출이 가장 앞선 반환보다 먼저인 것을 하나 골라
+ *    명세대로 실행해 보고, 막히면 되돌린다.
+ * 3. (선형화한 연산 집합, 상태) 쌍을 기억해 같은 지점을 두 번 탐색하지 않는다. (Lowe 의 메모이제이션)
+ *    같은 상태로 수렴하는 교차가 대부분이므로, 동시 연산이 수십 개여도 탐색은 연산 수에 거의 비례한다.
+ */
+public final class LinearizabilityChecker {
+
+    private LinearizabilityChecker() {
+    }
+
+    /**
+     * @param partitioner  연산 -> 대상 객체
+     * @param initialState 객체 -> 초기 상태
+     * @return 선형화할 수 없는 객체가 있으면 그 객체의 검사 결과
+     */
+    public static <K> Optional<Violation> check(List<Operation> history,
+                                                Function<Operation, K> partitioner,
+                                                ToLongFunction<K> initialState,
+                                                SequentialModel model) {
+        Map<K, List<Operation>> partitions = history.stream().collect(Collectors.groupingBy(partitioner));
+        return partitions.entrySet().parallelStream()
+                .map(entry -> checkPartition(entry.getKey(), entry.getValue(),
+                        initialState.applyAsLong(entry.getKey()), model))
+                .flatMap(Optional::stream)
+                .findAny();
+    }
+
+    private static Optional<Violation> checkPartition(Object partition, List<Operation> operations,
+                                                      long initialState, SequentialModel model) {
+        Node head = buildEntryList(operations);
+
+        long state = initialState;
+        BitSet linearized = new BitSet(operations.size());
+        Set<CacheKey> visited = new HashSet<>();
+        Deque<Frame> stack = new ArrayDeque<>();
+        int deepest = 0;
+        Operation stuckAt = null;
+
+        Node entry = head.next;
+        while (head.next != null) {
+            if (entry.call) {
+                long next = model.step(state, entry.operation);
+                if (next != SequentialModel.REJECT) {
+                    linearized.set(entry.index);
+                    if (visited.add(new CacheKey((BitSet) linearized.clone(), next))) {
+                        stack.push(new Frame(entry, state));
+                        state = next;
+                        entry.lift();
+                        entry = head.next;
+                        continue;
+                    }
+                    linearized.clear(entry.index);
+                }
+                entry = entry.next;
+            } else {
+                // 반환 항목에 닿았다: 이 연산을 선형화하지 않고는 더 나아갈 수 없으니 마지막 선택을 되돌린다.
+                if (stack.size() >= deepest) {
+                    deepest = stack.size();
+                    stuckAt = entry.operation;
+                }
+                if (stack.isEmpty()) {
+                    return Optional.of(new Violation(partition, operations.size(), deepest, stuckAt,
+                            concurrentWith(stuckAt, operations)));
+                }
+                Frame frame = stack.pop();
+                state = frame.stateBefore();
+                linearized.clear(frame.call().index);
+                frame.call().unlift();
+                entry = frame.call().next;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 호출/반환 항목을 시각 순으로 이은 이중 연결 리스트를 만든다. head 는 빈 머리 노드다.
+     */
+    private static Node buildEntryList(List<Operation> operations) {
+        List<Node> entries = new ArrayList<>(operations.size() * 2);
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            Node call = new Node(operation, i, true, operation.invokedAt());
+            Node ret = new Node(operation, i, false, operation.returnedAt());
+            call.match = ret;
+            entries.add(call);
+            entries.add(ret);
+        }
+        entries.sort(Comparator.comparingLong(node -> node.time));
+
+        Node head = new Node(null, -1, false, 0);
+        Node previous = head;
+        for (Node node : entries) {
+            previous.next = node;
+            node.prev = previous;
+            previous = node;
+        }
+        return head;
+    }
+
+    private static List<Operation> concurrentWith(Operation stuck, List<Operation> operations) {
+        if (stuck == null) {
+            return List.of();
+        }
+        return operations.stream()
+                .filter(op -> op.invokedAt() < stuck.returnedAt() && stuck.invokedAt() < op.returnedAt())
+                .sorted(Comparator.comparingLong(Operation::invokedAt))
+                .toList();
+    }
+
+    private static final class Node {
+        private final Operation operation;
+        private final int index;
+        private final boolean call;
+        private final long time;
+        private Node match;
+        private Node prev;
+        private Node next;
+
+        private Node(Operation operation, int index, boolean call, long time) {
+            this.operation = operation;
+            this.index = index;
+            this.call = call;
+            this.time = time;
+        }
+
+        /**
+         * 호출 항목과 짝이 되는 반환 항목을 리스트에서 뺀다. 자기 prev/next 는 그대로 두어 unlift 로 되돌릴 수 있다.
+         */
+        private void lift() {
+            prev.next = next;
+            next.prev = prev;
+            match.prev.next = match.next;
+            if (match.next != null) {
+                match.next.prev = match.prev;
+            }
+        }
+
+        private void unlift() {
+            match.prev.next = match;
+            if (match.next != null) {
+                match.next.prev = match;
+            }
+            prev.next = this;
+            next.prev = this;
+        }
+    }
+
+    private record Frame(Node call, long stateBefore) {
+    }
+
+    private record CacheKey(BitSet linearized, long state) {
+    }
+
+    /**
+     * @param partition      선형화할 수 없는 객체
+     * @param operations     그 객체의 연산 수
+     * @param longestPrefix  찾은 가장 긴 선형화 길이
+     * @param stuckAt        가장 긴 선형화에서 더 나아가지 못하게 막은 연산
+     * @param concurrent     stuckAt 과 시간이 겹치는 연산들 (재현 단서)
+     */
+    public record Violation(Object partition, int operations, int longestPrefix,
+                            Operation stuckAt, List<Operation> concurrent) {
+
+        @Override
+        public String toString() {
+            StringBuilder message = new StringBuilder()
+                    .append("not linearizable: ").append(partition)
+                    .append(" (").append(longestPrefix).append('/').append(operations).append(" linearized)")
+                    .append("\n  stuck at ").append(stuckAt);
+            concurrent.forEach(op -> message.append("\n    ").append(op));
+            return message.toString();
+        }
+    }
+}
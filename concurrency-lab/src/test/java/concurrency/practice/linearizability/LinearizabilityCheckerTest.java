@@ -0,0 +1,143 @@
+package concurrency.practice.linearizability;
+
+import concurrency.practice.exception.PracticeErrorCode;
+import concurrency.practice.linearizability.OrderDomainModel.ObjectKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LinearizabilityCheckerTest {
+
+    @Test
+    @DisplayName("선형화 검사: 끝난 주문을 못 본 재고 읽기와, 재고 1개를 두 주문이 모두 가져간 히스토리는 거절한다")
+    void rejects_stale_read_and_double_sell() {
+        // 주문이 반환된 뒤에 시작한 읽기는 차감된 재고를 봐야 한다.
+        List<Operation> staleRead = List.of(
+                createOrder(0, 1, 1, 1, 2),
+                readStock(1, 1, 1, 3, 4));
+        assertThat(check(staleRead, 1)).isPresent();
+
+        // 읽기가 주문과 겹치면 주문 전의 재고를 봐도 된다.
+        List<Operation> overlappingRead = List.of(
+                createOrder(0, 1, 1, 1, 4),
+                readStock(1, 1, 1, 2, 3));
+        assertThat(check(overlappingRead, 1)).isEmpty();
+
+        // 재고 1개를 동시에 주문해 둘 다 성공할 수는 없다.
+        List<Operation> doubleSell = List.of(
+                createOrder(0, 1, 1, 1, 3),
+                createOrder(1, 1, 1, 2, 4));
+        Optional<LinearizabilityChecker.Violation> violation = check(doubleSell, 1);
+        assertThat(violation).isPresent();
+        System.out.println(violation.get());
+
+        // 재고가 남아 있었는데 OUT_OF_STOCK 으로 끝난 주문도 거절한다.
+        List<Operation> falseOutOfStock = List.of(
+                new Operation(0, Operation.Kind.CREATE_ORDER, 1, 1,
+                        Operation.Outcome.failed(PracticeErrorCode.OUT_OF_STOCK), 1, 2));
+        assertThat(check(falseOutOfStock, 1)).isPresent();
+    }
+
+    @Test
+    @DisplayName("선형화 검사: 동시 연산 32개씩 겹친 2만 건의 히스토리도 CI 에서 돌릴 만큼 빨리 검사하고, 값 하나만 틀려도 찾아낸다")
+    void checks_large_history_quickly() {
+        // Given: 한 번에 하나씩 실행하는 진짜 명세로 연산 결과를 만들되, 호출/반환 시각은 스레드 32개가 겹친 것처럼 흩어 놓는다.
+        int skus = 8;
+        long initialStock = 3000;
+        List<Operation> history = simulate(new Random(42), 32, 20_000, skus, initialStock);
+
+        // When
+        long startedAt = System.nanoTime();
+        Optional<LinearizabilityChecker.Violation> violation = check(history, initialStock);
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        System.out.printf("연산 %d건 검사: %dms%n", history.size(), elapsedMillis);
+
+        // Then: 선형화 가능하다고 판정하고, 읽은 값 하나를 틀리게 바꾸면 그 재고를 지목한다.
+        assertThat(violation).isEmpty();
+        assertThat(elapsedMillis).isLessThan(10_000);
+
+        int corrupted = 0;
+        while (history.get(corrupted).kind() != Operation.Kind.READ_STOCK) {
+            corrupted++;
+        }
+        Operation read = history.get(corrupted);
+        history.set(corrupted, new Operation(read.thread(), read.kind(), read.key(), read.argument(),
+                Operation.Outcome.ok(read.outcome().value() + initialStock), read.invokedAt(), read.returnedAt()));
+        Optional<LinearizabilityChecker.Violation> detected = check(history, initialStock);
+        assertThat(detected).isPresent();
+        assertThat(detected.get().partition()).isEqualTo(new ObjectKey(true, read.key()));
+    }
+
+    private Optional<LinearizabilityChecker.Violation> check(List<Operation> history, long initialStock) {
+        Map<Long, Long> initialStocks = new HashMap<>();
+        history.forEach(op -> initialStocks.put(op.key(), initialStock));
+        OrderDomainModel model = new OrderDomainModel(initialStocks, history);
+        return LinearizabilityChecker.check(OrderDomainModel.effective(history), ObjectKey::of, model::initialState, model);
+    }
+
+    /**
+     * 스레드마다 호출 -> 실행 -> 반환 세 단계를 무작위로 섞어 진행한다. 실행(선형화 지점)은 한 번에 하나씩 일어나므로
+     * 만들어진 히스토리는 언제나 선형화 가능하다.
+     */
+    private List<Operation> simulate(Random random, int threads, int operations, int skus, long initialStock) {
+        long[] stock = new long[skus + 1];
+        Arrays.fill(stock, initialStock);
+        Operation[] pending = new Operation[threads];
+        boolean[] executed = new boolean[threads];
+        List<Operation> history = new ArrayList<>(operations);
+        long clock = 0;
+        int started = 0;
+        while (history.size() < operations) {
+            int t = random.nextInt(threads);
+            if (pending[t] == null) {
+                if (started == operations) {
+                    continue;
+                }
+                started++;
+                boolean create = random.nextInt(100) < 70;
+                long sku = 1 + random.nextInt(skus);
+                pending[t] = new Operation(t, create ? Operation.Kind.CREATE_ORDER : Operation.Kind.READ_STOCK,
+                        sku, create ? 1 + random.nextInt(3) : 0, null, ++clock, 0);
+                executed[t] = false;
+            } else if (!executed[t]) {
+                Operation op = pending[t];
+                int sku = (int) op.key();
+                Operation.Outcome outcome;
+                if (op.kind() == Operation.Kind.READ_STOCK) {
+                    outcome = Operation.Outcome.ok(stock[sku]);
+                } else if (stock[sku] >= op.argument()) {
+                    stock[sku] -= op.argument();
+                    outcome = Operation.Outcome.ok(clock);
+                } else {
+                    outcome = Operation.Outcome.failed(PracticeErrorCode.OUT_OF_STOCK);
+                }
+                pending[t] = new Operation(t, op.kind(), op.key(), op.argument(), outcome, op.invokedAt(), 0);
+                executed[t] = true;
+            } else {
+                Operation op = pending[t];
+                history.add(new Operation(t, op.kind(), op.key(), op.argument(), op.outcome(), op.invokedAt(), ++clock));
+                pending[t] = null;
+            }
+        }
+        return history;
+    }
+
+    private Operation createOrder(int thread, long inventoryId, long quantity, long invokedAt, long returnedAt) {
+        return new Operation(thread, Operation.Kind.CREATE_ORDER, inventoryId, quantity,
+                Operation.Outcome.ok(invokedAt), invokedAt, returnedAt);
+    }
+
+    private Operation readStock(int thread, long inventoryId, long value, long invokedAt, long returnedAt) {
+        return new Operation(thread, Operation.Kind.READ_STOCK, inventoryId, 0,
+                Operation.Outcome.ok(value), invokedAt, returnedAt);
+    }
+}
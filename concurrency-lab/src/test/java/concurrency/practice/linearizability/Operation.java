@@ -0,0 +1,57 @@
+package concurrency.practice.linearizability;
+
+import concurrency.practice.exception.PracticeErrorCode;
+
+/**
+ * 히스토리에 남은 연산 하나: 호출 시각과 반환 시각 사이 어딘가에서 한 번에 실행된 것처럼 보여야 한다.
+ *
+ * @param thread     호출한 스레드 번호
+ * @param kind       연산 종류
+ * @param key        대상 재고 id 또는 주문 id
+ * @param argument   주문 수량, 바꿀 수량 등 (읽기 연산은 0)
+ * @param outcome    반환값 또는 실패 코드
+ * @param invokedAt  호출 직전에 History 의 논리 시계에서 받은 값
+ * @param returnedAt 반환 직후에 받은 값
+ */
+public record Operation(int thread, Kind kind, long key, long argument, Outcome outcome,
+                        long invokedAt, long returnedAt) {
+
+    public enum Kind {
+        CREATE_ORDER(true),
+        READ_STOCK(true),
+        UPDATE_QUANTITY(false),
+        READ_ORDER(false);
+
+        // true 면 재고 객체, false 면 주문 객체에 대한 연산
+        private final boolean onInventory;
+
+        Kind(boolean onInventory) {
+            this.onInventory = onInventory;
+        }
+
+        public boolean onInventory() {
+            return onInventory;
+        }
+    }
+
+    /**
+     * @param ok    성공했으면 true. value 는 생성된 주문 id, 읽은 재고, 읽은 수량 중 하나
+     * @param error 실패했을 때의 오류 코드
+     */
+    public record Outcome(boolean ok, long value, PracticeErrorCode error) {
+
+        public static Outcome ok(long value) {
+            return new Outcome(true, value, null);
+        }
+
+        public static Outcome failed(PracticeErrorCode error) {
+            return new Outcome(false, 0, error);
+        }
+    }
+
+    @Override
+    public String toString() {
+        String result = outcome.ok() ? "ok(" + outcome.value() + ")" : outcome.error().name();
+        return "[t%d %d..%d] %s(%d, %d) -> %s".formatted(thread, invokedAt, returnedAt, kind, key, argument, result);
+    }
+}
@@ -0,0 +1,84 @@
+package concurrency.practice.linearizability;
+
+import concurrency.practice.exception.PracticeErrorCode;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inventory/ProductOrder 의 순차 명세
+ *
+ * - 재고 객체 (상태: 재고 수량)
+ *   CREATE_ORDER(q) 성공 -> 재고 >= q 여야 하고 q 만큼 줄어든다. OUT_OF_STOCK -> 재고 < q 여야 한다.
+ *   READ_STOCK -> 읽은 값이 현재 재고와 같아야 한다.
+ * - 주문 객체 (상태: 주문 수량, 초기값은 생성한 수량)
+ *   UPDATE_QUANTITY(q) 성공 -> q 가 된다. READ_ORDER -> 읽은 값이 현재 수량과 같아야 한다.
+ *
+ * 버전 충돌, 진입 거절처럼 아무것도 바꾸지 않고 실패한 연산은 명세와 상관없이 롤백되므로 검사 대상에서 뺀다.
+ */
+public class OrderDomainModel implements SequentialModel {
+
+    /**
+     * 검사 대상 객체
+     */
+    public record ObjectKey(boolean inventory, long id) {
+
+        public static ObjectKey of(Operation op) {
+            return new ObjectKey(op.kind().onInventory(), op.key());
+        }
+
+        @Override
+        public String toString() {
+            return (inventory ? "inventory " : "order ") + id;
+        }
+    }
+
+    private final Map<Long, Long> initialStocks;
+    private final Map<Long, Long> createdQuantities = new HashMap<>();
+
+    /**
+     * @param initialStocks 재고 id -> 시작 재고
+     * @param history       주문의 초기 수량을 알아내기 위해 전체 히스토리를 받는다
+     */
+    public OrderDomainModel(Map<Long, Long> initialStocks, List<Operation> history) {
+        this.initialStocks = initialStocks;
+        for (Operation op : history) {
+            if (op.kind() == Operation.Kind.CREATE_ORDER && op.outcome().ok()) {
+                createdQuantities.put(op.outcome().value(), op.argument());
+            }
+        }
+    }
+
+    /**
+     * 검사할 연산만 남깁니다. 실패했지만 상태를 바꾸지 않았음이 확실한 연산을 뺍니다.
+     */
+    public static List<Operation> effective(List<Operation> history) {
+        return history.stream()
+                .filter(op -> op.outcome().ok() || op.outcome().error() == PracticeErrorCode.OUT_OF_STOCK)
+                .toList();
+    }
+
+    public long initialState(ObjectKey key) {
+        Long initial = key.inventory() ? initialStocks.get(key.id()) : createdQuantities.get(key.id());
+        if (initial == null) {
+            throw new IllegalStateException("unknown initial state for " + key);
+        }
+        return initial;
+    }
+
+    @Override
+    public long step(long state, Operation op) {
+        Operation.Outcome outcome = op.outcome();
+        return switch (op.kind()) {
+            case CREATE_ORDER -> {
+                if (outcome.ok()) {
+                    yield state >= op.argument() ? state - op.argument() : REJECT;
+                }
+                yield state < op.argument() ? state : REJECT;
+            }
+            case READ_STOCK, READ_ORDER -> outcome.value() == state ? state : REJECT;
+            case UPDATE_QUANTITY -> op.argument();
+        };
+    }
+}
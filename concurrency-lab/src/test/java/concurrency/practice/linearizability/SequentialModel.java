@@ -0,0 +1,14 @@
+package concurrency.practice.linearizability;
+
+/**
+ * 검사 대상 객체 하나를 순차적으로 실행했을 때의 명세. 상태는 long 하나로 표현한다. (재고 수량, 주문 수량)
+ */
+public interface SequentialModel {
+
+    long REJECT = Long.MIN_VALUE;
+
+    /**
+     * state 에서 op 를 실행해 기록된 결과가 나올 수 있으면 실행 후 상태를, 나올 수 없으면 REJECT 를 반환합니다.
+     */
+    long step(long state, Operation op);
+}
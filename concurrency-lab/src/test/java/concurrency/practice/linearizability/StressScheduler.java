@@ -0,0 +1,46 @@
+package concurrency.practice.linearizability;
+
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 시드로 재현할 수 있는 무작위 스케줄
+ *
+ * 스레드 t 는 seed 와 t 로 만든 자기만의 Random 을 쓰므로, 같은 시드로 다시 돌리면 스레드마다 같은 종류의 연산을
+ * 같은 인자, 같은 지연으로 실행한다. 스레드끼리의 실제 교차와 어느 주문 id 를 고르게 될지는 OS 스케줄러에 달려 있어
+ * 완전히 같지는 않지만, 실패한 시드를 반복해서 돌리면 같은 모양의 경합이 다시 만들어진다.
+ *
+ * -Dstress.seed=... 로 시드를 고정한다. 없으면 매번 새 시드를 쓰고, 실패 메시지에 시드를 남긴다.
+ */
+public class StressScheduler {
+
+    private final long seed;
+
+    public StressScheduler(long seed) {
+        this.seed = seed;
+    }
+
+    public static StressScheduler fromSystemProperty() {
+        return new StressScheduler(Long.getLong("stress.seed", System.nanoTime()));
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public Random random(int thread) {
+        return new Random(seed * 0x9E3779B97F4A7C15L + thread);
+    }
+
+    /**
+     * 연산 사이에 무작위로 양보하거나 잠깐 멈춰, 스레드들이 매번 다른 지점에서 겹치게 한다.
+     */
+    public void perturb(Random random) {
+        int dice = random.nextInt(100);
+        if (dice < 10) {
+            Thread.yield();
+        } else if (dice < 15) {
+            LockSupport.parkNanos(random.nextInt(200_000));
+        }
+    }
+}
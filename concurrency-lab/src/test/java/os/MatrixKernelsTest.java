@@ -0,0 +1,58 @@
+package os;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import os.matrix.IntMatrix;
+import os.matrix.MatrixKernels;
+
+public class MatrixKernelsTest {
+
+    @Test
+    @DisplayName("타일 크기로 나누어떨어지지 않는 행렬도 모든 전치 커널이 같은 결과를 낸다")
+    void transposeKernelsAgree() {
+        // given
+        int[][] source = randomMatrix(131, 77, 1);
+        IntMatrix flat = IntMatrix.from(source);
+
+        // when
+        int[][] expected = MatrixKernels.naiveTranspose(source);
+
+        // then
+        assertArrayEquals(expected, MatrixKernels.transpose(flat).toArray());
+        assertArrayEquals(expected, MatrixKernels.tiledTranspose(flat, 16).toArray());
+        assertArrayEquals(expected, MatrixKernels.parallelTiledTranspose(flat, 16, ForkJoinPool.commonPool()).toArray());
+    }
+
+    @Test
+    @DisplayName("타일 크기로 나누어떨어지지 않는 행렬도 모든 곱셈 커널이 같은 결과를 낸다")
+    void multiplyKernelsAgree() {
+        // given
+        int[][] a = randomMatrix(97, 45, 2);
+        int[][] b = randomMatrix(45, 83, 3);
+
+        // when
+        IntMatrix expected = IntMatrix.from(MatrixKernels.naiveMultiply(a, b));
+
+        // then
+        assertEquals(expected, MatrixKernels.multiply(IntMatrix.from(a), IntMatrix.from(b)));
+        assertEquals(expected, MatrixKernels.tiledMultiply(IntMatrix.from(a), IntMatrix.from(b), 16));
+        assertEquals(expected, MatrixKernels.parallelTiledMultiply(
+                IntMatrix.from(a), IntMatrix.from(b), 16, ForkJoinPool.commonPool()));
+    }
+
+    private int[][] randomMatrix(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        int[][] matrix = new int[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                matrix[i][j] = random.nextInt(100) - 50;
+            }
+        }
+        return matrix;
+    }
+}